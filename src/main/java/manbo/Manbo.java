@@ -1,12 +1,25 @@
 package manbo;
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.*;
+import java.util.function.Consumer;
+import manbo.reminder.ReminderScheduler;
+import manbo.storage.DeferredStorage;
+import manbo.storage.FsyncPolicy;
 import manbo.storage.Storage;
+import manbo.storage.WriteBehindStorage;
 import manbo.task.Task;
+import manbo.task.TaskList;
+import manbo.ui.ConsoleSink;
+import manbo.ui.NullSink;
 import manbo.ui.Ui;
 import manbo.parser.Parser;
 import manbo.command.Command;
 import manbo.exceptions.ManboException;
+import manbo.exceptions.UnrecognisedInputException;
 
 /**
  * Main class for the Manbo task management application.
@@ -17,72 +30,400 @@ import manbo.exceptions.ManboException;
  * @version 1.0
  */
 public class Manbo {
-    private final Storage storage = new Storage("data/manbo.txt");
-    private final List<Task> tasks = new ArrayList<>();
+    private static final String DATA_FILE = "data/manbo.txt";
+
+    private final Storage storage;
+    private final TaskList tasks;
     private final Ui ui = new Ui();
+    private ReminderScheduler reminders;
+
+    /**
+     * Set while {@link #load} has not succeeded since it last failed; {@link #handle} then
+     * refuses input, so no save replaces the tasks still on disk.
+     */
+    private boolean loadFailed;
+
+    /**
+     * Creates a Manbo instance backed by {@code data/manbo.txt}.
+     * <p>
+     * Saves are written behind on a background thread by default; set
+     * {@code -Dmanbo.writeBehind=false} to save synchronously. Journal mode is opt-in
+     * through {@code -Dmanbo.journal=true} and always saves synchronously.
+     * The fsync policy can be chosen with {@code manbo.fsync}
+     * ({@code always}, {@code never} or a number of milliseconds), and
+     * {@code -Dmanbo.format=binary} switches saves to the compact binary format.
+     * {@code -Dmanbo.lazyLoad=true} makes the CLI map the task file and decode tasks
+     * only when a command touches them, and turns reminders off unless they are asked for. {@code -Dmanbo.incremental=true} saves synchronously
+     * and writes mark/unmark and add in place instead of rewriting the whole file.
+     * Deadline and event reminders are pushed as they come due, unless
+     * {@code -Dmanbo.reminders=false} is set; see {@link #remindersEnabled()}.
+     */
+    public Manbo() {
+        this(new TaskList());
+    }
+
+    /**
+     * Creates a Manbo instance backed by {@code data/manbo.txt} that works on {@code tasks},
+     * which other sessions may share; every command reads and changes it through
+     * {@link TaskList#read} and {@link TaskList#write}. Loading replaces the shared list's
+     * contents in place. Options are read as for {@link #Manbo()}.
+     *
+     * @param tasks the task list to work on
+     */
+    public Manbo(TaskList tasks) {
+        assert tasks != null : "Task list must not be null";
+        this.tasks = tasks;
+        boolean journal = Boolean.getBoolean("manbo.journal");
+        boolean incremental = Boolean.getBoolean("manbo.incremental");
+        boolean writeBehind = !journal && !incremental
+                && Boolean.parseBoolean(System.getProperty("manbo.writeBehind", "true"));
+
+        storage = writeBehind ? new WriteBehindStorage(DATA_FILE) : new Storage(DATA_FILE);
+        storage.setJournalEnabled(journal);
+        storage.setIncrementalEnabled(incremental);
+        storage.setFsyncPolicy(FsyncPolicy.parse(System.getProperty("manbo.fsync")));
+        if ("binary".equalsIgnoreCase(System.getProperty("manbo.format"))) {
+            storage.setFormat(Storage.Format.BINARY);
+        }
+    }
 
     /**
      * Main entry point for the Manbo application.
-     * Creates a new instance of Manbo and starts the application.
+     * Without arguments, starts the interactive loop. With {@code --batch [file]}, runs the
+     * commands in {@code file} (or standard input if it is missing or {@code -}) through
+     * {@link #runBatch}; {@code --transactional}, {@code --quiet} and {@code --stats} set
+     * its options. A failed batch exits with status 1.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments
      */
     public static void main(String[] args) {
-        new Manbo().run();
+        boolean batch = false;
+        String source = "-";
+        boolean transactional = false;
+        boolean quiet = false;
+        boolean stats = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--batch":
+                batch = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    source = args[++i];
+                }
+                break;
+            case "--transactional":
+                transactional = true;
+                break;
+            case "--quiet":
+                quiet = true;
+                break;
+            case "--stats":
+                stats = true;
+                break;
+            default:
+                System.out.println("Error: unknown option " + args[i]);
+                System.out.println("Usage: Manbo [--batch [file|-]] [--transactional] [--quiet] [--stats]");
+                System.exit(2);
+            }
+        }
+        if (!batch) {
+            new Manbo().run();
+            return;
+        }
+
+        boolean ok;
+        try (BufferedReader in = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : new BufferedReader(new FileReader(source))) {
+            ok = new Manbo().runBatch(in, transactional, quiet, stats);
+        } catch (IOException e) {
+            System.out.println("Error reading batch: " + e.getMessage());
+            ok = false;
+        }
+        if (!ok) {
+            System.exit(1);
+        }
     }
 
     /**
      * Runs the main application loop.
      * Initializes the application, loads existing tasks from storage,
      * and processes user commands until an exit command is received.
+     * A line may hold several commands separated by {@code ;}; they are saved and
+     * printed as one reply.
      * Handles exceptions and displays appropriate error messages to the user.
      */
     public void run() {
+        ui.setSink(new ConsoleSink()); // each reply is printed in one piece, then forgotten
         ui.showWelcome();
-        tasks.addAll(storage.load());
+        ui.render();
+        loadTasks();
+        if (remindersEnabled()) {
+            startReminders(ui::showReminder);
+        }
 
         boolean isExit = false;
         while (!isExit) {
             try {
                 String fullCommand = ui.readCommand().trim();
                 ui.showLine();
-                Command c = Parser.parse(fullCommand);
+                Command c = Parser.parseLine(fullCommand);
                 c.execute(tasks, ui, storage);
                 isExit = c.isExit();
             } catch (ManboException e) {
                 ui.showError(e.getMessage());
             } finally {
                 ui.showLine();
+                ui.render();
             }
         }
+
+        close();
+    }
+
+    /**
+     * Stops reminders and flushes pending saves; for callers driving {@link #handle}.
+     * {@link #run()} and {@link #runBatch} clean up by themselves.
+     */
+    public void close() {
+        stopReminders();
+        closeStorage();
+    }
+
+    /**
+     * Runs a batch of commands, one per line, against the in-memory list and saves once at
+     * the end instead of after every command.
+     * <p>
+     * Blank lines and lines starting with {@code #} are skipped, and {@code bye} ends the batch
+     * early. A failing command is reported with its line number; by default the rest of the
+     * batch still runs and its result is saved. A transactional batch instead stops at the
+     * first failure and saves nothing, leaving the task file as it was. No reminders are
+     * pushed during a batch.
+     *
+     * @param in            the commands
+     * @param transactional whether one failure abandons the whole batch
+     * @param quiet         whether to hold back the replies of successful commands
+     * @param stats         whether to finish with a throughput summary
+     * @return whether every command succeeded
+     * @throws IOException if {@code in} cannot be read
+     */
+    public boolean runBatch(BufferedReader in, boolean transactional, boolean quiet, boolean stats)
+            throws IOException {
+        assert in != null : "Batch input must not be null";
+        loadTasks();
+        DeferredStorage deferred = new DeferredStorage(storage);
+        ui.setSink(quiet ? NullSink.INSTANCE : new ConsoleSink());
+
+        long start = System.nanoTime();
+        int lineNo = 0;
+        int commands = 0;
+        int errors = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            String input = line.trim();
+            if (input.isEmpty() || input.startsWith("#")) {
+                continue;
+            }
+            commands++;
+            try {
+                Command c = Parser.parseLine(input);
+                c.execute(tasks, ui, deferred);
+                if (c.isExit()) {
+                    break;
+                }
+            } catch (ManboException e) {
+                errors++;
+                ui.render();
+                System.out.println("Error on line " + lineNo + ": " + e.getMessage());
+                if (transactional) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                // e.g. an index too large for an int; fail this line, not the whole batch
+                errors++;
+                ui.render();
+                System.out.println("Error on line " + lineNo + ": Unexpected error: " + e.getMessage());
+                if (transactional) {
+                    break;
+                }
+            } finally {
+                ui.render();
+            }
+        }
+        long ran = System.nanoTime() - start;
+
+        boolean abandoned = transactional && errors > 0;
+        long saveStart = System.nanoTime();
+        if (abandoned) {
+            System.out.println("Batch abandoned; nothing was saved.");
+        } else {
+            deferred.commit(tasks);
+            storage.flush();
+        }
+        long saved = System.nanoTime() - saveStart;
+        closeStorage();
+
+        if (stats) {
+            double seconds = ran / 1e9;
+            System.out.printf("Batch: %d commands, %d failed, %d tasks; ran in %.1f ms (%.0f commands/s),"
+                            + " saved in %.1f ms%n",
+                    commands, errors, tasks.read(tasks::size), ran / 1e6,
+                    seconds > 0 ? commands / seconds : 0.0, saved / 1e6);
+        }
+        return errors == 0;
     }
 
-// In manbo/Manbo.java
+    /**
+     * Loads the task file, for callers driving {@link #handle}; {@link #run()} and
+     * {@link #runBatch} load by themselves. Call it before {@link #startReminders} and
+     * before the first {@link #handle}, whose first save would otherwise replace the file
+     * with the empty list Manbo starts with.
+     *
+     * If the file cannot be read, {@link #handle} refuses every input until a later load
+     * succeeds, so the tasks on disk are never replaced by an empty list.
+     *
+     * @param progress receives load progress on the calling thread; a lazy load
+     *                 ({@code -Dmanbo.lazyLoad=true}) reports none
+     * @return the number of tasks loaded
+     * @throws ManboException if the task file could not be read
+     */
+    public int load(Storage.LoadProgress progress) throws ManboException {
+        assert progress != null : "Progress must not be null";
+        loadFailed = true; // until the load below returns the file's tasks
+        loadTasks(progress);
+        if (storage.isLoadFailed()) {
+            throw new ManboException("Could not read your tasks from " + DATA_FILE
+                    + ", so I won't change them. Fix or move the file and restart me.");
+        }
+        loadFailed = false;
+        return tasks.read(tasks::size);
+    }
+
+    private void loadTasks() {
+        loadTasks(Storage.LoadProgress.NONE);
+    }
+
+    private void loadTasks(Storage.LoadProgress progress) {
+        List<Task> loaded = Boolean.getBoolean("manbo.lazyLoad") ? storage.loadLazy() : storage.load(progress);
+        // In place, so sessions sharing the list see the loaded tasks; indexes are rebuilt on first use
+        tasks.write(() -> tasks.replaceWith(loaded));
+    }
+
+    private void closeStorage() {
+        storage.close();
+        if (Boolean.getBoolean("manbo.storage.stats")) {
+            String requested = storage instanceof WriteBehindStorage
+                    ? ((WriteBehindStorage) storage).getRequestedSaves() + " saves requested, "
+                    : "";
+            System.out.println("Storage: fsync " + storage.getFsyncPolicy() + ", "
+                    + requested + storage.getSaveStats());
+        }
+    }
 
-    /** A tiny result type for GUI use. */
+    /**
+     * Whether front ends should start reminders: {@code manbo.reminders} if set, otherwise on
+     * unless the list is lazily loaded. Reminders have to visit every task to find their
+     * dates, which would decode the whole of a lazy list at startup.
+     *
+     * @return whether to call {@link #startReminders} after loading
+     */
+    public static boolean remindersEnabled() {
+        String reminders = System.getProperty("manbo.reminders");
+        return reminders != null ? Boolean.parseBoolean(reminders) : !Boolean.getBoolean("manbo.lazyLoad");
+    }
+
+    /**
+     * Starts pushing reminders for the current tasks' deadlines and events to {@code sink},
+     * replacing any earlier sink. The sink is called on the reminder thread.
+     *
+     * @param sink receives each reminder's text
+     */
+    public void startReminders(Consumer<String> sink) {
+        stopReminders();
+        reminders = new ReminderScheduler(sink);
+        reminders.track(tasks);
+    }
+
+    /** Stops the reminders started by {@link #startReminders}, if any. */
+    public void stopReminders() {
+        if (reminders != null) {
+            tasks.write(() -> tasks.setListener(null));
+            reminders.close();
+            reminders = null;
+        }
+    }
+
+    /**
+     * The outcome of one {@link #handle} call: everything a front end needs to show it,
+     * so no input has to be run twice.
+     */
     public static final class Reply {
+        /** What went wrong, if anything. */
+        public enum ErrorKind {
+            /** The input ran. */
+            NONE,
+            /** The input was not a command Manbo knows. */
+            UNRECOGNISED,
+            /** The command was known but its arguments or target were not valid. */
+            INVALID,
+            /** A bug; the text holds the exception's message. */
+            UNEXPECTED
+        }
+
+        /** The reply to show, never {@code null}. */
         public final String text;
+        /** Whether the input asked Manbo to exit. */
         public final boolean isExit;
-        public Reply(String text, boolean exit) { this.text = text; this.isExit = exit; }
+        public final ErrorKind errorKind;
+        /** Time spent parsing, running and saving, in nanoseconds. */
+        public final long elapsedNanos;
+
+        public Reply(String text, boolean isExit, ErrorKind errorKind, long elapsedNanos) {
+            assert text != null : "Reply text must not be null";
+            assert errorKind != null : "Error kind must not be null";
+            this.text = text;
+            this.isExit = isExit;
+            this.errorKind = errorKind;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** @return whether the input failed */
+        public boolean isError() {
+            return errorKind != ErrorKind.NONE;
+        }
     }
 
-    /** Run one user input through the *same* pipeline the CLI uses. */
+    /**
+     * Runs one user input through the same pipeline the CLI uses, exactly once.
+     * Several commands separated by {@code ;} give one reply; if one fails, the replies
+     * of those before it come first, followed by the error.
+     *
+     * @param input the user's input
+     * @return the reply, exit flag and error kind of the input
+     */
     public Reply handle(String input) {
+        long start = System.nanoTime();
+        ui.reset();
+        if (loadFailed) {
+            return failed("Your tasks were not loaded, so I can't run commands that might save over them.",
+                    Reply.ErrorKind.UNEXPECTED, start);
+        }
         try {
-            // If your Ui has no reset(), just remove the next line.
-            ui.reset();
-
-            Command c = Parser.parse(input);
-            c.execute(tasks, ui, storage);   // exactly what the CLI does
-            // If your commands already save, you can omit the next line.
-            storage.save(tasks);
-
-            return new Reply(ui.out(), c.isExit());  // ui.out() is what your tests used
+            Command c = Parser.parseLine(input);
+            c.execute(tasks, ui, storage); // commands save themselves
+            return new Reply(ui.out(), c.isExit(), Reply.ErrorKind.NONE, System.nanoTime() - start);
+        } catch (UnrecognisedInputException e) {
+            return failed(e.getMessage(), Reply.ErrorKind.UNRECOGNISED, start);
         } catch (ManboException e) {
-            return new Reply(e.getMessage(), false);
+            return failed(e.getMessage(), Reply.ErrorKind.INVALID, start);
+        } catch (RuntimeException e) {
+            return failed("Unexpected error: " + e.getMessage(), Reply.ErrorKind.UNEXPECTED, start);
         }
     }
 
-
-
-}
\ No newline at end of file
+    private Reply failed(String message, Reply.ErrorKind kind, long start) {
+        String before = ui.out();
+        String text = before.isEmpty() ? message : before + message;
+        return new Reply(text, false, kind, System.nanoTime() - start);
+    }
+}
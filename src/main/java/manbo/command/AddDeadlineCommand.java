@@ -3,7 +3,6 @@ package manbo.command;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.List;
 import manbo.task.*;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
@@ -53,7 +52,7 @@ public class AddDeadlineCommand extends Command {
      * @throws ManboException if description is empty, date is missing, or date format is invalid
      */
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) throws ManboException {
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
@@ -72,14 +71,16 @@ public class AddDeadlineCommand extends Command {
 
             // Construct new Deadline task and add to list
             Task t = new Deadline(description.trim(), by);
-            tasks.add(t);
+            tasks.write(() -> {
+                tasks.add(t);
 
-            // Save to persistent storage
-            storage.save(tasks);
+                // Save to persistent storage
+                storage.saveAdded(tasks, t);
 
-            // Notify user
-            ui.info("Got it. I've added this task:\n  " + t
-                    + "\n Now you have " + tasks.size() + " tasks in the list.");
+                // Notify user
+                ui.info("Got it. I've added this task:\n  " + t
+                        + "\n Now you have " + tasks.size() + " tasks in the list.");
+            });
         } catch (DateTimeParseException e) {
             throw new ManboException("Invalid date format/value. Use yyyy-MM-dd (e.g., 2019-12-02).");
         }
@@ -3,7 +3,6 @@ package manbo.command;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.List;
 import manbo.task.*;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
@@ -61,7 +60,7 @@ public class AddEventCommand extends Command {
      * @throws ManboException if description is empty or datetime values are invalid
      */
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) throws ManboException {
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
 
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
@@ -79,14 +78,16 @@ public class AddEventCommand extends Command {
 
             // Construct new Event task and add to list
             Task t = new Event(description.trim(), from, to);
-            tasks.add(t);
+            tasks.write(() -> {
+                tasks.add(t);
 
-            // Save to persistent storage
-            storage.save(tasks);
+                // Save to persistent storage
+                storage.saveAdded(tasks, t);
 
-            // Notify user
-            ui.info("Got it. I've added this task:\n  " + t
-                    + "\n Now you have " + tasks.size() + " tasks in the list.");
+                // Notify user
+                ui.info("Got it. I've added this task:\n  " + t
+                        + "\n Now you have " + tasks.size() + " tasks in the list.");
+            });
         } catch (DateTimeParseException e) {
             throw new ManboException("Invalid /from or /to. Use yyyy-MM-dd HHmm (e.g., 2019-12-02 0930).");
         }
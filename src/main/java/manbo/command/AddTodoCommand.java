@@ -1,6 +1,5 @@
 package manbo.command;
 
-import java.util.List;
 import manbo.task.*;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
@@ -44,7 +43,7 @@ public class AddTodoCommand extends Command {
      * @throws ManboException if description is missing or blank
      */
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) throws ManboException {
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
@@ -56,13 +55,15 @@ public class AddTodoCommand extends Command {
 
         // Construct new Todo task and add to list
         Task t = new Todo(description.trim());
-        tasks.add(t);
+        tasks.write(() -> {
+            tasks.add(t);
 
-        // Save to persistent storage
-        storage.save(tasks);
+            // Save to persistent storage
+            storage.saveAdded(tasks, t);
 
-        // Notify user
-        ui.info("Got it. I've added this task:\n  " + t
-                + "\n Now you have " + tasks.size() + " tasks in the list.");
+            // Notify user
+            ui.info("Got it. I've added this task:\n  " + t
+                    + "\n Now you have " + tasks.size() + " tasks in the list.");
+        });
     }
 }
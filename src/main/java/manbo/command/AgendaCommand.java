@@ -0,0 +1,89 @@
+package manbo.command;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import manbo.task.Event;
+import manbo.task.TaskList;
+import manbo.storage.Storage;
+import manbo.ui.Ui;
+import manbo.exceptions.ManboException;
+
+/**
+ * Lists the events that take place, at least partly, within a time window.
+ *
+ * <p>Example usage:
+ * <pre>
+ *     agenda /from 2025-09-01 /to 2025-09-07
+ *     agenda /from 2025-09-01 0900 /to 1700
+ * </pre>
+ *
+ * A bound given as a date only covers that whole day. Events are listed by start time,
+ * and the window includes both of its ends.
+ */
+public class AgendaCommand extends Command {
+    /** Accepted datetime format: yyyy-MM-dd HHmm (e.g., 2025-09-01 0930). */
+    private static final DateTimeFormatter IN_DT_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    private final String fromDateTime;
+    private final String toDateTime;
+
+    /**
+     * Creates a new {@code AgendaCommand}.
+     *
+     * @param fromDateTime start of the window (yyyy-MM-dd or yyyy-MM-dd HHmm)
+     * @param toDateTime   end of the window (yyyy-MM-dd or yyyy-MM-dd HHmm)
+     */
+    public AgendaCommand(String fromDateTime, String toDateTime) {
+        assert fromDateTime != null && toDateTime != null : "Window bounds must not be null";
+        this.fromDateTime = fromDateTime;
+        this.toDateTime = toDateTime;
+    }
+
+    /**
+     * Executes the command: parses the window and shows the events overlapping it.
+     *
+     * @param tasks   the task list to search
+     * @param ui      the UI for displaying the agenda
+     * @param storage unused; the agenda changes nothing
+     * @throws ManboException if a bound is not a valid date or datetime
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
+        assert tasks != null : "Task list must not be null";
+        assert ui != null : "Ui must not be null";
+
+        LocalDateTime from = parseBound(fromDateTime, false);
+        LocalDateTime to = parseBound(toDateTime, true);
+        if (to.isBefore(from)) {
+            throw new ManboException("The /to time must not be before the /from time.");
+        }
+
+        List<Event> events = tasks.read(() -> tasks.events().overlapping(from, to));
+        ui.showTasks(events, " Here is your agenda:", " Nothing scheduled in that period.");
+    }
+
+    /**
+     * Parses one end of a time window.
+     *
+     * @param text          yyyy-MM-dd or yyyy-MM-dd HHmm
+     * @param isEndOfWindow whether a date-only bound should cover the whole day (end of window)
+     *                      rather than start at midnight
+     * @return the bound as a datetime
+     * @throws ManboException if {@code text} is in neither format
+     */
+    static LocalDateTime parseBound(String text, boolean isEndOfWindow) throws ManboException {
+        String s = text.trim();
+        try {
+            if (s.length() == 10) {
+                LocalDate day = LocalDate.parse(s);
+                return isEndOfWindow ? day.atTime(23, 59) : day.atStartOfDay();
+            }
+            return LocalDateTime.parse(s, IN_DT_TIME);
+        } catch (DateTimeParseException e) {
+            throw new ManboException("Invalid /from or /to. Use yyyy-MM-dd or yyyy-MM-dd HHmm (e.g., 2019-12-02 0930).");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package manbo.command;
+
+import java.util.List;
+import manbo.task.Task;
+import manbo.task.TaskList;
+import manbo.storage.Storage;
+import manbo.ui.Ui;
+import manbo.exceptions.*;
+
+/**
+ * Deletes several tasks at once, e.g. {@code delete 3,7,9-20} or {@code delete all done}.
+ *
+ * <p>The selection is resolved and checked before anything is removed. The remaining
+ * tasks are then closed up in a single pass over the list, and the list is saved once,
+ * so removing k of n tasks costs O(n) instead of k shifts of the list.
+ */
+public class BulkDeleteCommand extends Command {
+    private final TaskSelection selection;
+
+    /**
+     * Creates a new {@code BulkDeleteCommand}.
+     *
+     * @param selection the tasks to delete
+     */
+    public BulkDeleteCommand(TaskSelection selection) {
+        assert selection != null : "Selection must not be null";
+        this.selection = selection;
+    }
+
+    /**
+     * Executes the command: removes every selected task, saves once, and reports what was removed.
+     *
+     * @param tasks   the task list from which to remove the tasks
+     * @param ui      the UI for displaying messages
+     * @param storage the storage to persist changes
+     * @throws ManboException if a position is out of range or an id is unknown
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
+        assert tasks != null : "Task list must not be null";
+        assert ui != null : "Ui must not be null";
+        assert storage != null : "Storage must not be null";
+        tasks.write(() -> {
+            int[] positions = selection.resolve(tasks);
+
+            List<Task> removed = tasks.removeAt(positions);
+            if (!removed.isEmpty()) {
+                storage.save(tasks);
+            }
+
+            ui.info(BulkMarkCommand.describe("Noted. I've removed " + removed.size() + " tasks:", removed)
+                    + "\n Now you have " + tasks.size() + " tasks in the list.");
+        });
+    }
+}
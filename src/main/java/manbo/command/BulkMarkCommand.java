@@ -0,0 +1,92 @@
+package manbo.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import manbo.task.Task;
+import manbo.task.TaskList;
+import manbo.storage.Storage;
+import manbo.ui.Ui;
+import manbo.exceptions.*;
+
+/**
+ * Marks or unmarks several tasks at once, e.g. {@code mark 1-500} or {@code unmark all done}.
+ *
+ * <p>The selection is resolved and checked before anything changes, so an out-of-range
+ * position or unknown id leaves every task as it was. The tasks are then updated in one
+ * pass and saved once, rather than once per task.
+ */
+public class BulkMarkCommand extends Command {
+    /** Tasks listed in full in the reply; any more are only counted. */
+    static final int PREVIEW = 10;
+
+    private final TaskSelection selection;
+    private final boolean isDone;
+
+    /**
+     * Creates a new {@code BulkMarkCommand}.
+     *
+     * @param selection the tasks to change
+     * @param isDone    {@code true} to mark them as done, {@code false} to unmark them
+     */
+    public BulkMarkCommand(TaskSelection selection, boolean isDone) {
+        assert selection != null : "Selection must not be null";
+        this.selection = selection;
+        this.isDone = isDone;
+    }
+
+    /**
+     * Executes the command: updates every selected task, saves once if anything changed,
+     * and reports what was changed.
+     *
+     * @param tasks   the task list containing the tasks
+     * @param ui      the UI for displaying messages
+     * @param storage the storage to persist changes
+     * @throws ManboException if a position is out of range or an id is unknown
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
+        assert tasks != null : "Task list must not be null";
+        assert ui != null : "Ui must not be null";
+        assert storage != null : "Storage must not be null";
+        tasks.write(() -> {
+            int[] positions = selection.resolve(tasks);
+
+            List<Task> chosen = new ArrayList<>(positions.length);
+            int changed = 0;
+            for (int i : positions) {
+                Task t = tasks.get(i);
+                chosen.add(t);
+                if (t.ifDone() != isDone) {
+                    if (isDone) {
+                        t.markAsDone();
+                    } else {
+                        t.unmarkAsDone();
+                    }
+                    changed++;
+                }
+            }
+            if (changed > 0) {
+                storage.save(tasks);
+            }
+
+            String heading = isDone
+                    ? "Nice! I've marked " + positions.length + " tasks as done:"
+                    : "OK, I've marked " + positions.length + " tasks as not done yet:";
+            ui.info(describe(heading, chosen));
+        });
+    }
+
+    /**
+     * Lists the first {@link #PREVIEW} of {@code chosen} under {@code heading}.
+     */
+    static String describe(String heading, List<Task> chosen) {
+        StringBuilder sb = new StringBuilder(heading);
+        for (int k = 0; k < Math.min(chosen.size(), PREVIEW); k++) {
+            sb.append("\n  ").append(chosen.get(k));
+        }
+        if (chosen.size() > PREVIEW) {
+            sb.append("\n  ... and ").append(chosen.size() - PREVIEW).append(" more");
+        }
+        return sb.toString();
+    }
+}
@@ -1,7 +1,6 @@
 package manbo.command;
 
-import java.util.List;
-import manbo.task.Task;
+import manbo.task.TaskList;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
 import manbo.exceptions.ManboException;
@@ -9,22 +8,24 @@ import manbo.exceptions.ManboException;
 /**
  * Represents an abstract command in the Manbo application.
  * All concrete commands (e.g., {@link AddTodoCommand}, {@link AddDeadlineCommand})
- * must extend this class and implement the {@link #execute(List, Ui, Storage)} method.
+ * must extend this class and implement the {@link #execute(TaskList, Ui, Storage)} method.
  *
  * Commands encapsulate user actions and define how to manipulate the task list,
  * interact with storage, and produce UI feedback.
+ * The task list may be shared by several sessions, so a command reads it inside
+ * {@link TaskList#read} and changes it, and saves, inside {@link TaskList#write}.
  */
 public abstract class Command {
 
     /**
      * Executes the command.
      *
-     * @param tasks   the current task list
+     * @param tasks   the current task list, possibly shared with other sessions
      * @param ui      the UI used for displaying messages
      * @param storage the storage used to persist changes
      * @throws ManboException if the command fails (invalid input, storage error, etc.)
      */
-    public abstract void execute(List<Task> tasks, Ui ui, Storage storage) throws ManboException;
+    public abstract void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException;
 
     /**
      * Indicates whether this command will exit the application.
@@ -0,0 +1,80 @@
+package manbo.command;
+
+import java.util.List;
+import manbo.task.TaskList;
+import manbo.storage.DeferredStorage;
+import manbo.storage.Storage;
+import manbo.ui.Ui;
+import manbo.exceptions.ManboException;
+
+/**
+ * Runs several commands given on one input, e.g. {@code todo a ; todo b ; mark 1}.
+ *
+ * <p>Every command has been parsed before the group is built, so a typo in the last one
+ * stops the whole input before anything changes. The commands then run in order against
+ * a {@link DeferredStorage}, and the list is saved once for the group instead of once
+ * per command. Their replies go to the same {@link Ui}, so the caller renders the group
+ * as one reply. The group holds the list's write lock throughout, so another session
+ * cannot change the list between its commands.
+ */
+public class CommandGroup extends Command {
+    private final List<Command> commands;
+
+    /**
+     * Creates a group of commands. Commands after an exit command are dropped,
+     * since they would never run.
+     *
+     * @param commands the commands, in the order given
+     */
+    public CommandGroup(List<Command> commands) {
+        assert commands != null && !commands.isEmpty() : "Group must not be empty";
+        int end = commands.size();
+        for (int i = 0; i < end; i++) {
+            if (commands.get(i).isExit()) {
+                end = i + 1;
+            }
+        }
+        this.commands = List.copyOf(commands.subList(0, end));
+    }
+
+    /** @return the commands of the group, in order */
+    public List<Command> getCommands() {
+        return commands;
+    }
+
+    /**
+     * Executes the commands in order and saves once at the end. The first failing command
+     * stops the group; the changes made before it are still saved.
+     *
+     * @param tasks   the current task list
+     * @param ui      the UI collecting every command's reply
+     * @param storage the storage to persist changes
+     * @throws ManboException the error of the first command that failed
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
+        assert tasks != null : "Task list must not be null";
+        assert ui != null : "Ui must not be null";
+        assert storage != null : "Storage must not be null";
+        tasks.write(() -> {
+            DeferredStorage deferred = new DeferredStorage(storage);
+            try {
+                for (Command c : commands) {
+                    c.execute(tasks, ui, deferred);
+                }
+            } finally {
+                deferred.commit(tasks);
+            }
+        });
+    }
+
+    /**
+     * Indicates whether the group ends with an exit command.
+     *
+     * @return {@code true} if the group signals program termination
+     */
+    @Override
+    public boolean isExit() {
+        return commands.get(commands.size() - 1).isExit();
+    }
+}
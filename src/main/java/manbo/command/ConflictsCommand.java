@@ -0,0 +1,72 @@
+package manbo.command;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import manbo.task.Event;
+import manbo.task.TaskList;
+import manbo.storage.Storage;
+import manbo.ui.Ui;
+import manbo.exceptions.ManboException;
+
+/**
+ * Lists pairs of events whose times overlap, optionally only within a time window.
+ *
+ * <p>Example usage:
+ * <pre>
+ *     conflicts
+ *     conflicts /from 2025-09-01 /to 2025-09-30
+ * </pre>
+ *
+ * Back-to-back events, where one ends exactly when the next starts, are not conflicts.
+ */
+public class ConflictsCommand extends Command {
+    private final String fromDateTime;
+    private final String toDateTime;
+
+    /**
+     * Creates a {@code ConflictsCommand} covering all events.
+     */
+    public ConflictsCommand() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a {@code ConflictsCommand} limited to a window.
+     *
+     * @param fromDateTime start of the window (yyyy-MM-dd or yyyy-MM-dd HHmm), or {@code null}
+     * @param toDateTime   end of the window (yyyy-MM-dd or yyyy-MM-dd HHmm), or {@code null}
+     */
+    public ConflictsCommand(String fromDateTime, String toDateTime) {
+        this.fromDateTime = fromDateTime;
+        this.toDateTime = toDateTime;
+    }
+
+    /**
+     * Executes the command: finds overlapping events and lists them pair by pair.
+     *
+     * @param tasks   the task list to check
+     * @param ui      the UI for displaying the conflicts
+     * @param storage unused; checking changes nothing
+     * @throws ManboException if a window bound is not a valid date or datetime
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
+        assert tasks != null : "Task list must not be null";
+        assert ui != null : "Ui must not be null";
+
+        LocalDateTime from = fromDateTime == null ? null : AgendaCommand.parseBound(fromDateTime, false);
+        LocalDateTime to = toDateTime == null ? null : AgendaCommand.parseBound(toDateTime, true);
+
+        List<Event[]> pairs = tasks.read(() -> tasks.events().conflicts(from, to));
+        if (pairs.isEmpty()) {
+            ui.info("No conflicting events.");
+            return;
+        }
+        StringBuilder msg = new StringBuilder("These events overlap:");
+        for (int i = 0; i < pairs.size(); i++) {
+            msg.append("\n ").append(i + 1).append('.').append(pairs.get(i)[0])
+                    .append("\n   and ").append(pairs.get(i)[1]);
+        }
+        ui.info(msg.toString());
+    }
+}
@@ -1,14 +1,14 @@
 package manbo.command;
 
-import java.util.List;
 import manbo.task.Task;
+import manbo.task.TaskList;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
 import manbo.exceptions.*;
 
 /**
  * Represents a command that deletes a {@link Task} from the task list.
- * The task to delete is identified by its index (0-based).
+ * The task to delete is identified by its index (0-based) or by its persistent id ({@code #id}).
  *
  * <p>Example usage:
  * <pre>
@@ -20,8 +20,8 @@ import manbo.exceptions.*;
  */
 public class DeleteCommand extends Command {
 
-    /** Index of the task to delete (0-based). */
-    private final int index;
+    /** The task to delete, by position or by id. */
+    private final TaskRef target;
 
     /**
      * Creates a new {@code DeleteCommand}.
@@ -29,7 +29,16 @@ public class DeleteCommand extends Command {
      * @param index zero-based index of the task to delete
      */
     public DeleteCommand(int index) {
-        this.index = index;
+        this(TaskRef.ofIndex(index));
+    }
+
+    /**
+     * Creates a new {@code DeleteCommand} for a task given by position or id.
+     *
+     * @param target the task to delete
+     */
+    public DeleteCommand(TaskRef target) {
+        this.target = target;
     }
 
     /**
@@ -39,26 +48,26 @@ public class DeleteCommand extends Command {
      * @param tasks   the task list from which to remove the task
      * @param ui      the UI for displaying messages
      * @param storage the storage to persist changes
-     * @throws ManboException if the index is out of range
+     * @throws ManboException if the index is out of range or no task has the id
      */
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) throws ManboException {
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
-        // Validate index range
-        if (index < 0 || index >= tasks.size()) {
-            throw new IndexOutOfRangeException(index + 1, tasks.size());
-        }
+        tasks.write(() -> {
+            // Find the task's current position; fails if it is out of range or the id is unknown
+            int index = target.resolve(tasks);
 
-        // Remove task at given index
-        Task removed = tasks.remove(index);
+            // Remove task at given index
+            Task removed = tasks.remove(index);
 
-        // Persist updated task list
-        storage.save(tasks);
+            // Persist updated task list
+            storage.saveRemoved(tasks, index, removed);
 
-        // Notify user
-        ui.info("Noted. I've removed this task:\n  " + removed
-                + "\n Now you have " + tasks.size() + " tasks in the list.");
+            // Notify user
+            ui.info("Noted. I've removed this task:\n  " + removed
+                    + "\n Now you have " + tasks.size() + " tasks in the list.");
+        });
     }
 }
@@ -1,7 +1,6 @@
 package manbo.command;
 
-import java.util.List;
-import manbo.task.Task;
+import manbo.task.TaskList;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
 
@@ -20,18 +19,20 @@ import manbo.ui.Ui;
 public class ExitCommand extends Command {
 
     /**
-     * Executes the command: tells the UI to display a goodbye message.
+     * Executes the command: waits for pending saves to reach the disk,
+     * then tells the UI to display a goodbye message.
      *
      * @param tasks   the current task list (not used here)
      * @param ui      the UI for displaying the farewell message
-     * @param storage the storage (not used here)
+     * @param storage the storage to flush before exiting
      */
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) {
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
 
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
+        storage.flush();
         ui.sayBye();
     }
 
@@ -1,10 +1,8 @@
 package manbo.command;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
-import java.util.stream.Collectors;
 import manbo.task.Task;
+import manbo.task.TaskList;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
 import manbo.exceptions.EmptyDescriptionException;
@@ -26,7 +24,7 @@ public class FindCommand extends Command {
     }
 
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) throws ManboException {
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
@@ -35,16 +33,8 @@ public class FindCommand extends Command {
             throw new EmptyDescriptionException("find");
         }
 
-        final String k = keyword.trim().toLowerCase();
-
-        List<Task> matches = tasks.stream()
-                .filter(t -> {
-                    assert t != null : "Task list contains null";
-                    String desc = t.getDescription();     // or t.toString() if that’s what you show
-                    assert desc != null : "Task description must not be null";
-                    return desc.toLowerCase(Locale.ROOT).contains(k);
-                })
-                .collect(Collectors.toList());
+        // Answered from the list's word or trigram index
+        List<Task> matches = tasks.read(() -> tasks.find(keyword));
 
         ui.showMatches(matches);
     }
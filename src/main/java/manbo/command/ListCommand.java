@@ -2,6 +2,7 @@ package manbo.command;
 
 import java.util.List;
 import manbo.task.Task;
+import manbo.task.TaskList;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
 
@@ -23,12 +24,16 @@ public class ListCommand extends Command {
      * @param storage the storage handler for data persistence (not used in this command)
      */
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) {
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
 
-        ui.showList(tasks);
+        List<Task> shown = tasks.read(() -> {
+            tasks.assignIds(); // so the ids shown can be used as #id
+            return tasks.snapshot();
+        });
+        ui.showList(shown);
     }
 
 
@@ -1,14 +1,14 @@
 package manbo.command;
 
-import java.util.List;
 import manbo.task.Task;
+import manbo.task.TaskList;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
 import manbo.exceptions.*;
 
 /**
  * Represents a command that marks a {@link Task} as done in the task list.
- * The task to mark is identified by its index (0-based).
+ * The task to mark is identified by its index (0-based) or by its persistent id ({@code #id}).
  *
  * <p>Example usage:
  * <pre>
@@ -20,8 +20,8 @@ import manbo.exceptions.*;
  */
 public class MarkCommand extends Command {
 
-    /** Index of the task to mark as done (0-based). */
-    private final int index;
+    /** The task to mark, by position or by id. */
+    private final TaskRef target;
 
     /**
      * Creates a new {@code MarkCommand}.
@@ -29,7 +29,16 @@ public class MarkCommand extends Command {
      * @param index zero-based index of the task to mark
      */
     public MarkCommand(int index) {
-        this.index = index;
+        this(TaskRef.ofIndex(index));
+    }
+
+    /**
+     * Creates a new {@code MarkCommand} for a task given by position or id.
+     *
+     * @param target the task to mark
+     */
+    public MarkCommand(TaskRef target) {
+        this.target = target;
     }
 
     /**
@@ -39,26 +48,26 @@ public class MarkCommand extends Command {
      * @param tasks   the task list containing the task
      * @param ui      the UI for displaying messages
      * @param storage the storage to persist changes
-     * @throws ManboException if the index is out of range
+     * @throws ManboException if the index is out of range or no task has the id
      */
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) throws ManboException {
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
-        // Validate index
-        if (index < 0 || index >= tasks.size()) {
-            throw new IndexOutOfRangeException(index + 1, tasks.size());
-        }
+        tasks.write(() -> {
+            // Find the task's current position; fails if it is out of range or the id is unknown
+            int index = target.resolve(tasks);
 
-        // Retrieve and mark task as done
-        Task t = tasks.get(index);
-        t.markAsDone();
+            // Retrieve and mark task as done
+            Task t = tasks.get(index);
+            t.markAsDone();
 
-        // Persist changes
-        storage.save(tasks);
+            // Persist changes
+            storage.saveUpdated(tasks, index);
 
-        // Notify user
-        ui.info("Nice! I've marked this task as done:\n" + t);
+            // Notify user
+            ui.info("Nice! I've marked this task as done:\n" + t);
+        });
     }
 }
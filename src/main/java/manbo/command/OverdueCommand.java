@@ -0,0 +1,37 @@
+package manbo.command;
+
+import java.time.LocalDate;
+import java.util.List;
+import manbo.task.Deadline;
+import manbo.task.TaskList;
+import manbo.storage.Storage;
+import manbo.ui.Ui;
+import manbo.exceptions.ManboException;
+
+/**
+ * Lists the open deadlines that were due before today, most overdue first.
+ *
+ * <p>Example usage:
+ * <pre>
+ *     overdue
+ * </pre>
+ */
+public class OverdueCommand extends Command {
+    /**
+     * Executes the command: shows every open deadline due before today.
+     *
+     * @param tasks   the task list to search
+     * @param ui      the UI for displaying the deadlines
+     * @param storage unused; listing changes nothing
+     * @throws ManboException never; declared for the command interface
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
+        assert tasks != null : "Task list must not be null";
+        assert ui != null : "Ui must not be null";
+
+        LocalDate today = LocalDate.now();
+        List<Deadline> late = tasks.read(() -> tasks.deadlines().overdue(today));
+        ui.showTasks(late, " These deadlines are overdue:", " Nothing is overdue.");
+    }
+}
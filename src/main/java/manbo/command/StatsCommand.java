@@ -1,14 +1,10 @@
 package manbo.command;
 
-import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
 
 import manbo.storage.Storage;
-import manbo.task.Deadline;
-import manbo.task.Event;
-import manbo.task.Task;
-import manbo.task.Todo;
+import manbo.task.TaskCounters;
+import manbo.task.TaskList;
 import manbo.ui.Ui;
 
 /**
@@ -23,46 +19,46 @@ import manbo.ui.Ui;
  *   Todos          : 12 (done 7)
  *   Deadlines      : 8  (done 5)
  *   Events         : 5  (done 3)
+ * Search index     : 812 trigrams, 2417 postings, ~104 KiB (0 tasks unindexed)
  */
 public class StatsCommand extends Command {
 
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) {
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
         // Developer invariants
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
 
-        final int total = tasks.size();
-
-        final long done = tasks.stream()
-                .filter(Task::ifDone)          // Task has ifDone()
-                .count();
+        // Counted and formatted in one read, so the figures agree with each other
+        ui.info(tasks.read(() -> describe(tasks)));
+    }
 
-        final long notDone = total - done;
+    private static String describe(TaskList tasks) {
+        // The live list keeps its counts current
+        TaskCounters c = tasks.counters();
+        assert c.getTotal() == tasks.size() : "Counted tasks differ from list size";
 
+        final int total = c.getTotal();
+        final int done = c.getDone();
         double pct = total == 0 ? 0.0 : (done * 100.0) / total;
+        String nl = System.lineSeparator();
 
-        final long todos = tasks.stream().filter(t -> t instanceof Todo).count();
-        final long todosDone = tasks.stream().filter(t -> t instanceof Todo && t.ifDone()).count();
-
-        final long deadlines = tasks.stream().filter(t -> t instanceof Deadline).count();
-        final long deadlinesDone = tasks.stream().filter(t -> t instanceof Deadline && t.ifDone()).count();
-
-        final long events = tasks.stream().filter(t -> t instanceof Event).count();
-        final long eventsDone = tasks.stream().filter(t -> t instanceof Event && t.ifDone()).count();
-
-        String msg = ""
-                + "=== Statistics ===\n"
-                + String.format(Locale.ROOT, "Total tasks      : %d%n", total)
-                + String.format(Locale.ROOT, "Completed        : %d (%.1f%%)%n", done, pct)
-                + String.format(Locale.ROOT, "Incomplete       : %d%n", notDone)
-                + "By type:\n"
-                + String.format(Locale.ROOT, "  Todos          : %d (done %d)%n", todos, todosDone)
-                + String.format(Locale.ROOT, "  Deadlines      : %d (done %d)%n", deadlines, deadlinesDone)
-                + String.format(Locale.ROOT, "  Events         : %d (done %d)%n", events, eventsDone);
-
-        ui.info(msg);
+        return new StringBuilder(256)
+                .append("=== Statistics ===\n")
+                .append("Total tasks      : ").append(total).append(nl)
+                .append("Completed        : ").append(done)
+                .append(String.format(Locale.ROOT, " (%.1f%%)", pct)).append(nl)
+                .append("Incomplete       : ").append(total - done).append(nl)
+                .append("By type:\n")
+                .append("  Todos          : ").append(c.getTodos())
+                .append(" (done ").append(c.getTodosDone()).append(')').append(nl)
+                .append("  Deadlines      : ").append(c.getDeadlines())
+                .append(" (done ").append(c.getDeadlinesDone()).append(')').append(nl)
+                .append("  Events         : ").append(c.getEvents())
+                .append(" (done ").append(c.getEventsDone()).append(')').append(nl)
+                .append("Search index     : ").append(tasks.describeSearchIndex()).append('\n')
+                .toString();
     }
 
     @Override
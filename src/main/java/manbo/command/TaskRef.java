@@ -0,0 +1,80 @@
+package manbo.command;
+
+import java.util.List;
+import manbo.task.Task;
+import manbo.task.TaskList;
+import manbo.exceptions.IndexOutOfRangeException;
+import manbo.exceptions.ManboException;
+import manbo.exceptions.TaskNotFoundException;
+
+/**
+ * Refers to one task, either by its position in the list (as shown by {@code list})
+ * or by its persistent id ({@code #id}), which does not change when other tasks are deleted.
+ */
+public final class TaskRef {
+    /** Zero-based position, or -1 for an id reference. */
+    private final int index;
+
+    /** Task id, or 0 for a position reference. */
+    private final long id;
+
+    private TaskRef(int index, long id) {
+        this.index = index;
+        this.id = id;
+    }
+
+    /**
+     * @param index zero-based position of the task
+     * @return a reference to the task at {@code index}
+     */
+    public static TaskRef ofIndex(int index) {
+        return new TaskRef(index, 0);
+    }
+
+    /**
+     * @param id the task's persistent id
+     * @return a reference to the task with {@code id}
+     */
+    public static TaskRef ofId(long id) {
+        assert id > 0 : "Task ids must be positive";
+        return new TaskRef(-1, id);
+    }
+
+    /** @return the referenced id, or 0 if this refers to a position */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Finds the current position of the referenced task.
+     *
+     * @param tasks the task list
+     * @return the zero-based position of the task
+     * @throws ManboException if the position is out of range or no task has the id
+     */
+    public int resolve(List<Task> tasks) throws ManboException {
+        if (id == 0) {
+            if (index < 0 || index >= tasks.size()) {
+                throw new IndexOutOfRangeException(index + 1, tasks.size());
+            }
+            return index;
+        }
+        int found = tasks instanceof TaskList ? ((TaskList) tasks).indexOfId(id) : scan(tasks);
+        if (found < 0) {
+            throw new TaskNotFoundException(id);
+        }
+        return found;
+    }
+
+    private int scan(List<Task> tasks) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() == id) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return id == 0 ? String.valueOf(index + 1) : "#" + id;
+    }
+}
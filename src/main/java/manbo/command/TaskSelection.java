@@ -0,0 +1,105 @@
+package manbo.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import manbo.task.Task;
+import manbo.exceptions.IndexOutOfRangeException;
+import manbo.exceptions.ManboException;
+
+/**
+ * Refers to several tasks at once, for bulk commands.
+ *
+ * <p>A selection is either a list of items, each a 1-based position, a range of positions
+ * or an id (e.g. {@code 3,7,9-20,#42}), or every task, optionally only the done or only
+ * the open ones ({@code all}, {@code all done}, {@code all open}).
+ */
+public final class TaskSelection {
+    /** Which tasks {@code all} covers. */
+    public enum Filter { ALL, DONE, OPEN }
+
+    /** Set for {@code all} selections, {@code null} for item lists. */
+    private final Filter filter;
+
+    /** Zero-based inclusive {from, to} pairs. */
+    private final List<int[]> ranges;
+
+    private final List<TaskRef> ids;
+
+    private TaskSelection(Filter filter, List<int[]> ranges, List<TaskRef> ids) {
+        this.filter = filter;
+        this.ranges = ranges;
+        this.ids = ids;
+    }
+
+    /**
+     * @param filter which tasks to take
+     * @return a selection of every task passing {@code filter}
+     */
+    public static TaskSelection all(Filter filter) {
+        assert filter != null : "Filter must not be null";
+        return new TaskSelection(filter, List.of(), List.of());
+    }
+
+    /** @return an empty item list, to be filled with {@link #addRange} and {@link #addId} */
+    public static TaskSelection items() {
+        return new TaskSelection(null, new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * Adds the positions {@code from} to {@code to}, both zero-based and inclusive.
+     *
+     * @return this selection
+     */
+    public TaskSelection addRange(int from, int to) {
+        assert filter == null : "Cannot add items to an all selection";
+        assert 0 <= from && from <= to : "Range must be ascending";
+        ranges.add(new int[] { from, to });
+        return this;
+    }
+
+    /**
+     * Adds the task with {@code id}.
+     *
+     * @return this selection
+     */
+    public TaskSelection addId(long id) {
+        assert filter == null : "Cannot add items to an all selection";
+        ids.add(TaskRef.ofId(id));
+        return this;
+    }
+
+    /**
+     * Finds the current positions of the selected tasks, each once.
+     *
+     * @param tasks the task list
+     * @return the zero-based positions, ascending
+     * @throws ManboException if a position is out of range or no task has a given id
+     */
+    public int[] resolve(List<Task> tasks) throws ManboException {
+        int size = tasks.size();
+        if (filter != null) {
+            int[] out = new int[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (filter == Filter.ALL || tasks.get(i).ifDone() == (filter == Filter.DONE)) {
+                    out[n++] = i;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+
+        BitSet chosen = new BitSet(size);
+        for (int[] r : ranges) {
+            if (r[1] >= size) {
+                throw new IndexOutOfRangeException(r[1] + 1, size);
+            }
+            chosen.set(r[0], r[1] + 1);
+        }
+        for (TaskRef ref : ids) {
+            chosen.set(ref.resolve(tasks));
+        }
+        return chosen.stream().toArray();
+    }
+}
@@ -1,14 +1,14 @@
 package manbo.command;
 
-import java.util.List;
 import manbo.task.Task;
+import manbo.task.TaskList;
 import manbo.storage.Storage;
 import manbo.ui.Ui;
 import manbo.exceptions.*;
 
 /**
  * Represents a command that unmarks a {@link Task} (sets it as not done).
- * The task to unmark is identified by its index (0-based).
+ * The task to unmark is identified by its index (0-based) or by its persistent id ({@code #id}).
  *
  * <p>Example usage:
  * <pre>
@@ -20,8 +20,8 @@ import manbo.exceptions.*;
  */
 public class UnmarkCommand extends Command {
 
-    /** Index of the task to unmark as not done (0-based). */
-    private final int index;
+    /** The task to unmark, by position or by id. */
+    private final TaskRef target;
 
     /**
      * Creates a new {@code UnmarkCommand}.
@@ -29,7 +29,16 @@ public class UnmarkCommand extends Command {
      * @param index zero-based index of the task to unmark
      */
     public UnmarkCommand(int index) {
-        this.index = index;
+        this(TaskRef.ofIndex(index));
+    }
+
+    /**
+     * Creates a new {@code UnmarkCommand} for a task given by position or id.
+     *
+     * @param target the task to unmark
+     */
+    public UnmarkCommand(TaskRef target) {
+        this.target = target;
     }
 
     /**
@@ -39,27 +48,27 @@ public class UnmarkCommand extends Command {
      * @param tasks   the task list containing the task
      * @param ui      the UI for displaying messages
      * @param storage the storage to persist changes
-     * @throws ManboException if the index is out of range
+     * @throws ManboException if the index is out of range or no task has the id
      */
     @Override
-    public void execute(List<Task> tasks, Ui ui, Storage storage) throws ManboException {
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
 
         assert tasks != null : "Task list must not be null";
         assert ui != null : "Ui must not be null";
         assert storage != null : "Storage must not be null";
-        // Validate index
-        if (index < 0 || index >= tasks.size()) {
-            throw new IndexOutOfRangeException(index + 1, tasks.size());
-        }
+        tasks.write(() -> {
+            // Find the task's current position; fails if it is out of range or the id is unknown
+            int index = target.resolve(tasks);
 
-        // Retrieve and unmark task
-        Task t = tasks.get(index);
-        t.unmarkAsDone();
+            // Retrieve and unmark task
+            Task t = tasks.get(index);
+            t.unmarkAsDone();
 
-        // Persist changes
-        storage.save(tasks);
+            // Persist changes
+            storage.saveUpdated(tasks, index);
 
-        // Notify user
-        ui.info("OK, I've marked this task as not done yet:\n" + t);
+            // Notify user
+            ui.info("OK, I've marked this task as not done yet:\n" + t);
+        });
     }
 }
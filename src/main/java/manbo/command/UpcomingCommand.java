@@ -0,0 +1,55 @@
+package manbo.command;
+
+import java.time.LocalDate;
+import java.util.List;
+import manbo.task.Deadline;
+import manbo.task.TaskList;
+import manbo.storage.Storage;
+import manbo.ui.Ui;
+import manbo.exceptions.ManboException;
+
+/**
+ * Lists the next few open deadlines, starting from today.
+ *
+ * <p>Example usage:
+ * <pre>
+ *     upcoming
+ *     upcoming 10
+ * </pre>
+ *
+ * Deadlines already past are left to {@link OverdueCommand}.
+ */
+public class UpcomingCommand extends Command {
+    /** Number of deadlines shown when none is given. */
+    public static final int DEFAULT_COUNT = 5;
+
+    private final int count;
+
+    /**
+     * Creates a new {@code UpcomingCommand}.
+     *
+     * @param count the number of deadlines to show at most
+     */
+    public UpcomingCommand(int count) {
+        assert count > 0 : "Count must be positive";
+        this.count = count;
+    }
+
+    /**
+     * Executes the command: shows the soonest open deadlines due today or later.
+     *
+     * @param tasks   the task list to search
+     * @param ui      the UI for displaying the deadlines
+     * @param storage unused; listing changes nothing
+     * @throws ManboException never; declared for the command interface
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws ManboException {
+        assert tasks != null : "Task list must not be null";
+        assert ui != null : "Ui must not be null";
+
+        LocalDate today = LocalDate.now();
+        List<Deadline> due = tasks.read(() -> tasks.deadlines().upcoming(today, count));
+        ui.showTasks(due, " Here are your upcoming deadlines:", " No upcoming deadlines.");
+    }
+}
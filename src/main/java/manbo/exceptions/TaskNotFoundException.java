@@ -0,0 +1,16 @@
+package manbo.exceptions;
+
+/**
+ * Exception thrown when a task is referred to by an id ({@code #id}) that no task has,
+ * e.g. because the task was deleted.
+ */
+public class TaskNotFoundException extends ManboException {
+    /**
+     * Constructs a new TaskNotFoundException for the given id.
+     *
+     * @param id the id that matched no task
+     */
+    public TaskNotFoundException(long id) {
+        super("There is no task #" + id + ". Use list to see the task ids.");
+    }
+}
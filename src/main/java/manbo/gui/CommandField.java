@@ -0,0 +1,32 @@
+package manbo.gui;
+
+import javafx.scene.control.TextField;
+import javafx.scene.input.Clipboard;
+
+/**
+ * The input field of the chat window.
+ * <p>
+ * A plain {@link TextField} drops the line breaks of pasted text, running the lines of a
+ * pasted block together. This field instead joins them with {@code "; "}, the command
+ * separator, so a pasted block is sent as one group of commands and answered in one reply.
+ */
+public class CommandField extends TextField {
+    private static final String SEPARATOR = "; ";
+
+    @Override
+    public void paste() {
+        Clipboard clipboard = Clipboard.getSystemClipboard();
+        String text = clipboard.hasString() ? clipboard.getString() : null;
+        if (text == null || (text.indexOf('\n') < 0 && text.indexOf('\r') < 0)) {
+            super.paste();
+            return;
+        }
+        StringBuilder joined = new StringBuilder();
+        for (String line : text.split("\\R")) {
+            if (line.isBlank()) continue;
+            if (joined.length() > 0) joined.append(SEPARATOR);
+            joined.append(line.trim());
+        }
+        replaceSelection(joined.toString());
+    }
+}
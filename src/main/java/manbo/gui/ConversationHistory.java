@@ -0,0 +1,194 @@
+package manbo.gui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every message of a session, indexed from the first, with only the newest kept in memory.
+ * <p>
+ * Once more than {@code cap} messages are held, the oldest quarter of them is appended to a
+ * spill file and dropped from memory, so the heap stays bounded however long the session.
+ * The file offset of each spilled message is kept (8 bytes a message), so scrolling back
+ * reads any one of them with a single seek; the last few read are cached, as a list view
+ * asks for the same visible rows on every layout pass.
+ * <p>
+ * Record layout in the spill file: flags {@code u8}, text length {@code i32}, UTF-8 text.
+ * If the file cannot be written, messages simply stay in memory. Instances are not
+ * thread-safe; the GUI uses one from the FX thread.
+ */
+public final class ConversationHistory {
+    /** Default number of messages kept in memory. */
+    public static final int DEFAULT_CAP = 1000;
+
+    /** Spilled messages cached after being read back. */
+    private static final int CACHE_SIZE = 256;
+
+    private final int cap;
+    private File spillFile;
+
+    /**
+     * Messages not spilled yet, oldest first, from {@link #head} on; the one at {@code head}
+     * has index {@link #spilled}. Slots before {@code head} are cleared and compacted away
+     * once they make up half the list.
+     */
+    private final List<Message> recent = new ArrayList<>();
+    private int head;
+
+    private RandomAccessFile spill;
+    private boolean spillFailed;
+    private int spilled;
+    private long[] offsets = new long[64];
+
+    private final Map<Integer, Message> cache = new LinkedHashMap<>(CACHE_SIZE * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Message> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Creates a history that spills to a temp file, created on first use and deleted on exit.
+     *
+     * @param cap number of messages to keep in memory
+     */
+    public ConversationHistory(int cap) {
+        this(cap, null);
+    }
+
+    /**
+     * @param cap       number of messages to keep in memory
+     * @param spillFile where older messages go, or {@code null} for a temp file
+     */
+    ConversationHistory(int cap, File spillFile) {
+        assert cap > 0 : "History cap must be positive";
+        this.cap = cap;
+        this.spillFile = spillFile;
+    }
+
+    /** @return number of messages in the session */
+    public int size() {
+        return spilled + inMemory();
+    }
+
+    /** @return number of messages currently held in memory */
+    public int inMemory() {
+        return recent.size() - head;
+    }
+
+    /** Appends {@code m}, spilling the oldest messages if the cap is exceeded. */
+    public void add(Message m) {
+        assert m != null : "Message must not be null";
+        recent.add(m);
+        if (inMemory() > cap && !spillFailed) {
+            spillOldest(Math.max(1, cap / 4) + inMemory() - cap);
+        }
+    }
+
+    /**
+     * @param index position in the session, 0 being the first message
+     * @return the message at {@code index}
+     */
+    public Message get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Message " + index + " of " + size());
+        }
+        if (index >= spilled) {
+            return recent.get(head + index - spilled);
+        }
+        Message m = cache.get(index);
+        if (m == null) {
+            m = read(index);
+            cache.put(index, m);
+        }
+        return m;
+    }
+
+    /**
+     * Replaces the message at {@code index}, e.g. a placeholder once the real reply is in.
+     * Spilled messages cannot be replaced.
+     *
+     * @return the message replaced, or {@code null} if {@code index} has been spilled
+     */
+    public Message replace(int index, Message m) {
+        assert m != null : "Message must not be null";
+        if (index < spilled || index >= size()) return null;
+        return recent.set(head + index - spilled, m);
+    }
+
+    /** Deletes the spill file; the history must not be used afterwards. */
+    public void close() {
+        if (spill == null) return;
+        try {
+            spill.close();
+        } catch (IOException e) {
+            System.out.println("Error closing history file: " + e.getMessage());
+        }
+        spillFile.delete();
+    }
+
+    private void spillOldest(int n) {
+        try {
+            if (spill == null) {
+                if (spillFile == null) {
+                    spillFile = File.createTempFile("manbo-history-", ".bin");
+                    spillFile.deleteOnExit();
+                }
+                spill = new RandomAccessFile(spillFile, "rw");
+                spill.setLength(0);
+            }
+            if (spilled + n > offsets.length) {
+                offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, spilled + n));
+            }
+            // encode the batch first, so it goes to the file in one write
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream records = new DataOutputStream(bytes);
+            long start = spill.length();
+            long[] at = new long[n];
+            for (int i = 0; i < n; i++) {
+                Message m = recent.get(head + i);
+                byte[] text = m.getText().getBytes(StandardCharsets.UTF_8);
+                at[i] = start + records.size();
+                records.writeByte(m.flags());
+                records.writeInt(text.length);
+                records.write(text);
+            }
+            spill.seek(start);
+            spill.write(bytes.toByteArray());
+            // messages leave memory only once their records are written
+            for (int i = 0; i < n; i++) {
+                recent.set(head++, null);
+                offsets[spilled++] = at[i];
+            }
+        } catch (IOException e) {
+            System.out.println("Error spilling history, keeping it in memory: " + e.getMessage());
+            spillFailed = true;
+        } finally {
+            if (head > recent.size() / 2) {
+                recent.subList(0, head).clear();
+                head = 0;
+            }
+        }
+    }
+
+    private Message read(int index) {
+        try {
+            spill.seek(offsets[index]);
+            int flags = spill.readUnsignedByte();
+            byte[] text = new byte[spill.readInt()];
+            spill.readFully(text);
+            return Message.of(flags, new String(text, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("Error reading history: " + e.getMessage());
+            return Message.manbo("(message unavailable)", true, false);
+        }
+    }
+}
@@ -1,14 +1,10 @@
 package manbo.gui;
 
 import java.io.IOException;
-import java.util.Collections;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -21,13 +17,15 @@ import javafx.scene.shape.Circle;
 
 /**
  * A dialog box that contains a text bubble and an avatar image.
- * Used for both user and bot messages.
+ * Used for both user and bot messages. The conversation view keeps one per visible
+ * row and refills it with {@link #show} as rows scroll past.
  */
 public class DialogBox extends HBox {
     @FXML private Label dialog;
     @FXML private ImageView displayPicture;
 
-    private DialogBox(String text, Image img) {
+    /** Creates an empty dialog box, to be filled by {@link #show}. */
+    DialogBox() {
         try {
             FXMLLoader loader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
             loader.setController(this);
@@ -37,9 +35,6 @@ public class DialogBox extends HBox {
             e.printStackTrace();
         }
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
-
         // make avatar circular
         double r = 25; // radius
         Circle clip = new Circle(r, r, r);
@@ -48,44 +43,36 @@ public class DialogBox extends HBox {
         displayPicture.setClip(clip);
     }
 
-    /** Flips the dialog box so that the avatar is on the left (for bot). */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+    /**
+     * Shows {@code m}, replacing whatever this box showed before.
+     *
+     * @param m      the message
+     * @param avatar the picture shown next to it
+     */
+    void show(Message m, Image avatar) {
+        dialog.setText(m.getText());
+        displayPicture.setImage(avatar);
+        setStyle("");
+        dialog.setStyle("");
+        if (m.isFromUser()) {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+            styleBubble(Color.web("#d0ebff"), Color.web("#003366"));
+        } else {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+            styleBubble(Color.web("#eeeeee"), Color.BLACK);
+            if (m.isError()) {
+                markAsError();
+            }
+        }
     }
 
     /** Apply consistent styling to the dialog bubble. */
-    private void styleBubble(Color bg, Color textColor, boolean bold) {
+    private void styleBubble(Color bg, Color textColor) {
         dialog.setBackground(new Background(new BackgroundFill(bg, new CornerRadii(12), Insets.EMPTY)));
         dialog.setPadding(new Insets(8));
         dialog.setTextFill(textColor);
-        if (bold) dialog.setStyle("-fx-font-weight: bold;");
-    }
-
-    /** Factory method for user messages. */
-    public static DialogBox getUserDialog(String text, Image img) {
-        DialogBox db = new DialogBox(text, img);
-        db.styleBubble(Color.web("#d0ebff"), Color.web("#003366"), false);
-        db.setAlignment(Pos.TOP_RIGHT);
-        return db;
-    }
-
-    /** Factory method for bot messages. */
-    public static DialogBox getManboDialog(String text, Image img) {
-        DialogBox db = new DialogBox(text, img);
-        db.flip();
-        db.styleBubble(Color.web("#eeeeee"), Color.BLACK, false);
-        return db;
-    }
-
-    /** Factory method for error messages (red bubble). */
-    public static DialogBox getErrorDialog(String text, Image img) {
-        DialogBox db = new DialogBox(text, img);
-        db.flip();
-        db.styleBubble(Color.web("#ffcccc"), Color.web("#a10000"), true);
-        return db;
     }
 
     public DialogBox markAsError() {
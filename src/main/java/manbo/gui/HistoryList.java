@@ -0,0 +1,54 @@
+package manbo.gui;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * The conversation as an observable list for the {@link javafx.scene.control.ListView},
+ * read straight from a {@link ConversationHistory} so spilled messages are only loaded
+ * when their row is on screen. The list only grows, through {@link #append}; recent rows
+ * can be swapped through {@link #replace}.
+ */
+final class HistoryList extends ObservableListBase<Message> {
+    private final ConversationHistory history;
+
+    HistoryList(ConversationHistory history) {
+        this.history = history;
+    }
+
+    /** Adds {@code m} at the end and tells listeners about it. */
+    void append(Message m) {
+        history.add(m);
+        beginChange();
+        nextAdd(size() - 1, size());
+        endChange();
+    }
+
+    /**
+     * Replaces the message at {@code index} and tells listeners about it.
+     *
+     * @return whether it was replaced; spilled messages cannot be
+     */
+    boolean replace(int index, Message m) {
+        Message old = history.replace(index, m);
+        if (old == null) return false;
+        beginChange();
+        nextSet(index, old);
+        endChange();
+        return true;
+    }
+
+    /** Deletes the history's spill file; the list must not be used afterwards. */
+    void close() {
+        history.close();
+    }
+
+    @Override
+    public Message get(int index) {
+        return history.get(index);
+    }
+
+    @Override
+    public int size() {
+        return history.size();
+    }
+}
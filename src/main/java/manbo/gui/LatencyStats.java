@@ -0,0 +1,63 @@
+package manbo.gui;
+
+import java.util.Locale;
+
+/**
+ * Running totals for how long replies take in the GUI, from the user submitting a command
+ * to its reply being put on screen: how many, the average, the maximum and approximate
+ * percentiles. Percentiles come from power-of-two buckets, so they are upper bounds
+ * within a factor of two, which is enough to tell a smooth session from a janky one.
+ */
+public final class LatencyStats {
+    private final long[] buckets = new long[64];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long lastNanos;
+
+    /**
+     * Records one reply.
+     *
+     * @param nanos time from submit to render
+     */
+    public synchronized void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        buckets[64 - Long.numberOfLeadingZeros(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        lastNanos = nanos;
+    }
+
+    public synchronized long getCount() { return count; }
+
+    public synchronized long getMaxNanos() { return maxNanos; }
+
+    public synchronized long getLastNanos() { return lastNanos; }
+
+    /**
+     * @param fraction a fraction between 0 and 1, e.g. 0.99
+     * @return a bound that at least {@code fraction} of the replies took no longer than
+     */
+    public synchronized long percentileNanos(double fraction) {
+        assert fraction >= 0 && fraction <= 1 : "Fraction must be between 0 and 1";
+        long wanted = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int b = 0; b < buckets.length; b++) {
+            seen += buckets[b];
+            if (seen >= wanted && seen > 0) {
+                return Math.min(maxNanos, b == 0 ? 0 : (1L << b) - 1);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        double avgMs = count == 0 ? 0.0 : totalNanos / 1e6 / count;
+        return String.format(Locale.ROOT,
+                "%d replies, avg %.3f ms, p50 <= %.3f ms, p99 <= %.3f ms, max %.3f ms, last %.3f ms",
+                count, avgMs, percentileNanos(0.5) / 1e6, percentileNanos(0.99) / 1e6,
+                maxNanos / 1e6, lastNanos / 1e6);
+    }
+}
@@ -11,6 +11,9 @@ public class Main extends Application {
 
     private final ManboAdapter manbo = new ManboAdapter(); // see below
 
+    /** The window's controller, or {@code null} if the window failed to load. */
+    private MainWindow window;
+
     @Override
     public void start(Stage stage) {
         System.out.println(Main.class.getResource("/view/MainWindow.fxml"));
@@ -27,10 +30,27 @@ public class Main extends Application {
             stage.setTitle("Manbo");
             stage.setResizable(false);
             stage.setScene(scene);
-            fxml.<MainWindow>getController().setBackend(manbo);
+            window = fxml.getController();
+            window.setBackend(manbo);
             stage.show();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Lets submitted commands finish and saves flush before the JVM exits, then deletes
+     * the conversation's spill file.
+     * With {@code -Dmanbo.gui.stats=true}, also prints the submit-to-reply latency.
+     */
+    @Override
+    public void stop() {
+        manbo.close();
+        if (window != null) {
+            window.dispose();
+        }
+        if (Boolean.getBoolean("manbo.gui.stats")) {
+            System.out.println("GUI latency: " + manbo.getLatency());
+        }
+    }
 }
@@ -1,25 +1,41 @@
 package manbo.gui;
 
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+import manbo.Manbo;
 
 
 /**
  * The main chat window for the Manbo app.
  * Handles user input, displays both user and bot dialogs.
+ * <p>
+ * The conversation is a list of {@link Message}s shown in a virtualized {@link ListView}, so
+ * only the visible rows have nodes. Up to {@code -Dmanbo.gui.historyCap} messages (default
+ * {@value ConversationHistory#DEFAULT_CAP}) are kept in memory; older ones are spilled to a
+ * temp file and read back when scrolled to.
  */
 public class MainWindow extends AnchorPane {
-    @FXML private ScrollPane scrollPane;
-    @FXML private VBox dialogContainer;
+    @FXML private ListView<Message> conversation;
     @FXML private TextField userInput;
     @FXML private Button sendButton;
 
+    /** How long the goodbye stays on screen before the window closes. */
+    private static final double EXIT_DELAY_SECONDS = 1.5;
+
+    /** Placeholder shown while a command runs. */
+    private static final Message THINKING = Message.manbo("...", false, true);
+
+    private final HistoryList messages = new HistoryList(new ConversationHistory(
+            Integer.getInteger("manbo.gui.historyCap", ConversationHistory.DEFAULT_CAP)));
+
     private ManboAdapter backend;
 
     // Swap images if needed
@@ -30,15 +46,31 @@ public class MainWindow extends AnchorPane {
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        conversation.setItems(messages);
+        conversation.setCellFactory(view -> new MessageCell(userImage, manboImage, thinkingImage));
+        conversation.setFocusTraversable(false);
     }
 
-    /** Inject backend adapter. */
+    /**
+     * Inject backend adapter and start loading the task file behind the window.
+     * A status message shows the load's progress; commands typed meanwhile run once it is done.
+     * If the load fails, the status message says why and input is disabled.
+     */
     public void setBackend(ManboAdapter b) {
         this.backend = b;
-        dialogContainer.getChildren().add(
-                DialogBox.getManboDialog("曼波，曼波～ I'm Manbo \nType something!", manboImage)
-        );
+        say(Message.manbo("曼波，曼波～ I'm Manbo \nType something!", false, false));
+        int status = messages.size();
+        say(Message.manbo("Loading your tasks...", false, true));
+        b.load(percent -> messages.replace(status, Message.manbo("Loading your tasks... " + percent + "%", false, true)),
+                count -> showStatus(status,
+                        Message.manbo("Loaded " + count + (count == 1 ? " task." : " tasks."), false, false)),
+                reason -> {
+                    showStatus(status, Message.manbo(reason, true, false));
+                    userInput.setDisable(true);
+                    sendButton.setDisable(true);
+                });
+        // Reminders arrive on the reminder thread; only the FX thread may touch the scene
+        b.setReminderSink(msg -> Platform.runLater(() -> say(Message.manbo(msg, false, false))));
     }
 
     /** Handles input when Enter is pressed or Send button clicked. */
@@ -49,41 +81,50 @@ public class MainWindow extends AnchorPane {
             return;
         }
 
-        String response;
-        Image botAvatar = manboImage; // default avatar
+        userInput.clear();
+        say(Message.user(input));
+        // Manbo thinks (GIF avatar) until the worker thread replies
+        int pending = messages.size();
+        say(THINKING);
+        backend.submit(input, r -> {
+            // The thinking avatar stays for input Manbo did not understand
+            Message reply = Message.manbo(r.text, r.isError(),
+                    r.errorKind == Manbo.Reply.ErrorKind.UNRECOGNISED);
+            if (messages.replace(pending, reply)) {
+                conversation.scrollTo(messages.size() - 1);
+            } else {
+                say(reply); // the placeholder was already spilled to disk
+            }
+            if (r.isExit) {
+                close();
+            }
+        });
+    }
 
-        try {
-            response = backend.getResponse(input);
-        } catch (manbo.exceptions.UnrecognisedInputException e) {
-            response = e.getMessage();
-            botAvatar = thinkingImage; // swap avatar to GIF
-        } catch (Exception e) {
-            response = "Unexpected error: " + e.getMessage();
-        }
+    /** Stops taking input and closes the window once the goodbye has been read. */
+    private void close() {
+        userInput.setDisable(true);
+        sendButton.setDisable(true);
+        PauseTransition goodbye = new PauseTransition(Duration.seconds(EXIT_DELAY_SECONDS));
+        goodbye.setOnFinished(e -> Platform.exit());
+        goodbye.play();
+    }
 
-        DialogBox user = DialogBox.getUserDialog(input, userImage);
-        DialogBox bot  = DialogBox.getManboDialog(response, botAvatar);
+    /** Deletes the conversation's spill file; called once the window is gone. */
+    public void dispose() {
+        messages.close();
+    }
 
-        // Heuristic error styling
-        if (looksLikeError(response)) {
-            bot.markAsError();
+    /** Replaces the status message at {@code index} with {@code m}. */
+    private void showStatus(int index, Message m) {
+        if (!messages.replace(index, m)) {
+            say(m); // the status message was already spilled to disk
         }
-
-        dialogContainer.getChildren().addAll(user, bot);
-        userInput.clear();
     }
 
-
-
-    private boolean looksLikeError(String s) {
-        if (s == null) return false;
-        String t = s.toLowerCase();
-        return t.startsWith("error:")
-                || t.contains("invalid")
-                || t.contains("cannot be")
-                || t.contains("provide a valid")
-                || t.contains("not a valid")
-                || t.contains("missing")
-                || t.contains("empty");
+    /** Adds {@code m} to the conversation and scrolls to it. */
+    private void say(Message m) {
+        messages.append(m);
+        conversation.scrollTo(messages.size() - 1);
     }
 }
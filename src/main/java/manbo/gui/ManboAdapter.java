@@ -1,32 +1,114 @@
 // manbo/gui/ManboAdapter.java
 package manbo.gui;
 
+import javafx.application.Platform;
 import manbo.Manbo;
-import manbo.exceptions.UnrecognisedInputException;
+import manbo.exceptions.ManboException;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Connects the window to a {@link Manbo} instance without blocking the FX thread.
+ * <p>
+ * Commands are parsed, run and saved on one worker thread, the only thread that touches
+ * the task list, so commands apply in the order they were submitted however long each
+ * takes. Replies are handed back on the FX thread, and the time from submit to reply is
+ * recorded in {@link #getLatency()}.
+ * <p>
+ * The task file is loaded by {@link #load}, also on the worker, so the window can show
+ * at once however large the file is. Commands submitted while it loads wait behind it,
+ * and are refused by {@link Manbo#handle} if it fails.
+ */
 public class ManboAdapter {
+    /** How long {@link #close()} waits for submitted commands to finish. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
     private final Manbo core = new Manbo();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "manbo-worker");
+        t.setDaemon(true);
+        return t;
+    });
+    private final LatencyStats latency = new LatencyStats();
 
     /**
-     * Returns the reply text for input.
-     * If the reply looks like an unknown-command message, rethrow as UnrecognisedInputException
-     * so the GUI can swap the avatar to the thinking GIF.
+     * Loads the task file on the worker thread. Call it before {@link #submit} and
+     * {@link #setReminderSink}, which then run once the tasks are in.
+     * If the load fails, later commands are refused rather than run against an empty list.
+     *
+     * @param onProgress receives the percentage decoded so far on the FX thread, once per change
+     * @param onLoaded   receives the number of tasks loaded on the FX thread
+     * @param onFailed   receives the reason on the FX thread if the tasks could not be loaded
      */
-    public String getResponse(String input) throws UnrecognisedInputException {
-        Manbo.Reply r = core.handle(input);   // no changes outside gui
-        String text = r.text;
-
-        // Match the standard message your UnrecognisedInputException uses
-        // (keep this prefix in sync with your exception message)
-        if (text != null && text.startsWith("I don't understand your input")) {
-            // Let the GUI handle this specific case
-            throw new UnrecognisedInputException(input);
+    public void load(IntConsumer onProgress, IntConsumer onLoaded, Consumer<String> onFailed) {
+        worker.execute(() -> {
+            int[] shown = { -1 }; // only the worker touches it
+            int count;
+            try {
+                count = core.load((loaded, total) -> {
+                    int percent = total == 0 ? 100 : (int) (loaded * 100 / total);
+                    if (percent != shown[0]) {
+                        shown[0] = percent;
+                        Platform.runLater(() -> onProgress.accept(percent));
+                    }
+                });
+            } catch (ManboException e) {
+                Platform.runLater(() -> onFailed.accept(e.getMessage()));
+                return;
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> onFailed.accept("Unexpected error: " + e.getMessage()));
+                return;
+            }
+            Platform.runLater(() -> onLoaded.accept(count));
+        });
+    }
+
+    /**
+     * Runs {@code input} once, on the worker thread, after every command submitted before it.
+     *
+     * @param input   the user's input
+     * @param onReply receives the reply on the FX thread
+     */
+    public void submit(String input, Consumer<Manbo.Reply> onReply) {
+        long submitted = System.nanoTime();
+        worker.execute(() -> {
+            Manbo.Reply reply = core.handle(input);
+            Platform.runLater(() -> {
+                onReply.accept(reply);
+                latency.record(System.nanoTime() - submitted);
+            });
+        });
+    }
+
+    /**
+     * Starts pushing deadline and event reminders to {@code sink}, which is called
+     * on the reminder thread, unless {@link Manbo#remindersEnabled()} says they are off.
+     */
+    public void setReminderSink(Consumer<String> sink) {
+        if (Manbo.remindersEnabled()) {
+            worker.execute(() -> core.startReminders(sink));
         }
-        return text;
     }
 
-    // If you use this in GUI:
-    public boolean isExit(String input) {
-        return core.handle(input).isExit;
+    /** @return submit-to-reply times so far */
+    public LatencyStats getLatency() {
+        return latency;
+    }
+
+    /** Finishes the commands already submitted, then stops reminders and flushes saves. */
+    public void close() {
+        worker.execute(core::close);
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.out.println("Error: commands still running at exit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
@@ -0,0 +1,60 @@
+package manbo.gui;
+
+/**
+ * One bubble of the conversation: who said it, what was said, and how it is shown.
+ * Messages are immutable, so cells and the on-disk history can share them freely.
+ */
+public final class Message {
+    private final boolean fromUser;
+    private final String text;
+    private final boolean error;
+    private final boolean thinking;
+
+    private Message(boolean fromUser, String text, boolean error, boolean thinking) {
+        assert text != null : "Message text must not be null";
+        this.fromUser = fromUser;
+        this.text = text;
+        this.error = error;
+        this.thinking = thinking;
+    }
+
+    /** @return a message typed by the user */
+    public static Message user(String text) {
+        return new Message(true, text, false, false);
+    }
+
+    /**
+     * @param error    whether the reply is shown as an error
+     * @param thinking whether Manbo shows its thinking avatar, e.g. for input it did not understand
+     * @return a reply from Manbo
+     */
+    public static Message manbo(String text, boolean error, boolean thinking) {
+        return new Message(false, text, error, thinking);
+    }
+
+    public boolean isFromUser() {
+        return fromUser;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public boolean isThinking() {
+        return thinking;
+    }
+
+    /** @return the flags packed into one byte, for {@link ConversationHistory}'s spill file */
+    int flags() {
+        return (fromUser ? 1 : 0) | (error ? 2 : 0) | (thinking ? 4 : 0);
+    }
+
+    /** @return the message with {@code text} and flags packed by {@link #flags()} */
+    static Message of(int flags, String text) {
+        return new Message((flags & 1) != 0, text, (flags & 2) != 0, (flags & 4) != 0);
+    }
+}
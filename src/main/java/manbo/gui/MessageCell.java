@@ -0,0 +1,36 @@
+package manbo.gui;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+
+/**
+ * A row of the conversation view. Each cell owns one {@link DialogBox}, built once and
+ * refilled as the cell is reused for other messages, so the number of dialog nodes is
+ * the number of visible rows rather than the number of messages.
+ */
+final class MessageCell extends ListCell<Message> {
+    private final DialogBox box = new DialogBox();
+    private final Image userImage;
+    private final Image manboImage;
+    private final Image thinkingImage;
+
+    MessageCell(Image userImage, Image manboImage, Image thinkingImage) {
+        this.userImage = userImage;
+        this.manboImage = manboImage;
+        this.thinkingImage = thinkingImage;
+        setPrefWidth(0); // follow the list's width instead of scrolling sideways
+        setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+    }
+
+    @Override
+    protected void updateItem(Message m, boolean empty) {
+        super.updateItem(m, empty);
+        if (empty || m == null) {
+            setGraphic(null);
+            return;
+        }
+        Image avatar = m.isFromUser() ? userImage : m.isThinking() ? thinkingImage : manboImage;
+        box.show(m, avatar);
+        setGraphic(box);
+    }
+}
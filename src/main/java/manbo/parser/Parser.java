@@ -1,5 +1,9 @@
 package manbo.parser;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 import manbo.command.*;
 import manbo.exceptions.*;
 
@@ -21,25 +25,107 @@ import manbo.exceptions.*;
  *   <li>Strong SLAP (Single Level of Abstraction Principle): {@link #parse(String)} only dispatches,
  *       detailed parsing happens in per-command handlers.</li>
  *   <li>Guard clauses are used for clarity instead of deep nesting.</li>
- *   <li>Magic strings (regex patterns) are centralized as constants.</li>
+ *   <li>Magic strings (flags and keywords) are centralized as constants.</li>
  *   <li>Exceptions are thrown for invalid input to keep parsing robust.</li>
+ *   <li>Input is scanned by hand in one pass, without regular expressions or split arrays,
+ *       since parsing runs once per command and adds up in batch imports. Whitespace
+ *       between tokens is what {@code \s} matches: space, tab, line feed, vertical tab,
+ *       form feed and carriage return.</li>
  * </ul>
  */
 public final class Parser {
 
-    // ===== Constants for splitting input =====
-    private static final String SPLIT_ON_SPACES_ONCE = "\\s+"; // split keyword + args
-    private static final String DEADLINE_SPLIT = "\\s+/by\\s+";
-    private static final String EVENT_SPLIT = "\\s+/from\\s+|\\s+/to\\s+";
-    private static final String HHMM_ONLY = "\\d{4}"; // e.g., "1830" = 6:30 PM
+    // ===== Flags separating arguments; each needs whitespace on both sides =====
+    private static final String BY = "/by";
+    private static final String FROM = "/from";
+    private static final String TO = "/to";
+
+    /** Separates commands given on one line, when a command keyword follows; line breaks always do. */
+    private static final char COMMAND_SEPARATOR = ';';
+
+    /** A separator that is part of a description, e.g. {@code todo a\; list b}. */
+    private static final String ESCAPED_SEPARATOR = "\\;";
+
+    private static final int HHMM_DIGITS = 4; // e.g., "1830" = 6:30 PM
+    private static final int MAX_POSITION_DIGITS = 9; // positions and range ends, e.g. "9-20"
+    private static final int MAX_ID_DIGITS = 18; // e.g. "#42"
+
+    /** Command keywords, matched against the first token. */
+    private enum Keyword {
+        BYE, LIST, STATS, MARK, UNMARK, DELETE, TODO, FIND, DEADLINE, EVENT, AGENDA, CONFLICTS,
+        UPCOMING, OVERDUE;
+
+        final String word = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Keyword[] KEYWORDS = Keyword.values();
 
     private Parser() { } // Parser is utility class, not instantiable
 
+    /**
+     * Parses one line of user input, which may hold several commands separated by {@code ;}
+     * or by line breaks, e.g. {@code todo a ; todo b ; mark 1} or a pasted block of lines.
+     * A {@code ;} only separates commands when the next word is a command keyword, so
+     * {@code todo buy milk; eggs} is still one todo; {@code \;} is always a plain {@code ;},
+     * e.g. {@code todo read\; list books}.
+     * Every command is parsed before any runs, so one malformed command rejects the input.
+     *
+     * @param input raw user input (must not be null or blank)
+     * @return the single command, or a {@link CommandGroup} of the commands in order
+     * @throws ManboException if input is null, empty, or any command in it is invalid
+     */
+    public static Command parseLine(String input) throws ManboException {
+        if (input == null || indexOfCommandEnd(input, 0) == input.length()
+                && !input.contains(ESCAPED_SEPARATOR)) {
+            return parse(input);
+        }
+
+        final List<Command> commands = new ArrayList<>();
+        for (int start = 0; start <= input.length(); ) {
+            final int end = indexOfCommandEnd(input, start);
+            final String segment = input.substring(start, end).replace(ESCAPED_SEPARATOR, ";");
+            if (!segment.isBlank()) {
+                commands.add(parse(segment));
+            }
+            start = end + 1;
+        }
+        if (commands.isEmpty()) throw new UnrecognisedInputException("(empty)");
+        return commands.size() == 1 ? commands.get(0) : new CommandGroup(commands);
+    }
+
+    /**
+     * @return the index of the first line break, or unescaped {@code ;} followed by a command
+     *         keyword, at or after {@code from}; the length if there is none
+     */
+    private static int indexOfCommandEnd(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            if (c == '\n' || c == '\r') return i;
+            if (c == COMMAND_SEPARATOR && (i == 0 || s.charAt(i - 1) != '\\') && startsWithKeyword(s, i + 1)) {
+                return i;
+            }
+        }
+        return s.length();
+    }
+
+    /** @return whether the first word at or after {@code from} is a command keyword, in any case */
+    private static boolean startsWithKeyword(String s, int from) {
+        final int start = skipSpaces(s, from);
+        int end = start;
+        while (end < s.length() && !isSpace(s.charAt(end)) && s.charAt(end) != COMMAND_SEPARATOR) end++;
+        if (end == start) return false;
+        final String word = s.substring(start, end).toLowerCase(); // as keyword() lower-cases
+        return lookup(word, word.length()) != null;
+    }
+
     /**
      * Parses raw user input into a {@link Command}.
      *
      * <p>Supported keywords include {@code todo}, {@code deadline}, {@code event},
-     * {@code mark}, {@code unmark}, {@code delete}, {@code list}, {@code bye}, {@code find}, and {@code stats}.
+     * {@code mark}, {@code unmark}, {@code delete}, {@code list}, {@code bye}, {@code find}, {@code stats},
+     * {@code agenda}, {@code conflicts}, {@code upcoming} and {@code overdue}.
+     * {@code mark}, {@code unmark} and {@code delete} also take several tasks,
+     * e.g. {@code delete 3,7,9-20} or {@code delete all done}.
      *
      * @param input raw user input (must not be null or blank)
      * @return a concrete {@link Command} ready for execution
@@ -50,30 +136,67 @@ public final class Parser {
         final String trimmed = input.trim();
         if (trimmed.isEmpty()) throw new UnrecognisedInputException("(empty)");
 
-        final String[] parts = trimmed.split(SPLIT_ON_SPACES_ONCE, 2);
-        assert parts.length >= 1 : "Tokenizer must produce at least one token (keyword)";
-
-        final String keyword = parts[0].toLowerCase();
-        final String args = parts.length > 1 ? parts[1] : "";
-        assert !keyword.isBlank() : "Keyword should be non-blank after pre-checks";
+        final int keywordEnd = skipNonSpaces(trimmed, 0);
+        final String args = trimmed.substring(skipSpaces(trimmed, keywordEnd));
+        assert keywordEnd > 0 : "Keyword should be non-blank after pre-checks";
 
         // Dispatch based on command keyword
-        switch (keyword) {
-            case "bye":     return new ExitCommand();
-            case "list":    return new ListCommand();
-            case "stats":   return new StatsCommand();
+        switch (keyword(trimmed, keywordEnd)) {
+            case BYE:       return new ExitCommand();
+            case LIST:      return new ListCommand();
+            case STATS:     return new StatsCommand();
 
-            case "mark":    return new MarkCommand(parseIndex(args, "mark"));
-            case "unmark":  return new UnmarkCommand(parseIndex(args, "unmark"));
-            case "delete":  return new DeleteCommand(parseIndex(args, "delete"));
+            case MARK:      return isSingleTarget(args) ? new MarkCommand(parseTarget(args, "mark"))
+                                    : new BulkMarkCommand(parseSelection(args, "mark"), true);
+            case UNMARK:    return isSingleTarget(args) ? new UnmarkCommand(parseTarget(args, "unmark"))
+                                    : new BulkMarkCommand(parseSelection(args, "unmark"), false);
+            case DELETE:    return isSingleTarget(args) ? new DeleteCommand(parseTarget(args, "delete"))
+                                    : new BulkDeleteCommand(parseSelection(args, "delete"));
 
-            case "todo":    return handleTodo(args);
-            case "find":    return handleFind(args);
-            case "deadline":return handleDeadline(args);
-            case "event":   return handleEvent(args);
+            case TODO:      return handleTodo(args);
+            case FIND:      return handleFind(args);
+            case DEADLINE:  return handleDeadline(args);
+            case EVENT:     return handleEvent(args);
+            case AGENDA:    return handleAgenda(args);
+            case CONFLICTS: return handleConflicts(args);
+            case UPCOMING:  return handleUpcoming(args);
+            case OVERDUE:   return new OverdueCommand();
+
+            default:        throw new AssertionError("Unhandled keyword");
+        }
+    }
+
+    /**
+     * Finds the keyword that {@code input} starts with, ignoring case.
+     * Lower-case ASCII keywords, the usual case, are matched in place; anything else is
+     * lower-cased with the default locale first, as it always has been.
+     *
+     * @param input the trimmed input
+     * @param end   end of the first token
+     * @return the keyword
+     * @throws UnrecognisedInputException if the first token is not a keyword
+     */
+    private static Keyword keyword(String input, int end) throws UnrecognisedInputException {
+        for (int i = 0; i < end; i++) {
+            final char c = input.charAt(i);
+            if (c < 'a' || c > 'z') {
+                final String lowered = input.substring(0, end).toLowerCase();
+                final Keyword k = lookup(lowered, lowered.length());
+                if (k == null) throw new UnrecognisedInputException(lowered);
+                return k;
+            }
+        }
+        final Keyword k = lookup(input, end);
+        if (k == null) throw new UnrecognisedInputException(input.substring(0, end));
+        return k;
+    }
 
-            default:        throw new UnrecognisedInputException(keyword);
+    /** @return the keyword spelled by the first {@code length} chars of {@code s}, or {@code null} */
+    private static Keyword lookup(String s, int length) {
+        for (Keyword k : KEYWORDS) {
+            if (k.word.length() == length && s.startsWith(k.word)) return k;
         }
+        return null;
     }
 
     // ===== Command handlers =====
@@ -110,10 +233,12 @@ public final class Parser {
      */
     private static Command handleDeadline(String args) throws ManboException {
         if (args.isBlank()) throw new EmptyDescriptionException("deadline");
-        final String[] seg = args.split(DEADLINE_SPLIT);
-        if (seg.length < 2) throw new ManboException("Please specify /by as yyyy-MM-dd.");
-        final String desc = seg[0].trim();
-        final String by   = seg[1].trim();
+        final int sep = indexOfFlag(args, BY, 0);
+        if (sep < 0) throw new ManboException("Please specify /by as yyyy-MM-dd.");
+        final int byStart = afterFlag(args, sep);
+        final int next = indexOfFlag(args, BY, byStart);
+        final String desc = args.substring(0, sep).trim();
+        final String by   = args.substring(byStart, next < 0 ? args.length() : next).trim();
         if (desc.isEmpty()) throw new EmptyDescriptionException("deadline");
         return new AddDeadlineCommand(desc, by);
     }
@@ -128,17 +253,184 @@ public final class Parser {
      */
     private static Command handleEvent(String args) throws ManboException {
         if (args.isBlank()) throw new EmptyDescriptionException("event");
-        final String[] seg = args.split(EVENT_SPLIT);
-        if (seg.length < 3) throw new ManboException("Please specify both /from and /to.");
-        final String desc = seg[0].trim();
-        final String from = seg[1].trim();
-        final String to   = normalizeTo(seg[2].trim(), from);
+        // Segments are split at either flag, in whichever order they come
+        final int first = indexOfFromOrTo(args, 0);
+        final int secondStart = first < 0 ? -1 : afterFlag(args, first);
+        final int second = first < 0 ? -1 : indexOfFromOrTo(args, secondStart);
+        if (second < 0) throw new ManboException("Please specify both /from and /to.");
+        final int thirdStart = afterFlag(args, second);
+        final int third = indexOfFromOrTo(args, thirdStart);
+        final String desc = args.substring(0, first).trim();
+        final String from = args.substring(secondStart, second).trim();
+        final String to   = normalizeTo(args.substring(thirdStart, third < 0 ? args.length() : third).trim(), from);
         if (desc.isEmpty()) throw new EmptyDescriptionException("event");
         return new AddEventCommand(desc, from, to);
     }
 
+    /**
+     * Parses an {@code agenda} command.
+     * Example: {@code agenda /from 2025-09-01 /to 2025-09-07}
+     *
+     * @param args the time window
+     * @return an {@link AgendaCommand}
+     * @throws ManboException if the window is missing
+     */
+    private static Command handleAgenda(String args) throws ManboException {
+        final String[] window = parseWindow(args);
+        if (window == null) throw new ManboException("Please specify both /from and /to.");
+        return new AgendaCommand(window[0], window[1]);
+    }
+
+    /**
+     * Parses a {@code conflicts} command, whose window is optional.
+     * Example: {@code conflicts /from 2025-09-01 /to 2025-09-30}
+     *
+     * @param args the time window, or nothing to check every event
+     * @return a {@link ConflictsCommand}
+     * @throws ManboException if a window is given but incomplete
+     */
+    private static Command handleConflicts(String args) throws ManboException {
+        if (args.isBlank()) return new ConflictsCommand();
+        final String[] window = parseWindow(args);
+        if (window == null) throw new ManboException("Please specify both /from and /to.");
+        return new ConflictsCommand(window[0], window[1]);
+    }
+
+    /**
+     * Parses an {@code upcoming} command, whose count is optional.
+     * Example: {@code upcoming 10}
+     *
+     * @param args the number of deadlines to show, or nothing for the default
+     * @return an {@link UpcomingCommand}
+     * @throws ManboException if the count is not a positive number
+     */
+    private static Command handleUpcoming(String args) throws ManboException {
+        if (args.isBlank()) return new UpcomingCommand(UpcomingCommand.DEFAULT_COUNT);
+        final String s = args.trim();
+        if (!isDigits(s, 0, 1, MAX_POSITION_DIGITS) || Integer.parseInt(s) == 0) {
+            throw new ManboException("Please give the number of deadlines to show, e.g. upcoming 5.");
+        }
+        return new UpcomingCommand(Integer.parseInt(s));
+    }
+
     // ===== Utilities =====
 
+    /**
+     * Splits {@code /from X /to Y} into its two bounds. A {@code /to} given as HHmm only
+     * takes the date of {@code /from}.
+     *
+     * @param args the window text
+     * @return the {@code from} and {@code to} strings, or {@code null} if either is missing
+     * @throws ManboException if {@code /from} is malformed
+     */
+    private static String[] parseWindow(String args) throws ManboException {
+        final String s = args.trim();
+        if (!s.startsWith(FROM) || !isSpaceAt(s, FROM.length())) return null;
+        final int fromStart = skipSpaces(s, FROM.length());
+        final int sep = indexOfFlag(s, TO, fromStart);
+        if (sep < 0) return null;
+        final int toStart = afterFlag(s, sep);
+        final int next = indexOfFlag(s, TO, toStart);
+        final String from = s.substring(fromStart, sep).trim();
+        final String to   = normalizeTo(s.substring(toStart, next < 0 ? s.length() : next).trim(), from);
+        if (from.isEmpty() || to.isEmpty()) return null;
+        return new String[] { from, to };
+    }
+
+
+    /**
+     * Tells whether {@code args} names one task (or nothing), as opposed to a bulk selection.
+     */
+    private static boolean isSingleTarget(String args) {
+        final String s = args.trim();
+        return s.isEmpty() || isDigits(s, s.startsWith("#") ? 1 : 0, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parses a bulk selection: comma-separated positions, ranges and ids
+     * (e.g. {@code 3,7,9-20,#42}), or {@code all}, {@code all done} or {@code all open}.
+     *
+     * @param args the selection text
+     * @param cmd command name for contextual error reporting
+     * @return the selected tasks
+     * @throws ManboException if any item is malformed, zero, or a descending range
+     */
+    private static TaskSelection parseSelection(String args, String cmd) throws ManboException {
+        final String s = args.trim().toLowerCase();
+        if (s.startsWith("all")) {
+            switch (collapseSpaces(s.substring(3).trim())) {
+                case "":         return TaskSelection.all(TaskSelection.Filter.ALL);
+                case "done":     return TaskSelection.all(TaskSelection.Filter.DONE);
+                case "open":
+                case "undone":
+                case "not done": return TaskSelection.all(TaskSelection.Filter.OPEN);
+                default:         throw new InvalidIndexException(cmd);
+            }
+        }
+
+        // Items are separated by commas with optional whitespace around them;
+        // empty items at the end are ignored
+        int end = s.length();
+        while (end > 0 && s.charAt(end - 1) == ',') {
+            end = skipSpacesBack(s, end - 1, 0);
+        }
+        final TaskSelection selection = TaskSelection.items();
+        int start = 0;
+        while (start < end) {
+            final int comma = s.indexOf(',', start);
+            final int itemEnd = comma < 0 || comma > end ? end : comma;
+            addItem(selection, s.substring(start, skipSpacesBack(s, itemEnd, start)), cmd);
+            start = itemEnd == end ? end : skipSpaces(s, itemEnd + 1);
+        }
+        return selection;
+    }
+
+    /**
+     * Adds one item of a bulk selection: {@code #id}, a range such as {@code 9-20}, or a position.
+     *
+     * @throws ManboException if the item is malformed, zero, or a descending range
+     */
+    private static void addItem(TaskSelection selection, String item, String cmd) throws ManboException {
+        if (item.startsWith("#")) {
+            selection.addId(parseTarget(item, cmd).getId());
+            return;
+        }
+        final int fromEnd = skipDigits(item, 0);
+        if (fromEnd < 1 || fromEnd > MAX_POSITION_DIGITS) throw new InvalidIndexException(cmd);
+        if (fromEnd == item.length()) {
+            final int position = Integer.parseInt(item);
+            if (position < 1) throw new InvalidIndexException(cmd);
+            selection.addRange(position - 1, position - 1);
+            return;
+        }
+        final int dash = skipSpaces(item, fromEnd);
+        if (dash == item.length() || item.charAt(dash) != '-') throw new InvalidIndexException(cmd);
+        final int toStart = skipSpaces(item, dash + 1);
+        if (!isDigits(item, toStart, 1, MAX_POSITION_DIGITS)) throw new InvalidIndexException(cmd);
+        final int from = Integer.parseInt(item.substring(0, fromEnd));
+        final int to = Integer.parseInt(item.substring(toStart));
+        if (from < 1 || to < from) throw new InvalidIndexException(cmd);
+        selection.addRange(from - 1, to - 1);
+    }
+
+    /**
+     * Parses a task reference: a 1-based position, or {@code #id} for a task's persistent id.
+     *
+     * @param args string containing a positive integer, optionally preceded by {@code #}
+     * @param cmd command name for contextual error reporting
+     * @return the referenced task
+     * @throws ManboException if missing or not a valid position or id
+     */
+    private static TaskRef parseTarget(String args, String cmd) throws ManboException {
+        final String s = args == null ? "" : args.trim();
+        if (s.startsWith("#")) {
+            final String id = s.substring(1);
+            if (!isDigits(s, 1, 1, MAX_ID_DIGITS) || Long.parseLong(id) == 0) throw new InvalidIndexException(cmd);
+            return TaskRef.ofId(Long.parseLong(id));
+        }
+        return TaskRef.ofIndex(parseIndex(args, cmd));
+    }
+
     /**
      * Parses an integer task index (1-based in user input).
      * Converts to zero-based index for internal use.
@@ -146,12 +438,12 @@ public final class Parser {
      * @param args string containing a positive integer
      * @param cmd command name for contextual error reporting
      * @return zero-based task index
-     * @throws ManboException if missing or not a valid integer
+     * @throws ManboException if missing or not a valid integer, e.g. too long for an index
      */
     private static int parseIndex(String args, String cmd) throws ManboException {
         if (args == null || args.isBlank()) throw new EmptyDescriptionException(cmd);
         final String s = args.trim();
-        if (!s.matches("\\d+")) throw new InvalidIndexException(cmd);
+        if (!isDigits(s, 0, 1, MAX_POSITION_DIGITS)) throw new InvalidIndexException(cmd);
         return Integer.parseInt(s) - 1; // convert 1-based → 0-based
     }
 
@@ -165,11 +457,100 @@ public final class Parser {
      * @throws ManboException if {@code /from} is malformed
      */
     private static String normalizeTo(String to, String from) throws ManboException {
-        if (to.matches(HHMM_ONLY)) {
+        if (isDigits(to, 0, HHMM_DIGITS, HHMM_DIGITS)) {
             if (from.length() < 10) throw new ManboException("Invalid /from date.");
             final String datePart = from.substring(0, 10); // yyyy-MM-dd
             return datePart + " " + to;
         }
         return to;
     }
+
+    // ===== Scanning =====
+
+    /** @return whether {@code c} is whitespace in the sense of the regex class {@code \s} */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isSpaceAt(String s, int i) {
+        return i < s.length() && isSpace(s.charAt(i));
+    }
+
+    /** @return the first index at or after {@code i} that is not whitespace */
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && isSpace(s.charAt(i))) i++;
+        return i;
+    }
+
+    /** @return the first index at or after {@code i} that is whitespace */
+    private static int skipNonSpaces(String s, int i) {
+        while (i < s.length() && !isSpace(s.charAt(i))) i++;
+        return i;
+    }
+
+    /** @return the start of the whitespace run ending at {@code end}, stopping at {@code floor} */
+    private static int skipSpacesBack(String s, int end, int floor) {
+        while (end > floor && isSpace(s.charAt(end - 1))) end--;
+        return end;
+    }
+
+    /** @return the first index at or after {@code i} that is not an ASCII digit */
+    private static int skipDigits(String s, int i) {
+        while (i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+        return i;
+    }
+
+    /**
+     * @return whether {@code s} from index {@code from} on is between {@code min} and
+     *         {@code max} ASCII digits and nothing else
+     */
+    private static boolean isDigits(String s, int from, int min, int max) {
+        final int count = s.length() - from;
+        return count >= min && count <= max && skipDigits(s, from) == s.length();
+    }
+
+    /** @return {@code s} with every whitespace run replaced by a single space */
+    private static String collapseSpaces(String s) {
+        final StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); ) {
+            if (isSpace(s.charAt(i))) {
+                sb.append(' ');
+                i = skipSpaces(s, i);
+            } else {
+                sb.append(s.charAt(i++));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Finds the first {@code flag} at or after {@code from} that has whitespace on both sides,
+     * the leading whitespace also lying at or after {@code from}.
+     *
+     * @return the start of the whitespace before the flag, or -1 if there is none
+     */
+    private static int indexOfFlag(String s, String flag, int from) {
+        for (int i = s.indexOf(flag, from); i >= 0; i = s.indexOf(flag, i + 1)) {
+            if (i > from && isSpace(s.charAt(i - 1)) && isSpaceAt(s, i + flag.length())) {
+                return skipSpacesBack(s, i - 1, from);
+            }
+        }
+        return -1;
+    }
+
+    /** @return the earlier of {@code /from} and {@code /to} found by {@link #indexOfFlag}, or -1 */
+    private static int indexOfFromOrTo(String s, int from) {
+        final int a = indexOfFlag(s, FROM, from);
+        final int b = indexOfFlag(s, TO, from);
+        return a < 0 ? b : b < 0 ? a : Math.min(a, b);
+    }
+
+    /**
+     * @param sep a separator found by {@link #indexOfFlag}
+     * @return the index of the first argument character after the separator's flag
+     */
+    private static int afterFlag(String s, int sep) {
+        final int flag = skipSpaces(s, sep);
+        return skipSpaces(s, skipNonSpaces(s, flag));
+    }
 }
@@ -0,0 +1,286 @@
+package manbo.reminder;
+
+import manbo.task.Deadline;
+import manbo.task.Event;
+import manbo.task.Task;
+import manbo.task.TaskList;
+import manbo.task.TaskListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Pushes reminders for open deadlines and upcoming events from one background thread.
+ * <p>
+ * A deadline is announced at {@link #DEADLINE_REMINDER_TIME} on its due day, and an event
+ * {@link #DEFAULT_EVENT_LEAD} before it starts. A reminder whose time has passed but whose
+ * deadline or event has not (e.g. a deadline due today, found on start-up) fires at once;
+ * one for a deadline or event already over is dropped.
+ * <p>
+ * Reminders are timers on a {@link TimerWheel}, so there is no periodic scan of the task
+ * list. {@link #track(TaskList)} schedules the tasks already in the list and then listens
+ * to it. Adds, deletes, marks and unmarks are queued on the caller's thread in O(1) and
+ * applied by the reminder thread, which is the only thread touching the wheel. Reminders
+ * are handed to the sink on that thread; a GUI sink must move them to its own thread.
+ */
+public final class ReminderScheduler implements TaskListener {
+    /** Time of day at which a deadline due that day is announced. */
+    public static final LocalTime DEADLINE_REMINDER_TIME = LocalTime.of(9, 0);
+
+    /** How long before its start an event is announced. */
+    public static final Duration DEFAULT_EVENT_LEAD = Duration.ofMinutes(15);
+
+    /** Default wheel tick; reminders fire up to this late. */
+    private static final long DEFAULT_TICK_MILLIS = 1000;
+
+    private static final DateTimeFormatter HOUR_MINUTE = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final Consumer<String> sink;
+    private final Clock clock;
+    private final ZoneId zone;
+    private final Duration eventLead;
+
+    private final Object lock = new Object();
+
+    /** Changes waiting for the reminder thread, oldest first. */
+    private final ArrayDeque<Op> ops = new ArrayDeque<>();
+    private boolean closed;
+    private Thread thread;
+
+    /** The tracked list, whose lock guards the tasks' done flags; {@code null} until {@link #track}. */
+    private TaskList tasks;
+
+    // Owned by the reminder thread
+    private final TimerWheel<Task> wheel;
+    private final Map<Task, TimerWheel.Timer<Task>> pending = new IdentityHashMap<>();
+
+    /**
+     * Creates a scheduler on the system clock and time zone.
+     *
+     * @param sink receives each reminder's text, on the reminder thread
+     */
+    public ReminderScheduler(Consumer<String> sink) {
+        this(sink, Clock.systemDefaultZone(), DEFAULT_EVENT_LEAD, DEFAULT_TICK_MILLIS);
+    }
+
+    ReminderScheduler(Consumer<String> sink, Clock clock, Duration eventLead, long tickMillis) {
+        assert sink != null : "Reminder sink must not be null";
+        this.sink = sink;
+        this.clock = clock;
+        this.zone = clock.getZone();
+        this.eventLead = eventLead;
+        this.wheel = new TimerWheel<>(tickMillis, clock.millis());
+    }
+
+    /**
+     * Schedules reminders for the tasks in {@code tasks}, then follows its changes.
+     * Starts the reminder thread on first use. Reads every task once to find its date,
+     * so a lazily loaded list is decoded in full; {@link manbo.Manbo#remindersEnabled()}
+     * leaves reminders off for such lists unless they are asked for.
+     *
+     * @param tasks the live task list
+     */
+    public void track(TaskList tasks) {
+        // Under the write lock, so no change falls between the snapshot and the listener
+        tasks.write(() -> {
+            this.tasks = tasks;
+            tasks.setListener(this); // first, so the walk below claims each task it reads
+            List<Task> open = new ArrayList<>();
+            for (Task t : tasks) {
+                if (!t.ifDone()) {
+                    open.add(t);
+                }
+            }
+            enqueue(new Op(Kind.ADD_ALL, null, open, false));
+        });
+    }
+
+    // The list calls these under its write lock, so the done flag is read here, not on the reminder thread
+
+    @Override
+    public void added(Task t) {
+        enqueue(new Op(Kind.ADD, t, null, t.ifDone()));
+    }
+
+    @Override
+    public void removed(Task t) {
+        enqueue(new Op(Kind.REMOVE, t, null, false));
+    }
+
+    @Override
+    public void doneChanged(Task t) {
+        enqueue(new Op(Kind.DONE_CHANGED, t, null, t.ifDone()));
+    }
+
+    /** Stops the reminder thread; pending reminders are dropped. */
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+    }
+
+    private void enqueue(Op op) {
+        synchronized (lock) {
+            if (closed) return;
+            ops.add(op);
+            if (thread == null) {
+                thread = new Thread(this::runLoop, "manbo-reminders");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private void runLoop() {
+        List<Op> batch = new ArrayList<>();
+        while (true) {
+            long now;
+            synchronized (lock) {
+                if (ops.isEmpty() && !closed) {
+                    waitForWork();
+                }
+                if (closed) {
+                    return;
+                }
+                // Read the clock before taking the queue, so a change made before a
+                // reminder came due is always applied before that reminder fires
+                now = clock.millis();
+                batch.addAll(ops);
+                ops.clear();
+            }
+            for (Op op : batch) {
+                apply(op);
+            }
+            batch.clear();
+            wheel.advanceTo(now, this::fire);
+        }
+    }
+
+    /** Sleeps until the next tick, or until woken if nothing is scheduled. */
+    private void waitForWork() {
+        long wait = 0; // forever
+        if (wheel.size() > 0) {
+            long tick = wheel.tickMillis();
+            wait = tick - Math.floorMod(clock.millis(), tick);
+        }
+        try {
+            lock.wait(wait);
+        } catch (InterruptedException e) {
+            // re-check the queue and the clock
+        }
+    }
+
+    private void apply(Op op) {
+        switch (op.kind) {
+        case ADD_ALL:
+            for (Task t : op.tasks) {
+                schedule(t);
+            }
+            break;
+        case ADD:
+            if (!op.done) {
+                schedule(op.task);
+            }
+            break;
+        case REMOVE:
+            cancel(op.task);
+            break;
+        case DONE_CHANGED:
+            if (op.done) {
+                cancel(op.task);
+            } else {
+                schedule(op.task);
+            }
+            break;
+        }
+    }
+
+    /** Schedules a reminder for {@code t}, which was open when the change was queued. */
+    private void schedule(Task t) {
+        if (pending.containsKey(t)) return;
+        long at = remindAt(t, clock.millis());
+        if (at >= 0) {
+            pending.put(t, wheel.schedule(at, t));
+        }
+    }
+
+    private void cancel(Task t) {
+        TimerWheel.Timer<Task> timer = pending.remove(t);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    private void fire(Task t) {
+        pending.remove(t);
+        // Under the list's lock, as a command may be marking the task right now
+        String message = tasks.read(() -> t.ifDone() ? null : message(t));
+        if (message == null) return; // marked after the timer was last checked
+        try {
+            sink.accept(message);
+        } catch (RuntimeException e) {
+            System.out.println("Error delivering reminder: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Works out when to remind about {@code t}.
+     *
+     * @param t         the task
+     * @param nowMillis the current time, in epoch milliseconds
+     * @return the reminder time in epoch milliseconds (no earlier than now),
+     *         or -1 if {@code t} needs no reminder
+     */
+    long remindAt(Task t, long nowMillis) {
+        long remind;
+        long over;
+        if (t instanceof Deadline) {
+            Deadline d = (Deadline) t;
+            remind = d.getBy().atTime(DEADLINE_REMINDER_TIME).atZone(zone).toInstant().toEpochMilli();
+            over = d.getBy().plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            over = e.getFrom().atZone(zone).toInstant().toEpochMilli();
+            remind = over - eventLead.toMillis();
+        } else {
+            return -1;
+        }
+        return nowMillis >= over ? -1 : Math.max(remind, nowMillis);
+    }
+
+    private static String message(Task t) {
+        if (t instanceof Event) {
+            return "Reminder! This event starts at " + ((Event) t).getFrom().format(HOUR_MINUTE) + ":\n" + t;
+        }
+        return "Reminder! This deadline is due today:\n" + t;
+    }
+
+    private enum Kind { ADD_ALL, ADD, REMOVE, DONE_CHANGED }
+
+    /** A change to apply on the reminder thread. */
+    private static final class Op {
+        final Kind kind;
+        final Task task;
+        final List<Task> tasks;
+        /** The task's done flag when the change was queued. */
+        final boolean done;
+
+        Op(Kind kind, Task task, List<Task> tasks, boolean done) {
+            this.kind = kind;
+            this.task = task;
+            this.tasks = tasks;
+            this.done = done;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package manbo.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timer wheel, after Varghese and Lauck.
+ * <p>
+ * Time is counted in ticks. There are {@link #LEVELS} wheels of {@link #SLOTS} slots; a
+ * timer goes into the lowest wheel whose span covers its distance from now, in the slot
+ * given by the matching bits of its expiry tick. Each slot is a doubly-linked ring, so
+ * scheduling and cancelling are O(1) whatever the number of pending timers. Each time a
+ * lower wheel wraps, the current slot of the wheel above is emptied and its timers move
+ * down, until they expire from the lowest wheel. With one-second ticks the wheels span
+ * about two thousand years; timers further out wait in the top wheel and are placed again
+ * each time it turns.
+ * <p>
+ * Instances are not thread-safe; {@link ReminderScheduler} drives one from a single thread.
+ *
+ * @param <T> the payload handed back when a timer expires
+ */
+final class TimerWheel<T> {
+    static final int BITS = 6;
+    static final int SLOTS = 1 << BITS;
+    static final int LEVELS = 6;
+    private static final int MASK = SLOTS - 1;
+
+    /** Furthest distance, in ticks, that the wheels can hold. */
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    /** A scheduled payload; also the ring node of the slot it sits in. */
+    static final class Timer<T> {
+        final long expires;
+        final T payload;
+        Timer<T> prev;
+        Timer<T> next;
+
+        Timer(long expires, T payload) {
+            this.expires = expires;
+            this.payload = payload;
+        }
+
+        /** @return whether the timer is waiting in a slot */
+        boolean isPending() {
+            return next != null;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+
+    private final long tickMillis;
+
+    /** Ring sentinels, {@code LEVELS * SLOTS} of them, level by level. */
+    private final Timer<T>[] slots;
+
+    /** Tick up to which every expired timer has been fired. */
+    private long current;
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis length of one tick; timers fire up to one tick late
+     * @param nowMillis  the current time, in milliseconds
+     */
+    TimerWheel(long tickMillis, long nowMillis) {
+        assert tickMillis > 0 : "Tick must be positive";
+        this.tickMillis = tickMillis;
+        this.current = nowMillis / tickMillis;
+        // Generic arrays cannot be created; every element is a Timer<T>, set just below
+        @SuppressWarnings("unchecked")
+        Timer<T>[] slots = (Timer<T>[]) new Timer<?>[LEVELS * SLOTS];
+        this.slots = slots;
+        for (int i = 0; i < slots.length; i++) {
+            Timer<T> sentinel = new Timer<>(0, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            slots[i] = sentinel;
+        }
+    }
+
+    /**
+     * Schedules {@code payload} to fire once {@code atMillis} has passed.
+     * A time already past fires on the next {@link #advanceTo}.
+     *
+     * @return the timer, for {@link #cancel}
+     */
+    Timer<T> schedule(long atMillis, T payload) {
+        // round up, so a timer never fires before its time
+        Timer<T> t = new Timer<>(Math.floorDiv(atMillis + tickMillis - 1, tickMillis), payload);
+        place(t, current + 1); // the current tick has already fired
+        size++;
+        return t;
+    }
+
+    /** Cancels {@code t}; does nothing if it already fired or was cancelled. */
+    void cancel(Timer<T> t) {
+        if (t.isPending()) {
+            t.unlink();
+            size--;
+        }
+    }
+
+    /** @return number of pending timers */
+    int size() {
+        return size;
+    }
+
+    /** @return length of one tick in milliseconds */
+    long tickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Fires, in order of expiry tick, every timer due by {@code nowMillis}.
+     *
+     * @param nowMillis the current time, in milliseconds
+     * @param fire      receives the payload of each expired timer
+     */
+    void advanceTo(long nowMillis, Consumer<T> fire) {
+        long target = nowMillis / tickMillis;
+        while (current < target) {
+            if (size == 0) {
+                current = target; // nothing can fire, so skip the empty ticks
+                return;
+            }
+            current++;
+            cascade();
+            fireSlot(slots[(int) (current & MASK)], fire);
+        }
+    }
+
+    /** Moves the timers of every upper wheel that has just turned one slot down a level. */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((current & ((1L << (BITS * level)) - 1)) != 0) {
+                return; // the wheel below has not wrapped
+            }
+            Timer<T> head = slots[level * SLOTS + (int) ((current >>> (BITS * level)) & MASK)];
+            while (head.next != head) {
+                Timer<T> t = head.next;
+                t.unlink();
+                place(t, current); // its slot fires right after the cascade
+            }
+        }
+    }
+
+    private void fireSlot(Timer<T> head, Consumer<T> fire) {
+        while (head.next != head) {
+            Timer<T> t = head.next;
+            t.unlink();
+            if (t.expires > current) {
+                place(t, current + 1); // beyond the top wheel's span when scheduled; not due yet
+                continue;
+            }
+            size--;
+            fire.accept(t.payload);
+        }
+    }
+
+    /** Links {@code t} into the slot for its expiry, or for {@code earliest} if that is later. */
+    private void place(Timer<T> t, long earliest) {
+        long at = Math.max(t.expires, earliest);
+        long delta = at - current;
+        if (delta >= SPAN) {
+            at = current + SPAN - 1; // park in the top wheel and place again when it turns
+            delta = SPAN - 1;
+        }
+        int level = 0;
+        while (delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        Timer<T> head = slots[level * SLOTS + (int) ((at >>> (BITS * level)) & MASK)];
+        t.prev = head.prev;
+        t.next = head;
+        head.prev.next = t;
+        head.prev = t;
+    }
+}
@@ -0,0 +1,132 @@
+package manbo.search;
+
+import manbo.task.Deadline;
+import manbo.task.Task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Open {@link Deadline}s of a task list, ordered by due date, for {@code upcoming} and
+ * {@code overdue}.
+ * <p>
+ * Open deadlines sit in a balanced search tree keyed by (due date, insertion number), and
+ * every deadline of the list, open or done, is found by identity through a side map. Adding,
+ * removing, marking and unmarking are O(log n). Both queries start from the first deadline
+ * due on or after a given day and walk outwards, so they cost O(log n + k) for k results.
+ * A plain min-heap would have to pop every overdue deadline before reaching the upcoming ones.
+ * Non-deadline tasks are ignored.
+ */
+public final class DeadlineQueue {
+    private static final Comparator<Entry> ORDER =
+            Comparator.<Entry, LocalDate>comparing(e -> e.by).thenComparingLong(e -> e.seq);
+
+    private final TreeSet<Entry> open = new TreeSet<>(ORDER);
+    private final Map<Task, Entry> entries = new IdentityHashMap<>();
+    private long nextSeq;
+
+    /**
+     * Builds a queue over the deadlines in {@code tasks}.
+     *
+     * @param tasks the tasks to index; non-deadlines are skipped
+     */
+    public DeadlineQueue(List<Task> tasks) {
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    /** Tracks {@code t} if it is a deadline, queueing it while it is not done. */
+    public void add(Task t) {
+        if (!(t instanceof Deadline) || entries.containsKey(t)) return;
+        Entry e = new Entry((Deadline) t, nextSeq++);
+        entries.put(t, e);
+        if (!t.ifDone()) {
+            open.add(e);
+        }
+    }
+
+    /** Forgets {@code t} if it is a tracked deadline. */
+    public void remove(Task t) {
+        Entry e = entries.remove(t);
+        if (e != null) {
+            open.remove(e);
+        }
+    }
+
+    /** Re-queues or dequeues {@code t} after its done flag has flipped. */
+    public void doneChanged(Task t) {
+        Entry e = entries.get(t);
+        if (e == null) return;
+        if (t.ifDone()) {
+            open.remove(e);
+        } else {
+            open.add(e);
+        }
+    }
+
+    /**
+     * Returns the open deadlines due on or after {@code today}, soonest first.
+     *
+     * @param today the first day to include
+     * @param n     the number of deadlines wanted at most
+     * @return up to {@code n} deadlines, by due date and then in the order they were added
+     */
+    public List<Deadline> upcoming(LocalDate today, int n) {
+        assert n >= 0 : "Count must not be negative";
+        List<Deadline> out = new ArrayList<>(Math.min(n, open.size()));
+        for (Entry e : open.tailSet(probe(today), true)) {
+            if (out.size() == n) break;
+            out.add(e.deadline);
+        }
+        return out;
+    }
+
+    /**
+     * Returns the open deadlines due before {@code today}, most overdue first.
+     *
+     * @param today the first day that is not overdue
+     * @return the overdue deadlines, by due date and then in the order they were added
+     */
+    public List<Deadline> overdue(LocalDate today) {
+        List<Deadline> out = new ArrayList<>();
+        for (Entry e : open.headSet(probe(today), false)) {
+            out.add(e.deadline);
+        }
+        return out;
+    }
+
+    /** @return number of deadlines not yet done */
+    public int openCount() {
+        return open.size();
+    }
+
+    /** @return a key that sorts before every entry due on {@code day} */
+    private static Entry probe(LocalDate day) {
+        return new Entry(day, Long.MIN_VALUE);
+    }
+
+    private static final class Entry {
+        final Deadline deadline;
+        final LocalDate by;
+        /** Insertion number; breaks ties between equal due dates. */
+        final long seq;
+
+        Entry(Deadline deadline, long seq) {
+            this.deadline = deadline;
+            this.by = deadline.getBy();
+            this.seq = seq;
+        }
+
+        private Entry(LocalDate by, long seq) {
+            this.deadline = null;
+            this.by = by;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package manbo.search;
+
+import manbo.task.Task;
+
+import java.util.Arrays;
+
+/**
+ * Maps the document ids of a search index to tasks and list positions.
+ * <p>
+ * Ids are handed out in increasing order as tasks are appended, so id order equals list
+ * order and posting lists built by appending stay sorted. A removed task leaves a
+ * tombstone; indexes drop tombstoned ids only when they are rebuilt.
+ */
+final class DocTable {
+    /** Tombstones tolerated before {@link #needsRebuild()} asks for a rebuild. */
+    private static final int MIN_DEAD_FOR_REBUILD = 1024;
+
+    /** Task of each document id; {@code null} once removed. */
+    private Task[] docs = new Task[16];
+
+    /** Document ids handed out so far. */
+    private int docCount;
+
+    /** Document id of each list position. */
+    private int[] docAt = new int[16];
+
+    /** Number of live documents, i.e. the length of the list. */
+    private int size;
+
+    /**
+     * Assigns the next document id to {@code t}, which has just been appended to the list.
+     *
+     * @return the new document id
+     */
+    int append(Task t) {
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docCount * 2);
+        }
+        if (size == docAt.length) {
+            docAt = Arrays.copyOf(docAt, size * 2);
+        }
+        int id = docCount++;
+        docs[id] = t;
+        docAt[size++] = id;
+        return id;
+    }
+
+    /** Tombstones the task at list position {@code index}, which has just been removed from the list. */
+    void remove(int index) {
+        assert index >= 0 && index < size : "Removed index out of range";
+        docs[docAt[index]] = null;
+        System.arraycopy(docAt, index + 1, docAt, index, size - 1 - index);
+        size--;
+    }
+
+    /**
+     * Tombstones the tasks at several list positions, which have just been removed from the
+     * list together, closing the gaps in one pass.
+     *
+     * @param positions the removed positions, ascending and distinct, as they were before the removal
+     */
+    void removeAll(int[] positions) {
+        if (positions.length == 0) return;
+        int w = positions[0];
+        int p = 0;
+        for (int r = positions[0]; r < size; r++) {
+            if (p < positions.length && positions[p] == r) {
+                docs[docAt[r]] = null;
+                p++;
+            } else {
+                docAt[w++] = docAt[r];
+            }
+        }
+        assert p == positions.length : "Removed position out of range";
+        size = w;
+    }
+
+    /** @return the task with document id {@code id}, or {@code null} if it was removed */
+    Task get(int id) {
+        return docs[id];
+    }
+
+    /** @return number of document ids handed out, including tombstones */
+    int docCount() {
+        return docCount;
+    }
+
+    /** @return number of live tasks */
+    int size() {
+        return size;
+    }
+
+    /** @return {@code true} once tombstones outnumber live tasks and a fresh index would be smaller and faster */
+    boolean needsRebuild() {
+        int dead = docCount - size;
+        return dead > MIN_DEAD_FOR_REBUILD && dead > size;
+    }
+
+    /** @return approximate heap bytes used by the table */
+    long memoryBytes() {
+        return 4L * docs.length + 4L * docAt.length;
+    }
+}
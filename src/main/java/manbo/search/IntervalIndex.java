@@ -0,0 +1,217 @@
+package manbo.search;
+
+import manbo.task.Event;
+import manbo.task.Task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interval tree over the {@link Event}s of a task list, for "what is on between X and Y"
+ * and overlap queries.
+ * <p>
+ * Events are kept in a treap ordered by start time, where every node also stores the latest
+ * end time in its subtree. A window query skips every subtree that ends before the window or
+ * starts after it, and walks the rest in order, so results come out sorted by start time.
+ * For calendars whose events do not nest deeply this visits O(log n + k) nodes for k results.
+ * Non-event tasks are ignored, and events are found by identity, so their list position
+ * does not matter.
+ */
+public final class IntervalIndex {
+    private Node root;
+    private final Map<Task, Node> nodes = new IdentityHashMap<>();
+    private long nextSeq;
+
+    /**
+     * Builds an index over the events in {@code tasks}.
+     *
+     * @param tasks the tasks to index; non-events are skipped
+     */
+    public IntervalIndex(List<Task> tasks) {
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    /** Indexes {@code t} if it is an event. */
+    public void add(Task t) {
+        if (!(t instanceof Event) || nodes.containsKey(t)) return;
+        Node x = new Node((Event) t, nextSeq++);
+        nodes.put(t, x);
+        root = insert(root, x);
+    }
+
+    /** Forgets {@code t} if it is an indexed event. */
+    public void remove(Task t) {
+        Node x = nodes.remove(t);
+        if (x != null) {
+            root = delete(root, x);
+        }
+    }
+
+    /** @return number of indexed events */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Finds the events that overlap the closed window {@code [from, to]}.
+     *
+     * @param from start of the window
+     * @param to   end of the window
+     * @return the overlapping events, ordered by start time
+     */
+    public List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Node> window = new ArrayList<>();
+        collectNodes(root, minute(from), minute(to), window);
+        List<Event> out = new ArrayList<>(window.size());
+        for (Node x : window) {
+            out.add(x.event);
+        }
+        return out;
+    }
+
+    /**
+     * Finds every pair of events within the window whose times overlap. Back-to-back events,
+     * where one ends exactly when the next starts, do not conflict.
+     *
+     * @param from start of the window, or {@code null} for no lower bound
+     * @param to   end of the window, or {@code null} for no upper bound
+     * @return conflicting pairs, each ordered by start time, in order of their first event
+     */
+    public List<Event[]> conflicts(LocalDateTime from, LocalDateTime to) {
+        List<Node> window = new ArrayList<>();
+        collectNodes(root, from == null ? Long.MIN_VALUE : minute(from),
+                to == null ? Long.MAX_VALUE : minute(to), window);
+
+        // Sorted by start, so every later event starting before this one ends overlaps it
+        List<Event[]> pairs = new ArrayList<>();
+        for (int i = 0; i < window.size(); i++) {
+            Node a = window.get(i);
+            for (int j = i + 1; j < window.size() && window.get(j).start < a.end; j++) {
+                Node b = window.get(j);
+                if (a.start < b.end) {
+                    pairs.add(new Event[] { a.event, b.event });
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static void collectNodes(Node n, long from, long to, List<Node> out) {
+        if (n == null || n.maxEnd < from) return; // everything below ends before the window
+        collectNodes(n.left, from, to, out);
+        if (n.start > to) return; // this node and its right subtree start after the window
+        if (n.end >= from) {
+            out.add(n);
+        }
+        collectNodes(n.right, from, to, out);
+    }
+
+    // ===== Treap maintenance =====
+
+    private static Node insert(Node n, Node x) {
+        if (n == null) return x;
+        if (x.before(n)) {
+            n.left = insert(n.left, x);
+            if (n.left.priority > n.priority) n = rotateRight(n);
+        } else {
+            n.right = insert(n.right, x);
+            if (n.right.priority > n.priority) n = rotateLeft(n);
+        }
+        n.pull();
+        return n;
+    }
+
+    private static Node delete(Node n, Node x) {
+        assert n != null : "Indexed event missing from tree";
+        if (n == x) {
+            return merge(n.left, n.right);
+        }
+        if (x.before(n)) {
+            n.left = delete(n.left, x);
+        } else {
+            n.right = delete(n.right, x);
+        }
+        n.pull();
+        return n;
+    }
+
+    /** Joins two treaps where every node of {@code a} comes before every node of {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.pull();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.pull();
+        return b;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        n.pull();
+        l.pull();
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        n.pull();
+        r.pull();
+        return r;
+    }
+
+    private static long minute(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static final class Node {
+        final Event event;
+        final long start;
+        final long end;
+        /** Insertion number; breaks ties between equal start times. */
+        final long seq;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(Event event, long seq) {
+            this.event = event;
+            this.start = minute(event.getFrom());
+            this.end = Math.max(start, minute(event.getTo())); // tolerate an end before the start
+            this.seq = seq;
+            this.priority = mix(seq);
+            this.maxEnd = end;
+        }
+
+        boolean before(Node o) {
+            return start < o.start || (start == o.start && seq < o.seq);
+        }
+
+        void pull() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) maxEnd = left.maxEnd;
+            if (right != null && right.maxEnd > maxEnd) maxEnd = right.maxEnd;
+        }
+
+        /** Deterministic pseudo-random priority, so tree shape does not depend on a shared RNG. */
+        private static int mix(long seq) {
+            long z = seq * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            return (int) (z ^ (z >>> 31));
+        }
+    }
+}
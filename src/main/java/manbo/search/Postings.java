@@ -0,0 +1,28 @@
+package manbo.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/** Ascending, duplicate-free document ids of one search key. */
+final class Postings {
+    int[] ids = new int[2];
+    int size;
+
+    void add(int id) {
+        if (size > 0 && ids[size - 1] == id) return; // key repeated in one description
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    void addTo(BitSet set) {
+        for (int k = 0; k < size; k++) {
+            set.set(ids[k]);
+        }
+    }
+
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+}
@@ -0,0 +1,128 @@
+package manbo.search;
+
+import manbo.task.Task;
+
+/**
+ * Map from positive task id to task, using open addressing over primitive {@code long} keys.
+ * <p>
+ * Keys and values live in two parallel arrays probed linearly from a mixed hash of the id,
+ * so a lookup touches one or two cache lines and nothing is boxed. Removal shifts the
+ * following entries of the probe run back instead of leaving tombstones, so lookups stay
+ * O(1) however many tasks come and go. The table doubles once it is half full.
+ */
+public final class TaskIdMap {
+    /** Marks an empty slot; valid ids are positive. */
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private Task[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates a map sized for {@code expected} entries.
+     *
+     * @param expected number of entries expected, used to avoid early resizing
+     */
+    public TaskIdMap(int expected) {
+        int cap = 16;
+        while (cap < expected * 2) {
+            cap <<= 1;
+        }
+        keys = new long[cap];
+        values = new Task[cap];
+        mask = cap - 1;
+    }
+
+    /** @return the task with {@code id}, or {@code null} if there is none */
+    public Task get(long id) {
+        if (id == EMPTY) return null;
+        for (int i = slot(id); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == id) return values[i];
+            if (k == EMPTY) return null;
+        }
+    }
+
+    /**
+     * Maps {@code id} to {@code t}, replacing any earlier task with that id.
+     *
+     * @param id a positive id
+     * @param t  the task
+     */
+    public void put(long id, Task t) {
+        assert id > 0 : "Task ids must be positive";
+        assert t != null : "Task must not be null";
+        int i = slot(id);
+        while (keys[i] != EMPTY && keys[i] != id) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) {
+            keys[i] = id;
+            if (++size * 2 > keys.length) {
+                values[i] = t;
+                grow();
+                return;
+            }
+        }
+        values[i] = t;
+    }
+
+    /**
+     * Removes the entry for {@code id}.
+     *
+     * @return the task that had {@code id}, or {@code null} if there was none
+     */
+    public Task remove(long id) {
+        if (id == EMPTY) return null;
+        int i = slot(id);
+        while (keys[i] != id) {
+            if (keys[i] == EMPTY) return null;
+            i = (i + 1) & mask;
+        }
+        Task old = values[i];
+        // Pull later entries of the run back into the gap, unless that would move them
+        // before their home slot
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return old;
+    }
+
+    /** @return number of entries */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Task[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Task[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private int slot(long id) {
+        long z = id * 0x9E3779B97F4A7C15L;
+        return (int) (z ^ (z >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,185 @@
+package manbo.search;
+
+import manbo.task.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Substring index over lower-cased task descriptions, keyed by every run of three characters.
+ * <p>
+ * A description containing the keyword contains every trigram of the keyword, so intersecting
+ * the posting lists of the keyword's trigrams yields a superset of the matches. Each candidate
+ * is then confirmed with the same {@code contains} check a linear scan would use, so results
+ * are identical to a scan. Keywords shorter than three characters cannot be answered.
+ * <p>
+ * Memory is bounded in two ways. Descriptions with more than {@link #MAX_GRAMS_PER_TASK}
+ * trigrams, and any task added once the index holds its cap of posting entries, are not broken into trigrams; they are kept on an overflow list and checked on every
+ * query. The index therefore degrades towards a scan of those tasks rather than growing without limit.
+ */
+public final class TrigramIndex {
+    /** Length of the indexed character runs. */
+    public static final int GRAM = 3;
+
+    /** Trigrams indexed per task at most; longer descriptions go to the overflow list. */
+    static final int MAX_GRAMS_PER_TASK = 256;
+
+    /** Default cap on posting entries across all trigrams (about 16 MiB of ids). */
+    private static final long DEFAULT_MAX_POSTINGS = 4L << 20;
+
+    /** Rough heap cost of one map entry with its boxed key and {@link Postings} header. */
+    private static final int BYTES_PER_GRAM = 96;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final DocTable docs = new DocTable();
+
+    /** Ascending ids of tasks that were not broken into trigrams. */
+    private final Postings overflow = new Postings();
+
+    private final long maxPostings;
+    private long postingCount;
+
+    /**
+     * Builds an index over {@code tasks}, in list order.
+     *
+     * @param tasks the tasks to index
+     */
+    public TrigramIndex(List<Task> tasks) {
+        this(tasks, DEFAULT_MAX_POSTINGS);
+    }
+
+    /**
+     * Builds an index over {@code tasks} holding at most {@code maxPostings} posting entries.
+     *
+     * @param tasks       the tasks to index
+     * @param maxPostings cap on posting entries; tasks beyond it are scanned instead
+     */
+    public TrigramIndex(List<Task> tasks, long maxPostings) {
+        assert maxPostings >= 0 : "Posting cap must not be negative";
+        this.maxPostings = maxPostings;
+        for (Task t : tasks) {
+            append(t);
+        }
+    }
+
+    /** Indexes {@code t}, which has just been appended to the end of the list. */
+    public void append(Task t) {
+        int id = docs.append(t);
+        String desc = t.getDescription().toLowerCase(Locale.ROOT);
+        int grams = Math.max(0, desc.length() - GRAM + 1);
+        if (grams > MAX_GRAMS_PER_TASK || postingCount + grams > maxPostings) {
+            overflow.add(id);
+            return;
+        }
+        for (int i = 0; i < grams; i++) {
+            Postings p = postings.computeIfAbsent(key(desc, i), k -> new Postings());
+            int before = p.size;
+            p.add(id);
+            postingCount += p.size - before;
+        }
+    }
+
+    /** Forgets the task at list position {@code index}, which has just been removed from the list. */
+    public void remove(int index) {
+        docs.remove(index);
+    }
+
+    /**
+     * Forgets the tasks at several list positions, which have just been removed together.
+     *
+     * @param positions the removed positions, ascending and distinct, as they were before the removal
+     */
+    public void removeAll(int[] positions) {
+        docs.removeAll(positions);
+    }
+
+    /** @return {@code true} once removed tasks outnumber live ones and the index should be rebuilt */
+    public boolean needsRebuild() {
+        return docs.needsRebuild();
+    }
+
+    /**
+     * Finds the tasks whose lower-cased description contains {@code keyword}.
+     *
+     * @param keyword the lower-cased, trimmed search text, at least {@link #GRAM} characters long
+     * @return matching tasks in list order
+     */
+    public List<Task> find(String keyword) {
+        assert keyword.length() >= GRAM : "Keyword too short for a trigram lookup";
+        List<Postings> lists = new ArrayList<>();
+        boolean missing = false;
+        for (int i = 0; i + GRAM <= keyword.length() && !missing; i++) {
+            Postings p = postings.get(key(keyword, i));
+            if (p == null) {
+                missing = true; // only overflow tasks can still match
+            } else {
+                lists.add(p);
+            }
+        }
+
+        List<Task> matches = new ArrayList<>();
+        int o = 0;
+        if (!missing) {
+            lists.sort(Comparator.comparingInt(p -> p.size));
+            Postings driver = lists.get(0);
+            for (int k = 0; k < driver.size; k++) {
+                int id = driver.ids[k];
+                boolean inAll = true;
+                for (int j = 1; j < lists.size() && inAll; j++) {
+                    inAll = lists.get(j).contains(id);
+                }
+                if (!inAll) continue;
+                // merge in overflow tasks that come earlier in the list
+                for (; o < overflow.size && overflow.ids[o] < id; o++) {
+                    collect(overflow.ids[o], keyword, matches);
+                }
+                collect(id, keyword, matches);
+            }
+        }
+        for (; o < overflow.size; o++) {
+            collect(overflow.ids[o], keyword, matches);
+        }
+        return matches;
+    }
+
+    private void collect(int id, String keyword, List<Task> matches) {
+        Task t = docs.get(id);
+        if (t != null && t.getDescription().toLowerCase(Locale.ROOT).contains(keyword)) {
+            matches.add(t);
+        }
+    }
+
+    /** @return number of distinct trigrams indexed */
+    public int gramCount() {
+        return postings.size();
+    }
+
+    /** @return number of tasks checked on every query because they were not broken into trigrams */
+    public int overflowCount() {
+        return overflow.size;
+    }
+
+    /** @return approximate heap bytes used by the index */
+    public long memoryBytes() {
+        long bytes = (long) BYTES_PER_GRAM * postings.size() + docs.memoryBytes() + 4L * overflow.ids.length;
+        for (Postings p : postings.values()) {
+            bytes += 4L * p.ids.length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d trigrams, %d postings, ~%d KiB (%d tasks unindexed)",
+                gramCount(), postingCount, memoryBytes() / 1024, overflowCount());
+    }
+
+    /** Packs the three characters at {@code i} into one key. */
+    private static Long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
@@ -0,0 +1,209 @@
+package manbo.search;
+
+import manbo.task.Task;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from lower-cased words to the tasks whose descriptions contain them.
+ * <p>
+ * A word is a maximal run of letters and digits. Tasks are numbered by a {@link DocTable},
+ * so posting lists stay sorted and document order equals list order.
+ * <p>
+ * {@link #find(String)} keeps the exact substring semantics of a linear
+ * {@code description.contains(keyword)} scan. Query words enclosed by separators must be
+ * whole words and are looked up directly; the first and last query word may be cut off
+ * by the match, so they are resolved as a prefix or suffix range of the sorted vocabulary.
+ * Only a single-word query, which may sit anywhere inside a word, scans the vocabulary
+ * (distinct words, not tasks). Posting lists are intersected, and multi-word candidates are confirmed
+ * against the full description.
+ */
+public final class WordIndex {
+    /** Posting list of every word, sorted by word so prefixes are a range. */
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+
+    /** The same posting lists keyed by reversed word, so suffixes are a range too. */
+    private final TreeMap<String, Postings> reversed = new TreeMap<>();
+
+    private final DocTable docs = new DocTable();
+
+    /**
+     * Builds an index over {@code tasks}, in list order.
+     *
+     * @param tasks the tasks to index
+     */
+    public WordIndex(List<Task> tasks) {
+        for (Task t : tasks) {
+            append(t);
+        }
+    }
+
+    /** Indexes {@code t}, which has just been appended to the end of the list. */
+    public void append(Task t) {
+        int id = docs.append(t);
+
+        String desc = t.getDescription().toLowerCase(Locale.ROOT);
+        int i = 0;
+        int n = desc.length();
+        while (i < n) {
+            while (i < n && !isWordChar(desc.codePointAt(i))) {
+                i += Character.charCount(desc.codePointAt(i));
+            }
+            int start = i;
+            while (i < n && isWordChar(desc.codePointAt(i))) {
+                i += Character.charCount(desc.codePointAt(i));
+            }
+            if (i > start) {
+                String word = desc.substring(start, i);
+                Postings p = postings.get(word);
+                if (p == null) {
+                    p = new Postings();
+                    postings.put(word, p);
+                    reversed.put(reverse(word), p);
+                }
+                p.add(id);
+            }
+        }
+    }
+
+    /** Forgets the task at list position {@code index}, which has just been removed from the list. */
+    public void remove(int index) {
+        docs.remove(index);
+    }
+
+    /**
+     * Forgets the tasks at several list positions, which have just been removed together.
+     *
+     * @param positions the removed positions, ascending and distinct, as they were before the removal
+     */
+    public void removeAll(int[] positions) {
+        docs.removeAll(positions);
+    }
+
+    /** @return {@code true} once removed tasks outnumber live ones and the index should be rebuilt */
+    public boolean needsRebuild() {
+        return docs.needsRebuild();
+    }
+
+    /**
+     * Finds the tasks whose lower-cased description contains {@code keyword}.
+     *
+     * @param keyword the lower-cased, trimmed search text
+     * @return matching tasks in list order, or {@code null} if the keyword has no letters
+     *         or digits, or is a single word and the vocabulary is too large to scan cheaply;
+     *         the caller then scans the tasks
+     */
+    public List<Task> find(String keyword) {
+        List<Postings> exact = new ArrayList<>();
+        BitSet partial = null;
+        int words = 0;
+        boolean wholeKeyword = false;
+
+        int n = keyword.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !isWordChar(keyword.codePointAt(i))) {
+                i += Character.charCount(keyword.codePointAt(i));
+            }
+            int start = i;
+            while (i < n && isWordChar(keyword.codePointAt(i))) {
+                i += Character.charCount(keyword.codePointAt(i));
+            }
+            if (i == start) break;
+            words++;
+            String word = keyword.substring(start, i);
+            boolean openLeft = start == 0;
+            boolean openRight = i == n;
+            wholeKeyword = openLeft && openRight;
+
+            if (!openLeft && !openRight) {
+                Postings p = postings.get(word);
+                if (p == null) return new ArrayList<>();
+                exact.add(p);
+            } else if (openLeft && openRight && postings.size() >= docs.size()) {
+                return null; // vocabulary is no smaller than the list, so scanning tasks is cheaper
+            } else {
+                BitSet docsWithWord = scanVocabulary(word, openLeft, openRight);
+                if (partial == null) {
+                    partial = docsWithWord;
+                } else {
+                    partial.and(docsWithWord);
+                }
+                if (partial.isEmpty()) return new ArrayList<>();
+            }
+        }
+        if (words == 0) {
+            return null;
+        }
+
+        List<Task> matches = new ArrayList<>();
+        if (exact.isEmpty()) {
+            for (int id = partial.nextSetBit(0); id >= 0; id = partial.nextSetBit(id + 1)) {
+                collect(id, keyword, !wholeKeyword, matches);
+            }
+            return matches;
+        }
+
+        exact.sort(Comparator.comparingInt(p -> p.size));
+        Postings driver = exact.get(0);
+        for (int k = 0; k < driver.size; k++) {
+            int id = driver.ids[k];
+            if (partial != null && !partial.get(id)) continue;
+            boolean inAll = true;
+            for (int j = 1; j < exact.size() && inAll; j++) {
+                inAll = exact.get(j).contains(id);
+            }
+            if (inAll) {
+                collect(id, keyword, true, matches);
+            }
+        }
+        return matches;
+    }
+
+    /** Adds the live task {@code id} to {@code matches}, optionally confirming the full keyword first. */
+    private void collect(int id, String keyword, boolean verify, List<Task> matches) {
+        Task t = docs.get(id);
+        if (t == null) return;
+        if (verify && !t.getDescription().toLowerCase(Locale.ROOT).contains(keyword)) return;
+        matches.add(t);
+    }
+
+    /**
+     * Unions the posting lists of every indexed word that can hold {@code word} at the given edge
+     * of a match: as a prefix if only the right side is open, as a suffix if only the left side
+     * is open, and anywhere if both are. Prefixes and suffixes are ranges of the sorted
+     * vocabularies; only the last case scans every distinct word.
+     */
+    private BitSet scanVocabulary(String word, boolean openLeft, boolean openRight) {
+        BitSet found = new BitSet(docs.docCount());
+        if (openLeft && openRight) {
+            for (Map.Entry<String, Postings> e : postings.entrySet()) {
+                if (e.getKey().contains(word)) {
+                    e.getValue().addTo(found);
+                }
+            }
+            return found;
+        }
+        String key = openRight ? word : reverse(word);
+        TreeMap<String, Postings> vocabulary = openRight ? postings : reversed;
+        for (Map.Entry<String, Postings> e : vocabulary.tailMap(key, true).entrySet()) {
+            if (!e.getKey().startsWith(key)) break;
+            e.getValue().addTo(found);
+        }
+        return found;
+    }
+
+    private static String reverse(String word) {
+        return new StringBuilder(word).reverse().toString(); // keeps surrogate pairs intact
+    }
+
+    private static boolean isWordChar(int codePoint) {
+        return Character.isLetterOrDigit(codePoint);
+    }
+}
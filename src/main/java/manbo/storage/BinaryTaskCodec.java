@@ -0,0 +1,337 @@
+package manbo.storage;
+
+import manbo.task.Deadline;
+import manbo.task.Event;
+import manbo.task.Task;
+import manbo.task.Todo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the compact binary task file format.
+ * <p>
+ * Layout (all numbers big-endian):
+ * <pre>
+ *   header : int magic (0x894D4E42, "\x89MNB") | short version | int task count
+ *   record : byte tag ('T', 'D' or 'E') | byte done (0/1)
+ *            | int length | length bytes of UTF-8 description
+ *            | D: long epoch day
+ *            | E: long from epoch minute | long to epoch minute
+ *            | long id (0 if none; version 2 on)
+ * </pre>
+ * Dates are stored as plain numbers, so decoding a task needs no text parsing.
+ * The magic's first byte is not valid ASCII, which keeps binary files
+ * distinguishable from the pipe-delimited text format.
+ */
+final class BinaryTaskCodec {
+    /** File signature; the leading 0x89 never starts a text-format line. */
+    static final int MAGIC = 0x894D4E42;
+
+    /** Current format version, bumped whenever the record layout changes. */
+    static final short VERSION = 2;
+
+    /** Oldest version that can still be read: records without ids. */
+    static final short FIRST_VERSION = 1;
+
+    /** Size of the file header: magic, version and task count. */
+    static final int HEADER_BYTES = 4 + 2 + 4;
+
+    /** Size of the fixed part of a record: tag, done flag and description length. */
+    private static final int RECORD_PREFIX_BYTES = 1 + 1 + 4;
+
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+
+    private BinaryTaskCodec() { } // static helpers only
+
+    /**
+     * Tells whether the first bytes of a file carry the binary magic.
+     *
+     * @param head the first bytes of the file (may be shorter than 4)
+     * @param len  number of valid bytes in {@code head}
+     * @return {@code true} if the file is in binary format
+     */
+    static boolean hasMagic(byte[] head, int len) {
+        if (len < 4) return false;
+        int m = ((head[0] & 0xFF) << 24) | ((head[1] & 0xFF) << 16) | ((head[2] & 0xFF) << 8) | (head[3] & 0xFF);
+        return m == MAGIC;
+    }
+
+    /** Offset of the task count within the header. */
+    static final int COUNT_OFFSET = 4 + 2;
+
+    /** Offset of the done flag within a record. */
+    static final int DONE_FLAG_OFFSET = 1;
+
+    /**
+     * Writes {@code tasks} in binary format.
+     *
+     * @param tasks   the tasks to write
+     * @param out     destination stream; buffered by the caller
+     * @param offsets if not {@code null}, receives the file offset of every record's done flag
+     * @throws IOException if writing fails
+     */
+    static void write(List<Task> tasks, OutputStream out, RecordOffsets offsets) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(tasks.size());
+        for (Task t : tasks) {
+            if (offsets != null) {
+                offsets.add(data.size() + DONE_FLAG_OFFSET);
+            }
+            writeTask(t, data);
+            t.clearDirty();
+        }
+        data.flush();
+    }
+
+    /**
+     * Encodes a single record, e.g. to append it to an existing file.
+     *
+     * @param t the task to encode
+     * @return the record bytes
+     */
+    static byte[] encode(Task t) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeTask(t, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen for an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeTask(Task t, DataOutputStream data) throws IOException {
+        data.writeByte(tagOf(t));
+        data.writeByte(t.ifDone() ? 1 : 0);
+        byte[] desc = t.getDescription().getBytes(StandardCharsets.UTF_8);
+        data.writeInt(desc.length);
+        data.write(desc);
+        if (t instanceof Deadline) {
+            data.writeLong(((Deadline) t).getBy().toEpochDay());
+        } else if (t instanceof Event) {
+            data.writeLong(toEpochMinute(((Event) t).getFrom()));
+            data.writeLong(toEpochMinute(((Event) t).getTo()));
+        }
+        data.writeLong(t.getId());
+    }
+
+    private static byte tagOf(Task t) {
+        if (t instanceof Deadline) return DEADLINE;
+        if (t instanceof Event) return EVENT;
+        assert t instanceof Todo : "Unknown task type: " + t.getClass();
+        return TODO;
+    }
+
+    /**
+     * Reads tasks written by {@link #write(List, OutputStream, RecordOffsets)}.
+     * A truncated file yields the tasks that were complete before the cut.
+     * The task count and record lengths are checked against {@code size}, so a corrupt
+     * header cannot make the reader allocate more than the file holds.
+     *
+     * @param in   source stream positioned at the magic; buffered by the caller
+     * @param size number of bytes in the file
+     * @return the decoded tasks
+     * @throws IOException if the header or a record is invalid, or reading fails
+     */
+    static List<Task> read(InputStream in, long size) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a binary task file");
+        }
+        short version = data.readShort();
+        if (!isSupported(version)) {
+            throw new IOException("Unsupported binary task file version " + version);
+        }
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt binary task file: task count " + count);
+        }
+        long remaining = size - HEADER_BYTES;
+        // A truncated file may hold fewer records than its count says
+        long fits = Math.max(0, remaining / recordLength(TODO, 0, version));
+        List<Task> tasks = new ArrayList<>((int) Math.min(count, fits));
+        try {
+            for (int i = 0; i < count; i++) {
+                remaining -= readTask(data, version, remaining, tasks);
+            }
+        } catch (EOFException e) {
+            // Truncated file → keep what was complete
+        }
+        return tasks;
+    }
+
+    /** @return whether files of {@code version} can be read */
+    static boolean isSupported(short version) {
+        return version >= FIRST_VERSION && version <= VERSION;
+    }
+
+    /**
+     * Reads one record and adds its task to {@code tasks}.
+     *
+     * @param remaining bytes left in the file, which the record must fit in
+     * @return the length of the record read
+     * @throws EOFException if the record runs past the end of the file
+     * @throws IOException  if the record is corrupt or reading fails
+     */
+    private static long readTask(DataInputStream data, short version, long remaining, List<Task> tasks)
+            throws IOException {
+        byte tag = data.readByte();
+        boolean done = data.readByte() != 0;
+        int len = data.readInt();
+        if (len < 0) {
+            throw new IOException("Corrupt binary task record: description length " + len);
+        }
+        long length = recordLength(tag, len, version);
+        if (length < 0) {
+            throw new IOException("Unknown task tag " + tag);
+        }
+        if (length > remaining) {
+            throw new EOFException();
+        }
+        byte[] desc = new byte[len];
+        data.readFully(desc);
+        String description = new String(desc, StandardCharsets.UTF_8);
+
+        Task t;
+        try {
+            switch (tag) {
+                case DEADLINE:
+                    t = new Deadline(description, LocalDate.ofEpochDay(data.readLong()), done);
+                    break;
+                case EVENT: {
+                    LocalDateTime from = fromEpochMinute(data.readLong());
+                    LocalDateTime to = fromEpochMinute(data.readLong());
+                    t = new Event(description, from, to, done);
+                    break;
+                }
+                default:
+                    t = new Todo(description, done);
+                    break;
+            }
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new IOException("Corrupt binary task record: " + e.getMessage(), e);
+        }
+        if (version >= 2) {
+            setId(t, data.readLong());
+        }
+        tasks.add(t);
+        return length;
+    }
+
+    /**
+     * @param tag     the record's task tag
+     * @param len     length of the record's description in bytes
+     * @param version the file's format version
+     * @return the length of the whole record, or -1 if the tag is unknown
+     */
+    private static long recordLength(byte tag, int len, short version) {
+        long length = RECORD_PREFIX_BYTES + (long) len;
+        switch (tag) {
+            case TODO: break;
+            case DEADLINE: length += 8; break;
+            case EVENT: length += 16; break;
+            default: return -1;
+        }
+        if (version >= 2) {
+            length += 8; // id
+        }
+        return length;
+    }
+
+    private static void setId(Task t, long id) {
+        if (id > 0) {
+            t.setId(id);
+        }
+    }
+
+    /**
+     * Returns the position just past the record starting at {@code pos},
+     * without decoding it. Used to build an offset index over a mapped file.
+     *
+     * @param buf     the whole file
+     * @param pos     start of a record
+     * @param version the file's format version
+     * @return start of the next record, or -1 if the record is truncated or has an unknown tag
+     */
+    static int skipRecord(ByteBuffer buf, int pos, short version) {
+        if (pos + RECORD_PREFIX_BYTES > buf.limit()) return -1;
+        int len = buf.getInt(pos + 2);
+        if (len < 0) return -1;
+        long length = recordLength(buf.get(pos), len, version);
+        if (length < 0) return -1;
+        long end = pos + length;
+        return end <= buf.limit() ? (int) end : -1;
+    }
+
+    /**
+     * Decodes the record starting at {@code pos}, which must have been
+     * validated by {@link #skipRecord(ByteBuffer, int, short)}.
+     *
+     * @param buf     the whole file
+     * @param pos     start of the record
+     * @param version the file's format version
+     * @return the decoded task
+     * @throws IOException if a date in the record is out of range
+     */
+    static Task decode(ByteBuffer buf, int pos, short version) throws IOException {
+        byte tag = buf.get(pos);
+        boolean done = buf.get(pos + 1) != 0;
+        int len = buf.getInt(pos + 2);
+        byte[] desc = new byte[len];
+        buf.get(pos + RECORD_PREFIX_BYTES, desc);
+        String description = new String(desc, StandardCharsets.UTF_8);
+        int datePos = pos + RECORD_PREFIX_BYTES + len;
+
+        Task t;
+        int idPos;
+        try {
+            switch (tag) {
+                case DEADLINE:
+                    t = new Deadline(description, LocalDate.ofEpochDay(buf.getLong(datePos)), done);
+                    idPos = datePos + 8;
+                    break;
+                case EVENT:
+                    t = new Event(description, fromEpochMinute(buf.getLong(datePos)),
+                            fromEpochMinute(buf.getLong(datePos + 8)), done);
+                    idPos = datePos + 16;
+                    break;
+                default:
+                    t = new Todo(description, done);
+                    idPos = datePos;
+                    break;
+            }
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new IOException("Corrupt binary task record: " + e.getMessage(), e);
+        }
+        if (version >= 2) {
+            setId(t, buf.getLong(idPos));
+        }
+        return t;
+    }
+
+    private static long toEpochMinute(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDateTime fromEpochMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(Math.multiplyExact(minute, 60), 0, ZoneOffset.UTC);
+    }
+}
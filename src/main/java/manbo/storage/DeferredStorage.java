@@ -0,0 +1,78 @@
+package manbo.storage;
+
+import manbo.task.Task;
+
+import java.util.List;
+
+/**
+ * A {@link Storage} that holds back every save until {@link #commit(List)}, for batch runs.
+ * <p>
+ * Saves and per-mutation hooks only note that the tasks have changed; nothing touches the
+ * disk, the journal included. {@link #commit(List)} then writes the final list once through
+ * the storage it wraps, so a batch of n commands costs one rewrite instead of n. If the batch
+ * is abandoned instead, the file is left exactly as it was before the batch started.
+ */
+public class DeferredStorage extends Storage {
+    private final Storage target;
+
+    /** Whether any save has been held back since the last commit. */
+    private boolean dirty;
+
+    /**
+     * Creates a deferred view of {@code target}, sharing its file.
+     *
+     * @param target the storage that {@link #commit(List)} writes through
+     */
+    public DeferredStorage(Storage target) {
+        super(target.path());
+        this.target = target;
+    }
+
+    /** @return whether there are held-back changes that {@link #commit(List)} would write */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Saves {@code tasks} through the wrapped storage if anything changed since the last
+     * commit. Like any save, it may still be in flight for a write-behind storage until
+     * that storage is flushed.
+     *
+     * @param tasks the final tasks
+     * @return whether anything was saved
+     */
+    public boolean commit(List<Task> tasks) {
+        assert tasks != null : "Tasks list must not be null";
+        if (!dirty) {
+            return false;
+        }
+        target.save(tasks);
+        dirty = false;
+        return true;
+    }
+
+    @Override
+    public void saveAdded(List<Task> tasks, Task added) {
+        dirty = true;
+    }
+
+    @Override
+    public void saveUpdated(List<Task> tasks, int index) {
+        dirty = true;
+    }
+
+    @Override
+    public void saveRemoved(List<Task> tasks, int index, Task removed) {
+        dirty = true;
+    }
+
+    @Override
+    public void checkpoint(List<Task> tasks) {
+        dirty = true;
+    }
+
+    @Override
+    public void save(List<Task> tasks) {
+        dirty = true;
+    }
+}
@@ -0,0 +1,91 @@
+package manbo.storage;
+
+/**
+ * Decides when {@link Storage} forces written data to the disk.
+ * <p>
+ * Forcing makes a save survive power loss but costs a disk round trip,
+ * so the policy trades durability for latency:
+ * <ul>
+ *     <li>{@link #always()}: force after every write</li>
+ *     <li>{@link #everyMillis(long)}: force at most once per interval; a write that is not
+ *     forced straight away is forced once the interval has passed</li>
+ *     <li>{@link #never()}: leave it to the operating system</li>
+ * </ul>
+ */
+public final class FsyncPolicy {
+    private static final long ALWAYS = 0;
+    private static final long NEVER = -1;
+
+    /** Minimum gap between two forced writes in milliseconds; 0 = always, -1 = never. */
+    private final long intervalMillis;
+
+    private FsyncPolicy(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    /** @return a policy that forces every write */
+    public static FsyncPolicy always() {
+        return new FsyncPolicy(ALWAYS);
+    }
+
+    /** @return a policy that never forces writes */
+    public static FsyncPolicy never() {
+        return new FsyncPolicy(NEVER);
+    }
+
+    /**
+     * @param millis minimum time between forced writes (must be positive)
+     * @return a policy that forces a write if the last force is at least {@code millis} old
+     */
+    public static FsyncPolicy everyMillis(long millis) {
+        assert millis > 0 : "Fsync interval must be positive";
+        return new FsyncPolicy(millis);
+    }
+
+    /**
+     * Parses a policy from {@code "always"}, {@code "never"} or a number of milliseconds.
+     *
+     * @param s the policy string (case-insensitive)
+     * @return the parsed policy, or {@link #always()} if {@code s} is not recognised
+     */
+    public static FsyncPolicy parse(String s) {
+        if (s == null || s.isBlank()) return always();
+        String v = s.trim().toLowerCase();
+        if (v.equals("never")) return never();
+        if (v.equals("always")) return always();
+        try {
+            long ms = Long.parseLong(v);
+            return ms > 0 ? everyMillis(ms) : always();
+        } catch (NumberFormatException e) {
+            return always();
+        }
+    }
+
+    /**
+     * Tells whether a write happening now should be forced.
+     *
+     * @param lastForceNanos {@link System#nanoTime()} of the last forced write, or 0 if none
+     * @param nowNanos       current {@link System#nanoTime()}
+     * @return {@code true} if the write should be forced to disk
+     */
+    boolean isDue(long lastForceNanos, long nowNanos) {
+        if (intervalMillis == ALWAYS) return true;
+        if (intervalMillis == NEVER) return false;
+        return lastForceNanos == 0 || nowNanos - lastForceNanos >= intervalMillis * 1_000_000L;
+    }
+
+    /**
+     * @return how long a write left unforced by {@link #isDue} may wait before it is forced,
+     *         or -1 if this policy never leaves a write waiting for a later force
+     */
+    long deferMillis() {
+        return intervalMillis > 0 ? intervalMillis : -1;
+    }
+
+    @Override
+    public String toString() {
+        if (intervalMillis == ALWAYS) return "always";
+        if (intervalMillis == NEVER) return "never";
+        return "every " + intervalMillis + " ms";
+    }
+}
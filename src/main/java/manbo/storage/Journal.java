@@ -0,0 +1,210 @@
+package manbo.storage;
+
+import manbo.task.Task;
+import manbo.task.TaskList;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.Function;
+
+/**
+ * Append-only log of task mutations that sits next to the main storage file.
+ * <p>
+ * Each mutation is one line, so a single {@code mark} costs a short append
+ * instead of rewriting every task:
+ * <ul>
+ *     <li>Add: {@code + | T | 0 | description | #12} (the task in its save format, with its id)</li>
+ *     <li>Mark/unmark: {@code = | #12 | 1} (the task's id and new done flag)</li>
+ *     <li>Delete: {@code - | #12} (the task's id)</li>
+ * </ul>
+ * A task without an id is addressed by its 0-based index instead ({@code = | 3 | 1},
+ * {@code - | 3}), which is also how journals written before ids existed look.
+ * Records are replayed in order on top of the base file by {@link #replay(List, Function)}.
+ */
+class Journal {
+    private static final String ADD = "+";
+    private static final String UPDATE = "=";
+    private static final String DELETE = "-";
+    private static final String SEP = " | ";
+
+    /** Backing journal file, e.g. {@code data/manbo.txt.journal}. */
+    private final File file;
+
+    /** Number of records currently in the journal file. */
+    private int records;
+
+    /**
+     * Creates a journal stored at the given file.
+     *
+     * @param file the journal file (need not exist yet)
+     */
+    Journal(File file) {
+        assert file != null : "Journal file must not be null";
+        this.file = file;
+    }
+
+    /** @return number of records appended since the last {@link #clear()} */
+    int size() {
+        return records;
+    }
+
+    /** @return {@code true} if a non-empty journal exists on disk */
+    boolean exists() {
+        return file.isFile() && file.length() > 0;
+    }
+
+    /**
+     * Appends an add record for {@code t}.
+     *
+     * @param force whether to force the record to disk
+     * @return number of bytes appended
+     */
+    long appendAdd(Task t, boolean force) throws IOException {
+        return append(ADD + SEP + t.toSaveFormat(), force);
+    }
+
+    /**
+     * Appends a done-flag record for {@code t}, the task at {@code index}.
+     *
+     * @param force whether to force the record to disk
+     * @return number of bytes appended
+     */
+    long appendUpdate(Task t, int index, boolean force) throws IOException {
+        return append(UPDATE + SEP + target(t, index) + SEP + (t.ifDone() ? "1" : "0"), force);
+    }
+
+    /**
+     * Appends a delete record for {@code removed}, which was the task at {@code index}.
+     *
+     * @param force whether to force the record to disk
+     * @return number of bytes appended
+     */
+    long appendDelete(Task removed, int index, boolean force) throws IOException {
+        return append(DELETE + SEP + target(removed, index), force);
+    }
+
+    /** @return how a record refers to {@code t}: its id, or its index if it has none */
+    private static String target(Task t, int index) {
+        return t.getId() > 0 ? "#" + t.getId() : String.valueOf(index);
+    }
+
+    /**
+     * Forces the journal file to disk, if there is one.
+     *
+     * @throws IOException if the file cannot be forced
+     */
+    void force() throws IOException {
+        if (!file.isFile()) return;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            ch.force(false);
+        }
+    }
+
+    private long append(String record, boolean force) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap((record + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        long bytes = buf.remaining();
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            if (force) {
+                ch.force(false);
+            }
+        }
+        records++;
+        return bytes;
+    }
+
+    /**
+     * Applies every record in the journal to {@code tasks}, in order.
+     * Records that are malformed or no longer apply (e.g. an unknown id) are skipped.
+     * The first record addressing a task by id maps every task's id, which decodes all
+     * of a lazily loaded list.
+     *
+     * @param tasks   the tasks loaded from the base file; modified in place
+     * @param decoder turns a save-format line back into a {@link Task} (may return {@code null})
+     * @return the number of records read
+     */
+    int replay(List<Task> tasks, Function<String, Task> decoder) {
+        int count = 0;
+        if (!file.isFile()) {
+            return 0;
+        }
+        // Looks tasks up by id and keeps that map current as records add and remove tasks
+        TaskList list = TaskList.backedBy(tasks);
+        try (Scanner s = new Scanner(file, "UTF-8")) {
+            while (s.hasNextLine()) {
+                String line = s.nextLine().trim();
+                if (line.isEmpty()) continue;
+                count++;
+                apply(list, line, decoder);
+            }
+        } catch (FileNotFoundException e) {
+            System.out.println("Error loading journal: " + e.getMessage());
+        }
+        records = count;
+        return count;
+    }
+
+    private void apply(TaskList tasks, String line, Function<String, Task> decoder) {
+        int sep = line.indexOf('|');
+        if (sep < 0) return;
+        String op = line.substring(0, sep).trim();
+        String rest = line.substring(sep + 1).trim();
+
+        try {
+            switch (op) {
+                case ADD: {
+                    Task t = decoder.apply(rest);
+                    if (t != null) tasks.add(t);
+                    return;
+                }
+                case UPDATE: { // = | #id | done, or = | index | done
+                    String[] parts = rest.split("\\s*\\|\\s*");
+                    int index = indexOf(tasks, parts[0]);
+                    if (index < 0) return;
+                    if ("1".equals(parts[1])) {
+                        tasks.get(index).markAsDone();
+                    } else {
+                        tasks.get(index).unmarkAsDone();
+                    }
+                    return;
+                }
+                case DELETE: { // - | #id, or - | index
+                    int index = indexOf(tasks, rest);
+                    if (index >= 0) tasks.remove(index);
+                    return;
+                }
+                default:
+                    // unknown record → skip
+            }
+        } catch (RuntimeException ex) {
+            // Malformed record → skip, same as a malformed line in the base file
+        }
+    }
+
+    /** @return the position of the task a record refers to by {@code #id} or index, or -1 if none */
+    private static int indexOf(TaskList tasks, String target) {
+        if (target.startsWith("#")) {
+            return tasks.indexOfId(Long.parseLong(target.substring(1)));
+        }
+        int index = Integer.parseInt(target);
+        return index < tasks.size() ? index : -1;
+    }
+
+    /** Deletes the journal file after its records have been folded into the base file. */
+    void clear() {
+        if (file.exists() && !file.delete()) {
+            System.out.println("Error clearing journal: " + file.getPath());
+        }
+        records = 0;
+    }
+}
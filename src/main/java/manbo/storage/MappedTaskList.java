@@ -0,0 +1,371 @@
+package manbo.storage;
+
+import manbo.task.Task;
+import manbo.task.Todo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * A task list backed by a memory-mapped storage file, which decodes each task
+ * only when it is first read.
+ * <p>
+ * Opening the list builds an offset index (start and end of every record) in one pass
+ * over the mapped bytes, without decoding anything. {@link #get(int)} then decodes
+ * a record on first access and caches it, so startup time and heap usage grow with the
+ * tasks a session actually touches rather than with the whole file.
+ * <p>
+ * The list is fully mutable. Added tasks have no record in the file and live in the
+ * cache only. A full save can copy untouched records byte-for-byte through
+ * {@link #copyRecord(int, OutputStream)} instead of decoding and re-encoding them.
+ * <p>
+ * Text records are checked for a valid tag and enough fields while indexing, so
+ * indices match those of an eager {@link Storage#load()}. A record that still fails to
+ * decode later (e.g. a bad date) is materialized as a {@link Todo} holding the raw line,
+ * so that nothing is silently lost; a binary record with a date out of range becomes a
+ * {@link Todo} marking it unreadable.
+ */
+final class MappedTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Read-only view of the whole file, shared between copies of this list. */
+    private final ByteBuffer buf;
+
+    /** Format of the mapped file. */
+    private final Storage.Format format;
+
+    /** Record layout version of a binary file; unused for text files. */
+    private final short version;
+
+    /** Decodes a text record; unused for binary files. */
+    private final Function<String, Task> textDecoder;
+
+    /** Start offset of each element's record, or -1 if the element was added in memory. */
+    private int[] starts;
+
+    /** End offset (exclusive, without the line break) of each element's record. */
+    private int[] ends;
+
+    /** Decoded tasks; {@code null} until first accessed. */
+    private Task[] cache;
+
+    private int size;
+
+    private MappedTaskList(ByteBuffer buf, Storage.Format format, Function<String, Task> textDecoder,
+                           int[] starts, int[] ends, Task[] cache, int size) {
+        this.buf = buf;
+        this.format = format;
+        this.version = format == Storage.Format.BINARY ? buf.getShort(4) : 0;
+        this.textDecoder = textDecoder;
+        this.starts = starts;
+        this.ends = ends;
+        this.cache = cache;
+        this.size = size;
+    }
+
+    /**
+     * Maps {@code path} and indexes its records.
+     *
+     * @param path        the storage file
+     * @param format      the file's format
+     * @param textDecoder decodes a text line into a task, returning {@code null} if malformed
+     * @return a lazily materialized view of the file's tasks
+     * @throws IOException if the file cannot be mapped
+     */
+    static MappedTaskList open(Path path, Storage.Format format, Function<String, Task> textDecoder)
+            throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) {
+                throw new IOException("Storage file too large to map: " + ch.size() + " bytes");
+            }
+            mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        if (format == Storage.Format.BINARY && (mapped.limit() < BinaryTaskCodec.HEADER_BYTES
+                || !BinaryTaskCodec.isSupported(mapped.getShort(4)))) {
+            throw new IOException("Unsupported binary task file");
+        }
+        MappedTaskList list = new MappedTaskList(mapped, format, textDecoder,
+                new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], new Task[INITIAL_CAPACITY], 0);
+        if (format == Storage.Format.BINARY) {
+            list.indexBinary();
+        } else {
+            list.indexText();
+        }
+        return list;
+    }
+
+    private void indexText() {
+        int limit = buf.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int eol = pos;
+            while (eol < limit && buf.get(eol) != '\n') {
+                eol++;
+            }
+            int start = pos;
+            int end = eol;
+            // trim, as the eager loader does
+            while (start < end && isSpace(buf.get(start))) start++;
+            while (end > start && isSpace(buf.get(end - 1))) end--;
+            if (end > start && looksLikeRecord(start, end)) {
+                appendSlot(start, end, null);
+            }
+            pos = eol + 1;
+        }
+    }
+
+    private void indexBinary() {
+        int count = buf.getInt(6);
+        int pos = BinaryTaskCodec.HEADER_BYTES;
+        for (int i = 0; i < count; i++) {
+            int next = BinaryTaskCodec.skipRecord(buf, pos, version);
+            if (next < 0) break; // truncated file → keep what was complete
+            appendSlot(pos, next, null);
+            pos = next;
+        }
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /** Cheap shape check: known tag and at least as many separators as the tag needs. */
+    private boolean looksLikeRecord(int start, int end) {
+        int needed;
+        switch (buf.get(start)) {
+            case 'T': needed = 2; break;
+            case 'D': needed = 3; break;
+            case 'E': needed = 4; break;
+            default: return false;
+        }
+        int pipes = 0;
+        for (int i = start; i < end && pipes < needed; i++) {
+            if (buf.get(i) == '|') pipes++;
+        }
+        return pipes >= needed;
+    }
+
+    private void appendSlot(int start, int end, Task task) {
+        if (size == starts.length) {
+            int cap = size * 2;
+            starts = Arrays.copyOf(starts, cap);
+            ends = Arrays.copyOf(ends, cap);
+            cache = Arrays.copyOf(cache, cap);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        cache[size] = task;
+        size++;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        Task t = cache[index];
+        if (t == null) {
+            t = decode(index);
+            cache[index] = t;
+        }
+        return t;
+    }
+
+    private Task decode(int index) {
+        if (format == Storage.Format.BINARY) {
+            try {
+                return BinaryTaskCodec.decode(buf, starts[index], version);
+            } catch (IOException e) {
+                System.out.println("Error loading task " + (index + 1) + ": " + e.getMessage());
+                return new Todo("(unreadable task " + (index + 1) + ")");
+            }
+        }
+        String line = rawText(index);
+        Task t = textDecoder.apply(line);
+        if (t == null) {
+            System.out.println("Error loading task " + (index + 1) + ": " + line);
+            t = new Todo(line);
+        }
+        return t;
+    }
+
+    private String rawText(int index) {
+        byte[] bytes = new byte[ends[index] - starts[index]];
+        buf.get(starts[index], bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** @return {@code true} if {@code index} has never been decoded and still matches its record */
+    boolean isUntouched(int index) {
+        checkIndex(index);
+        return cache[index] == null && starts[index] >= 0;
+    }
+
+    /** @return the format of the mapped file */
+    Storage.Format format() {
+        return format;
+    }
+
+    /**
+     * Copies the raw record of an {@link #isUntouched(int) untouched} element,
+     * without its line break.
+     *
+     * @param index element to copy
+     * @param out   destination
+     * @return number of bytes copied
+     * @throws IOException if writing fails
+     */
+    int copyRecord(int index, OutputStream out) throws IOException {
+        assert isUntouched(index) : "Only untouched records can be copied raw";
+        int len = ends[index] - starts[index];
+        byte[] chunk = new byte[Math.min(len, 8192)];
+        for (int pos = starts[index]; pos < ends[index]; pos += chunk.length) {
+            int n = Math.min(chunk.length, ends[index] - pos);
+            buf.get(pos, chunk, 0, n);
+            out.write(chunk, 0, n);
+        }
+        return len;
+    }
+
+    /**
+     * Locates the done flag inside an {@link #isUntouched(int) untouched} text record,
+     * the same way {@link RecordOffsets#doneFlagOffset(CharSequence)} does for a string.
+     *
+     * @param index element to inspect
+     * @return offset of the flag from the start of the record, or -1 if there is none
+     */
+    int doneFlagOffset(int index) {
+        assert isUntouched(index) && format == Storage.Format.TEXT : "Only untouched text records have raw flags";
+        int i = starts[index];
+        int end = ends[index];
+        while (i < end && buf.get(i) != '|') {
+            if (buf.get(i) < 0) return -1; // non-ASCII before the flag
+            i++;
+        }
+        i++;
+        while (i < end && buf.get(i) == ' ') {
+            i++;
+        }
+        if (i >= end) return -1;
+        byte c = buf.get(i);
+        return c == '0' || c == '1' ? i - starts[index] : -1;
+    }
+
+    /**
+     * Tells whether some element has no id, reading the ids of untouched records straight from
+     * the mapped bytes instead of decoding them.
+     *
+     * @return {@code true} if at least one element lacks an id
+     */
+    boolean hasMissingIds() {
+        for (int i = 0; i < size; i++) {
+            boolean hasId;
+            if (cache[i] != null) {
+                hasId = cache[i].getId() > 0;
+            } else if (format == Storage.Format.BINARY) {
+                hasId = version >= 2 && buf.getLong(ends[i] - 8) > 0; // the id ends the record
+            } else {
+                hasId = endsWithId(starts[i], ends[i]);
+            }
+            if (!hasId) return true;
+        }
+        return false;
+    }
+
+    /** @return whether the text record ends with an id field, e.g. {@code | #12} */
+    private boolean endsWithId(int start, int end) {
+        int i = end;
+        while (i > start && buf.get(i - 1) >= '0' && buf.get(i - 1) <= '9') {
+            i--;
+        }
+        if (i == end || i == start || buf.get(i - 1) != '#') return false;
+        i--;
+        while (i > start && buf.get(i - 1) == ' ') {
+            i--;
+        }
+        return i > start && buf.get(i - 1) == '|';
+    }
+
+    /** @return how many elements have been decoded or added so far */
+    int materializedCount() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (cache[i] != null) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Returns an independent list with the same elements, sharing the mapped file but holding
+     * {@link Task#snapshot() snapshots} of the decoded tasks, without decoding anything new.
+     * Used for write-behind snapshots.
+     */
+    MappedTaskList snapshot() {
+        Task[] tasks = Arrays.copyOf(cache, Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            if (tasks[i] != null) {
+                tasks[i] = tasks[i].snapshot();
+            }
+        }
+        return new MappedTaskList(buf, format, textDecoder, Arrays.copyOf(starts, Math.max(size, 1)),
+                Arrays.copyOf(ends, Math.max(size, 1)), tasks, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task old = get(index);
+        cache[index] = task;
+        starts[index] = -1;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        appendSlot(-1, -1, task);
+        if (index < size - 1) {
+            System.arraycopy(starts, index, starts, index + 1, size - 1 - index);
+            System.arraycopy(ends, index, ends, index + 1, size - 1 - index);
+            System.arraycopy(cache, index, cache, index + 1, size - 1 - index);
+            starts[index] = -1;
+            ends[index] = -1;
+            cache[index] = task;
+        }
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task old = get(index);
+        int tail = size - 1 - index;
+        System.arraycopy(starts, index + 1, starts, index, tail);
+        System.arraycopy(ends, index + 1, ends, index, tail);
+        System.arraycopy(cache, index + 1, cache, index, tail);
+        size--;
+        cache[size] = null;
+        modCount++;
+        return old;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package manbo.storage;
+
+import manbo.task.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Decodes a text-format storage file on several cores.
+ * <p>
+ * The file's bytes are cut into ranges that each end on a line break.
+ * The ranges are decoded independently on a {@link ForkJoinPool}, and the results are
+ * concatenated in range order. The final list is therefore in file order, just as
+ * with a sequential load, and the positions used by {@code mark}/{@code delete} stay stable.
+ */
+final class ParallelTextLoader {
+    /** Ranges per worker; a few more than one evens out uneven lines. */
+    private static final int RANGES_PER_THREAD = 4;
+
+    private ParallelTextLoader() { } // static helpers only
+
+    /**
+     * Decodes every task in a text-format file's contents.
+     *
+     * @param bytes       the whole file
+     * @param parallelism number of worker threads to use (at least 1)
+     * @param errors      receives the reason and 1-based line number of every malformed line,
+     *                    in file order, on the calling thread
+     * @return the decoded tasks in file order
+     * @throws IOException if decoding fails unexpectedly or is interrupted
+     */
+    static List<Task> load(byte[] bytes, int parallelism, ObjIntConsumer<String> errors) throws IOException {
+        assert parallelism >= 1 : "Parallelism must be at least 1";
+        int[] bounds = split(bytes, parallelism * RANGES_PER_THREAD);
+
+        List<Callable<Part>> jobs = new ArrayList<>(bounds.length - 1);
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            int from = bounds[i];
+            int to = bounds[i + 1];
+            jobs.add(() -> decodeRange(bytes, from, to));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Part> parts = new ArrayList<>(jobs.size());
+            int total = 0;
+            for (Future<Part> f : pool.invokeAll(jobs)) {
+                Part part = f.get();
+                parts.add(part);
+                total += part.tasks.size();
+            }
+            List<Task> tasks = new ArrayList<>(total);
+            int linesBefore = 0;
+            for (Part part : parts) {
+                tasks.addAll(part.tasks);
+                for (int i = 0; i < part.errorLines.size(); i++) {
+                    errors.accept(part.errorReasons.get(i), linesBefore + part.errorLines.get(i));
+                }
+                linesBefore += part.lines;
+            }
+            return tasks;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error decoding tasks", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Cuts {@code bytes} into about {@code ranges} pieces, each ending just after a line break
+     * (or at the end of the input).
+     *
+     * @return ascending boundaries, starting with 0 and ending with {@code bytes.length}
+     */
+    static int[] split(byte[] bytes, int ranges) {
+        int step = Math.max(1, bytes.length / ranges);
+        int[] bounds = new int[ranges + 1];
+        int count = 0;
+        bounds[count++] = 0;
+        int next = step;
+        while (count < ranges && next < bytes.length) {
+            // move forward until the previous byte is a line break
+            while (next < bytes.length && bytes[next - 1] != '\n') {
+                next++;
+            }
+            if (next >= bytes.length) break;
+            bounds[count++] = next;
+            next += step;
+        }
+        bounds[count++] = bytes.length;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static Part decodeRange(byte[] bytes, int from, int to) {
+        Part part = new Part();
+        part.lines = new TaskLineDecoder().decodeLines(bytes, from, to, part.tasks, (reason, line) -> {
+            part.errorReasons.add(reason);
+            part.errorLines.add(line);
+        });
+        return part;
+    }
+
+    /** Result of decoding one range; line numbers are relative to the start of the range. */
+    private static final class Part {
+        final List<Task> tasks = new ArrayList<>();
+        final List<String> errorReasons = new ArrayList<>();
+        final List<Integer> errorLines = new ArrayList<>();
+        int lines;
+    }
+}
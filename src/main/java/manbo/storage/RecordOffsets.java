@@ -0,0 +1,65 @@
+package manbo.storage;
+
+import java.util.Arrays;
+
+/**
+ * File offsets of the done-flag byte of every record in the storage file, in list order.
+ * <p>
+ * Filled in while {@link Storage} writes the whole file, and extended when a record is
+ * appended. With it, {@code mark}/{@code unmark} become a one-byte positional write.
+ * An offset of -1 means the record's flag could not be located; that record then
+ * needs a full save.
+ */
+final class RecordOffsets {
+    private long[] offsets;
+    private int size;
+
+    /**
+     * @param expected number of records expected, used as the initial capacity
+     */
+    RecordOffsets(int expected) {
+        this.offsets = new long[Math.max(expected, 16)];
+    }
+
+    /** Records the done-flag offset of the next record. */
+    void add(long offset) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size++] = offset;
+    }
+
+    /** @return the done-flag offset of record {@code index}, or -1 if unknown */
+    long get(int index) {
+        assert index >= 0 && index < size : "Record index out of range";
+        return offsets[index];
+    }
+
+    /** @return number of records covered */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the done flag in a text record: the first non-space character after the first {@code |}.
+     * Everything before it is ASCII, so the character index equals the byte offset.
+     *
+     * @param line a text-format record
+     * @return offset of the flag within the line, or -1 if there is none
+     */
+    static int doneFlagOffset(CharSequence line) {
+        int i = 0;
+        int n = line.length();
+        while (i < n && line.charAt(i) != '|') {
+            if (line.charAt(i) > 0x7F) return -1;
+            i++;
+        }
+        i++;
+        while (i < n && line.charAt(i) == ' ') {
+            i++;
+        }
+        if (i >= n) return -1;
+        char c = line.charAt(i);
+        return c == '0' || c == '1' ? i : -1;
+    }
+}
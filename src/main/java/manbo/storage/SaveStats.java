@@ -0,0 +1,63 @@
+package manbo.storage;
+
+import java.util.Locale;
+
+/**
+ * Running totals for the writes made by {@link Storage}: how many, how many bytes,
+ * how long they took and how many were forced to disk.
+ * Used to compare the latency of the {@link FsyncPolicy} options on a given disk.
+ */
+public final class SaveStats {
+    private long writes;
+    private long forcedWrites;
+    private long deferredForces;
+    private long totalBytes;
+    private long totalNanos;
+    private long maxNanos;
+    private long lastBytes;
+    private long lastNanos;
+
+    /**
+     * Records one completed write.
+     *
+     * @param bytes  number of bytes written
+     * @param nanos  wall time spent, including any force
+     * @param forced whether the write was forced to disk
+     */
+    synchronized void record(long bytes, long nanos, boolean forced) {
+        writes++;
+        if (forced) forcedWrites++;
+        totalBytes += bytes;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        lastBytes = bytes;
+        lastNanos = nanos;
+    }
+
+    /** Records one force of earlier writes that were left unforced when they were made. */
+    synchronized void recordDeferredForce() {
+        deferredForces++;
+    }
+
+    public synchronized long getWrites() { return writes; }
+
+    public synchronized long getForcedWrites() { return forcedWrites; }
+
+    public synchronized long getDeferredForces() { return deferredForces; }
+
+    public synchronized long getTotalBytes() { return totalBytes; }
+
+    public synchronized long getTotalNanos() { return totalNanos; }
+
+    public synchronized long getLastBytes() { return lastBytes; }
+
+    public synchronized long getLastNanos() { return lastNanos; }
+
+    @Override
+    public synchronized String toString() {
+        double avgMs = writes == 0 ? 0.0 : totalNanos / 1e6 / writes;
+        return String.format(Locale.ROOT,
+                "%d writes (%d forced, %d deferred forces), %d bytes, avg %.3f ms, max %.3f ms, last %d bytes in %.3f ms",
+                writes, forcedWrites, deferredForces, totalBytes, avgMs, maxNanos / 1e6, lastBytes, lastNanos / 1e6);
+    }
+}
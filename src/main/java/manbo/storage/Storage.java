@@ -1,15 +1,22 @@
 package manbo.storage;
 
 import manbo.task.Task;
-import manbo.task.Todo;
-import manbo.task.Deadline;
-import manbo.task.Event;
+import manbo.task.TaskList;
 
 import java.io.*;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles reading from and writing to the persistent storage file.
@@ -21,17 +28,116 @@ import java.util.*;
  *     <li>Deadline: {@code D | 0 | description | yyyy-MM-dd}</li>
  *     <li>Event: {@code E | 1 | description | yyyy-MM-dd HHmm | yyyy-MM-dd HHmm}</li>
  * </ul>
- * where the second field {@code 1/0} indicates done/not-done.
+ * where the second field {@code 1/0} indicates done/not-done, and each record ends with the
+ * task's id, e.g. {@code T | 1 | description | #12}. Records saved without an id get one on load.
+ * <p>
+ * In journal mode (see {@link #setJournalEnabled(boolean)}) single mutations are
+ * appended to a sibling {@code .journal} file instead of rewriting the whole file,
+ * and the journal is folded back into the base file every
+ * {@link #setCheckpointInterval(int) checkpoint interval} records.
+ * <p>
+ * Full saves never truncate the live file: tasks are written to a fresh sibling
+ * {@code .tmp} file, forced to disk according to the {@link FsyncPolicy},
+ * and then atomically renamed over the original. A crash mid-save therefore
+ * leaves either the old or the new file, never a half-written one.
+ * <p>
+ * Saves can also use the compact binary format of {@link BinaryTaskCodec}
+ * (see {@link #setFormat(Format)}). {@link #load()} reads either format,
+ * so switching formats converts the file on the next save.
+ * <p>
+ * In incremental mode (see {@link #setIncrementalEnabled(boolean)}) the storage remembers
+ * where each record's done flag sits in the file. A mark/unmark then overwrites that one
+ * byte in place, an add appends a record, and only deletes rewrite the whole file.
  */
 public class Storage {
+    /** On-disk formats understood by {@link #load()} and written by {@link #save(List)}. */
+    public enum Format {
+        /** Pipe-delimited lines, one task per line. */
+        TEXT,
+        /** Length-prefixed binary records; see {@link BinaryTaskCodec}. */
+        BINARY
+    }
+
+    /** Receives progress from {@link #load(LoadProgress)}. */
+    @FunctionalInterface
+    public interface LoadProgress {
+        /** Ignores progress. */
+        LoadProgress NONE = (loaded, total) -> { };
+
+        /**
+         * @param loaded bytes of the file decoded so far
+         * @param total  size of the file in bytes; {@code loaded == total} once decoding is done
+         */
+        void loaded(long loaded, long total);
+    }
+
     /** Backing file for persistent task storage. */
     private final File file;
 
-    /** Date formatter used for {@link Deadline} dates (yyyy-MM-dd). */
-    private static final DateTimeFormatter DATE  = DateTimeFormatter.ISO_LOCAL_DATE;
+    /** Default number of journal records between checkpoints. */
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 256;
+
+    /** Mutation log next to {@link #file}; only written in journal mode. */
+    private final Journal journal;
+
+    /** Whether single mutations are appended to the journal instead of rewriting the file. */
+    private boolean journalEnabled = false;
+
+    /** Journal records allowed before the journal is compacted into the base file. */
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+    /** When writes are forced to disk. */
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.always();
+
+    /** {@link System#nanoTime()} of the last forced write, or 0 if none yet. */
+    private volatile long lastForceNanos = 0;
+
+    /** Set while some write has been left unforced by the fsync policy; see {@link #forcePending()}. */
+    private final AtomicBoolean unforced = new AtomicBoolean();
+
+    /** Forces writes left unforced once their fsync interval has passed; shared by every storage. */
+    private static final ScheduledExecutorService DEFERRED_FORCES =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "manbo-fsync");
+                t.setDaemon(true);
+                return t;
+            });
+
+    /** Whether the last load could not read the base file; see {@link #isLoadFailed()}. */
+    private boolean loadFailed;
+
+    /** Bytes written and time spent by every save and journal append. */
+    private final SaveStats saveStats = new SaveStats();
 
-    /** Date-time formatter used for {@link Event} start/end (yyyy-MM-dd HHmm). */
-    private static final DateTimeFormatter DTTM  = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    /** Format used by full saves. */
+    private Format format = Format.TEXT;
+
+    /** Default file size from which text files are decoded in parallel (1 MiB). */
+    private static final long DEFAULT_PARALLEL_LOAD_THRESHOLD = 1L << 20;
+
+    /** Text files at least this large are decoded by {@link ParallelTextLoader}. */
+    private long parallelLoadThreshold = DEFAULT_PARALLEL_LOAD_THRESHOLD;
+
+    /** Worker threads used by a parallel load. */
+    private int loadParallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Default number of file bytes decoded between two {@link LoadProgress} reports (1 MiB). */
+    private static final int DEFAULT_PROGRESS_STEP = 1 << 20;
+
+    /** Bytes decoded between two {@link LoadProgress} reports. */
+    private int progressStep = DEFAULT_PROGRESS_STEP;
+
+    /** Whether done-flag changes and adds are written in place instead of rewriting the file. */
+    private boolean incrementalEnabled = false;
+
+    /**
+     * Done-flag offsets of the records in {@link #file}, in {@link #offsetsFormat};
+     * {@code null} until the file has been fully written in incremental mode.
+     */
+    private RecordOffsets offsets;
+
+    /** Format {@link #file} was in when {@link #offsets} were recorded. */
+    private Format offsetsFormat;
 
     /**
      * Creates a new {@code Storage} instance tied to the given file path.
@@ -44,6 +150,7 @@ public class Storage {
         assert path != null && !path.isBlank() : "Storage path must not be null/blank";
 
         this.file = new File(path);
+        this.journal = new Journal(new File(path + ".journal"));
         createNonExistentFile();
 
         // Postcondition: after creation, file should exist and be a regular file
@@ -70,49 +177,695 @@ public class Storage {
         }
     }
 
+    /**
+     * Enables or disables journal mode.
+     * A journal left behind by an earlier session is always replayed by {@link #load()},
+     * whichever mode is active.
+     *
+     * @param enabled {@code true} to append mutations to the journal
+     */
+    public void setJournalEnabled(boolean enabled) {
+        this.journalEnabled = enabled;
+    }
+
+    /**
+     * Sets how many journal records may accumulate before they are compacted
+     * into the base file.
+     *
+     * @param records number of records between checkpoints (must be positive)
+     */
+    public void setCheckpointInterval(int records) {
+        assert records > 0 : "Checkpoint interval must be positive";
+        this.checkpointInterval = records;
+    }
+
+    /**
+     * Sets when writes are forced to disk. Defaults to {@link FsyncPolicy#always()}.
+     *
+     * @param policy the fsync policy to use for saves and journal appends
+     */
+    public void setFsyncPolicy(FsyncPolicy policy) {
+        assert policy != null : "Fsync policy must not be null";
+        this.fsyncPolicy = policy;
+    }
+
+    /**
+     * Sets the format used by full saves. Loading detects the format by itself.
+     *
+     * @param format the format to write
+     */
+    public void setFormat(Format format) {
+        assert format != null : "Format must not be null";
+        this.format = format;
+    }
+
+    /** @return the format used by full saves */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Rewrites the storage file in {@code target} format, keeping its tasks.
+     * Later saves keep using {@code target}.
+     *
+     * @param target the format to convert to
+     */
+    public void convertTo(Format target) {
+        List<Task> tasks = load();
+        setFormat(target);
+        checkpoint(tasks);
+    }
+
+    /**
+     * Enables or disables incremental saves. The first change after enabling (or after a load)
+     * still rewrites the file once, which is when record offsets are learned. Journal mode,
+     * if enabled too, takes precedence.
+     *
+     * @param enabled {@code true} to write done-flag changes and adds in place
+     */
+    public void setIncrementalEnabled(boolean enabled) {
+        this.incrementalEnabled = enabled;
+        if (!enabled) {
+            offsets = null;
+        }
+    }
+
+    /**
+     * Sets the file size from which text files are decoded on several threads.
+     * Smaller files are read sequentially, where thread start-up would cost more than it saves.
+     *
+     * @param bytes threshold in bytes; {@link Long#MAX_VALUE} disables parallel loading
+     */
+    public void setParallelLoadThreshold(long bytes) {
+        assert bytes >= 0 : "Threshold must not be negative";
+        this.parallelLoadThreshold = bytes;
+    }
+
+    /**
+     * Sets how many threads a parallel load uses. Defaults to the number of processors.
+     *
+     * @param threads worker threads (at least 1)
+     */
+    public void setLoadParallelism(int threads) {
+        assert threads >= 1 : "Parallelism must be at least 1";
+        this.loadParallelism = threads;
+    }
+
+    /** Sets how many file bytes are decoded between two {@link LoadProgress} reports. */
+    void setProgressStep(int bytes) {
+        assert bytes > 0 : "Progress step must be positive";
+        this.progressStep = bytes;
+    }
+
+    /** @return the current fsync policy */
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    /** @return path of the backing file, for storages layered over this one */
+    String path() {
+        return file.getPath();
+    }
+
+    /** @return bytes written and time spent by this storage so far */
+    public SaveStats getSaveStats() {
+        return saveStats;
+    }
+
     /**
      * Loads all tasks from storage.
+     * The base file is read first, then any journal records are replayed on top of it.
+     * A non-empty journal is compacted into the base file straight away.
+     * Tasks saved without an id, e.g. by a version before ids, get one here, and the file is
+     * rewritten once so that the next session loads the same ids.
      *
      * @return a list of {@link Task} objects, possibly empty but never null
      */
     public List<Task> load() {
-        List<Task> tasks = new ArrayList<>();
+        return load(LoadProgress.NONE);
+    }
+
+    /**
+     * Loads tasks like {@link #load()}, reporting how much of the file has been decoded
+     * about every megabyte. A parallel load reports only its start and end.
+     *
+     * @param progress receives progress on the calling thread
+     * @return a list of {@link Task} objects, possibly empty but never null
+     */
+    public List<Task> load(LoadProgress progress) {
         assert file.isFile() : "Storage file missing during load";
+        assert progress != null : "Progress must not be null";
+        offsets = null; // the file may have changed since it was last written here
+        List<Task> tasks = isBinaryFile() ? loadBinary(progress) : loadText(progress);
+        loadFailed = tasks == null;
+        if (tasks == null) {
+            // Journal records refer to the base file's tasks, so without it they cannot be
+            // replayed; both files are left untouched
+            return new ArrayList<>();
+        }
+        replayAndAssignIds(tasks);
+        return tasks;
+    }
 
-        try (Scanner s = new Scanner(file, "UTF-8")) {
-            while (s.hasNextLine()) {
-                String line = s.nextLine().trim();
-                if (line.isEmpty()) continue;
-                Task t = decodeLine(line);
-                if (t != null) tasks.add(t);
+    /**
+     * Tells whether the last {@link #load()} or {@link #loadLazy()} could not read the
+     * base file and returned an empty list in its place. Saving that list would replace
+     * the tasks still on disk.
+     *
+     * @return {@code true} if the last load failed
+     */
+    public boolean isLoadFailed() {
+        return loadFailed;
+    }
+
+    /**
+     * Loads tasks lazily: the file is memory-mapped and indexed, and each task is
+     * decoded only when first accessed. Use this instead of {@link #load()} for very
+     * large files. Journal records, if any, are replayed on top of the mapped tasks.
+     * A file with records lacking an id is decoded in full once, to give them ids and
+     * rewrite it, as {@link #load()} does. Falls back to {@link #load()} if the file cannot be mapped.
+     *
+     * @return a mutable list view of the stored tasks
+     */
+    public List<Task> loadLazy() {
+        assert file.isFile() : "Storage file missing during load";
+        offsets = null; // the file may have changed since it was last written here
+        List<Task> tasks;
+        try {
+            Format onDisk = isBinaryFile() ? Format.BINARY : Format.TEXT;
+            tasks = MappedTaskList.open(file.toPath(), onDisk, this::decodeLine);
+            loadFailed = false;
+        } catch (IOException e) {
+            System.out.println("Error mapping file, loading eagerly: " + e.getMessage());
+            return load();
+        }
+        replayAndAssignIds(tasks);
+        return tasks;
+    }
+
+    /**
+     * Replays the journal on top of freshly loaded {@code tasks} and gives every task without
+     * an id the next unused one, in list order. Rewrites the base file if either changed
+     * anything, so journal records and new ids are on disk before any later record uses them.
+     * Base tasks get their ids before the journal is replayed, in the same order a task list
+     * would assign them in memory, so records naming those ids find their tasks.
+     */
+    private void replayAndAssignIds(List<Task> tasks) {
+        boolean rewrite = assignMissingIds(tasks);
+        if (journal.exists()) {
+            journal.replay(tasks, this::decodeLine);
+            assignMissingIds(tasks); // e.g. added by a journal from before ids
+            rewrite = true;
+        }
+        if (rewrite) {
+            checkpoint(tasks);
+        }
+    }
+
+    /**
+     * Gives every task without an id the next id above all those in use.
+     * A lazily loaded list whose records all carry ids is checked without decoding it.
+     *
+     * @return whether any task lacked an id
+     */
+    private static boolean assignMissingIds(List<Task> tasks) {
+        if (tasks instanceof MappedTaskList && !((MappedTaskList) tasks).hasMissingIds()) {
+            return false;
+        }
+        long nextId = 1;
+        boolean missing = false;
+        for (Task t : tasks) {
+            if (t.getId() > 0) {
+                nextId = Math.max(nextId, t.getId() + 1);
+            } else {
+                missing = true;
             }
-        } catch (FileNotFoundException e) {
+        }
+        if (!missing) return false;
+        for (Task t : tasks) {
+            if (t.getId() <= 0) {
+                t.setId(nextId++);
+            }
+        }
+        return true;
+    }
+
+    /** @return {@code true} if the storage file starts with the binary magic */
+    private boolean isBinaryFile() {
+        byte[] head = new byte[4];
+        try (InputStream in = new FileInputStream(file)) {
+            int n = in.readNBytes(head, 0, head.length);
+            return BinaryTaskCodec.hasMagic(head, n);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** @return the decoded tasks, or {@code null} if the file could not be read */
+    private List<Task> loadText(LoadProgress progress) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
             System.out.println("Error loading file: " + e.getMessage());
+            return null;
+        }
+        progress.loaded(0, bytes.length);
+
+        if (loadParallelism > 1 && bytes.length >= parallelLoadThreshold) {
+            try {
+                List<Task> tasks = ParallelTextLoader.load(bytes, loadParallelism, this::reportBadLine);
+                progress.loaded(bytes.length, bytes.length);
+                return tasks;
+            } catch (IOException e) {
+                System.out.println("Error loading file in parallel, retrying sequentially: " + e.getMessage());
+            }
+        }
+
+        // Decode a step at a time, each ending on a line break, reporting after each
+        List<Task> tasks = new ArrayList<>();
+        TaskLineDecoder decoder = new TaskLineDecoder();
+        int linesBefore = 0;
+        for (int from = 0; from < bytes.length; ) {
+            int to = Math.min(bytes.length, from + progressStep);
+            while (to < bytes.length && bytes[to - 1] != '\n') {
+                to++;
+            }
+            int base = linesBefore;
+            linesBefore += decoder.decodeLines(bytes, from, to, tasks,
+                    (reason, line) -> reportBadLine(reason, base + line));
+            progress.loaded(to, bytes.length);
+            from = to;
         }
         return tasks;
     }
 
+    /** Reports a line of the storage file that could not be decoded and is therefore skipped. */
+    private void reportBadLine(String reason, int line) {
+        System.out.println("Error loading " + file.getName() + " line " + line + ": " + reason);
+    }
+
+    /** @return the decoded tasks, or {@code null} if the file could not be read */
+    private List<Task> loadBinary(LoadProgress progress) {
+        long total = file.length();
+        progress.loaded(0, total);
+        try (InputStream in = new BufferedInputStream(
+                new ProgressInputStream(new FileInputStream(file), total, progress),
+                Math.min(1 << 16, progressStep))) {
+            List<Task> tasks = BinaryTaskCodec.read(in, total);
+            progress.loaded(total, total);
+            return tasks;
+        } catch (IOException e) {
+            System.out.println("Error loading file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Persists a newly added task, which must already be the last element of {@code tasks}.
+     *
+     * @param tasks the full task list after the add
+     * @param added the task that was added
+     */
+    public void saveAdded(List<Task> tasks, Task added) {
+        assert tasks != null && added != null : "Tasks and added task must not be null";
+        if (journalEnabled) {
+            try {
+                boolean force = isForceDue();
+                long start = System.nanoTime();
+                long bytes = journal.appendAdd(added, force);
+                recordWrite(bytes, start, force);
+                checkpointIfDue(tasks);
+            } catch (IOException e) {
+                System.out.println("Error writing journal: " + e.getMessage());
+                checkpoint(tasks);
+            }
+            return;
+        }
+        if (incrementalEnabled && appendRecord(tasks, added)) {
+            return;
+        }
+        save(tasks);
+    }
+
+    /**
+     * Persists a change to the done flag of the task at {@code index}.
+     *
+     * @param tasks the full task list after the change
+     * @param index zero-based index of the changed task
+     */
+    public void saveUpdated(List<Task> tasks, int index) {
+        assert tasks != null : "Tasks list must not be null";
+        assert index >= 0 && index < tasks.size() : "Updated index out of range";
+        if (journalEnabled) {
+            try {
+                boolean force = isForceDue();
+                long start = System.nanoTime();
+                long bytes = journal.appendUpdate(tasks.get(index), index, force);
+                recordWrite(bytes, start, force);
+                checkpointIfDue(tasks);
+            } catch (IOException e) {
+                System.out.println("Error writing journal: " + e.getMessage());
+                checkpoint(tasks);
+            }
+            return;
+        }
+        if (incrementalEnabled && writeDoneFlag(tasks, index)) {
+            return;
+        }
+        save(tasks);
+    }
+
+    /**
+     * Persists the removal of the task that used to be at {@code index}.
+     * Outside journal mode this always rewrites the file, since every later record moves.
+     *
+     * @param tasks   the full task list after the removal
+     * @param index   zero-based index the task was removed from
+     * @param removed the task that was removed
+     */
+    public void saveRemoved(List<Task> tasks, int index, Task removed) {
+        assert tasks != null && removed != null : "Tasks and removed task must not be null";
+        if (!journalEnabled) {
+            save(tasks);
+            return;
+        }
+        try {
+            boolean force = isForceDue();
+            long start = System.nanoTime();
+            long bytes = journal.appendDelete(removed, index, force);
+            recordWrite(bytes, start, force);
+            checkpointIfDue(tasks);
+        } catch (IOException e) {
+            System.out.println("Error writing journal: " + e.getMessage());
+            checkpoint(tasks);
+        }
+    }
+
+    /**
+     * Overwrites the done flag of record {@code index} in place, if its offset is known.
+     *
+     * @return {@code true} if the file is now up to date, {@code false} if a full save is needed
+     */
+    private boolean writeDoneFlag(List<Task> tasks, int index) {
+        if (offsets == null || offsets.size() != tasks.size() || offsets.get(index) < 0) {
+            return false;
+        }
+        Task t = tasks.get(index);
+        if (!t.isDirty()) {
+            return true; // flag did not change, e.g. marking a done task again
+        }
+
+        byte flag;
+        if (offsetsFormat == Format.BINARY) {
+            flag = (byte) (t.ifDone() ? 1 : 0);
+        } else {
+            flag = (byte) (t.ifDone() ? '1' : '0');
+        }
+
+        boolean force = isForceDue();
+        long start = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] { flag }), offsets.get(index));
+            if (force) {
+                ch.force(false);
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving file: " + e.getMessage());
+            return false;
+        }
+        recordWrite(1, start, force);
+        t.clearDirty();
+        return true;
+    }
+
+    /**
+     * Appends the record of {@code added} to the end of the file, if the file's records
+     * are known to match every task before it.
+     *
+     * @return {@code true} if the file is now up to date, {@code false} if a full save is needed
+     */
+    private boolean appendRecord(List<Task> tasks, Task added) {
+        if (offsets == null || offsets.size() != tasks.size() - 1) {
+            return false;
+        }
+
+        byte[] record;
+        int flagAt;
+        if (offsetsFormat == Format.BINARY) {
+            record = BinaryTaskCodec.encode(added);
+            flagAt = BinaryTaskCodec.DONE_FLAG_OFFSET;
+        } else {
+            String line = added.toSaveFormat();
+            record = (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            flagAt = RecordOffsets.doneFlagOffset(line);
+        }
+
+        boolean force = isForceDue();
+        long start = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            long end = ch.size();
+            ByteBuffer buf = ByteBuffer.wrap(record);
+            while (buf.hasRemaining()) {
+                ch.write(buf, end + buf.position());
+            }
+            if (offsetsFormat == Format.BINARY) {
+                ByteBuffer count = ByteBuffer.allocate(4).putInt(0, tasks.size());
+                ch.write(count, BinaryTaskCodec.COUNT_OFFSET);
+            }
+            if (force) {
+                ch.force(false);
+            }
+            offsets.add(flagAt < 0 ? -1 : end + flagAt);
+        } catch (IOException e) {
+            System.out.println("Error saving file: " + e.getMessage());
+            offsets = null;
+            return false;
+        }
+        recordWrite(record.length, start, force);
+        added.clearDirty();
+        return true;
+    }
+
+    /** @return whether the write about to happen should be forced, per the fsync policy */
+    private boolean isForceDue() {
+        return fsyncPolicy.isDue(lastForceNanos, System.nanoTime());
+    }
+
+    private void recordWrite(long bytes, long startNanos, boolean forced) {
+        long end = System.nanoTime();
+        if (forced) lastForceNanos = end;
+        saveStats.record(bytes, end - startNanos, forced);
+        long deferMillis = fsyncPolicy.deferMillis();
+        if (!forced && deferMillis > 0 && unforced.compareAndSet(false, true)) {
+            DEFERRED_FORCES.schedule(this::forcePending, deferMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Forces the base file and the journal if a write was left unforced by the fsync policy,
+     * so a write landing inside the policy's interval still reaches the disk once it passes.
+     * Runs when that interval has passed and on {@link #flush()}.
+     */
+    private synchronized void forcePending() {
+        if (!unforced.getAndSet(false)) return;
+        try {
+            if (file.isFile()) {
+                try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    ch.force(true);
+                }
+            }
+            journal.force();
+            forceDirectory();
+            lastForceNanos = System.nanoTime();
+            saveStats.recordDeferredForce();
+        } catch (IOException e) {
+            System.out.println("Error forcing saved tasks to disk: " + e.getMessage());
+        }
+    }
+
+    private void checkpointIfDue(List<Task> tasks) {
+        if (journal.size() >= checkpointInterval) {
+            checkpoint(tasks);
+        }
+    }
+
+    /**
+     * Rewrites the base file from {@code tasks} and discards the journal.
+     * If the base file cannot be replaced, the journal is kept, so the mutations
+     * recorded only there survive until a later checkpoint succeeds.
+     *
+     * @param tasks the current tasks
+     */
+    public void checkpoint(List<Task> tasks) {
+        if (writeAll(tasks)) {
+            journal.clear();
+        }
+    }
+
     /**
      * Saves the given list of tasks to storage, overwriting existing contents.
+     * Any pending journal records are folded in, since the base file is now current.
      *
      * @param tasks the tasks to write
      */
     public void save(List<Task> tasks) {
+        checkpoint(tasks);
+    }
 
+    /**
+     * Blocks until every save requested so far is on disk.
+     * Saves are synchronous here, so this only forces any write the fsync policy
+     * has not forced yet; write-behind subclasses first wait for their writer.
+     */
+    public void flush() {
+        forcePending();
+    }
+
+    /**
+     * Flushes pending saves and releases any resources held by this storage.
+     * Saves requested after closing are written synchronously.
+     */
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Rewrites the base file with every task in {@code tasks}.
+     * The tasks go to a new temp file in the same directory first, which is then
+     * moved over {@link #file}, so the live file is replaced in one step.
+     * Each save uses its own temp file, so concurrent writers never share one.
+     *
+     * @param tasks the tasks to write
+     * @return {@code true} if the file now holds {@code tasks}, {@code false} if the save failed
+     */
+    private boolean writeAll(List<Task> tasks) {
         assert tasks != null : "Tasks list must not be null";
-        try (FileWriter fw = new FileWriter(file);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            for (Task t : tasks) {
-                bw.write(t.toSaveFormat()); // delegate to Task serialization
-                bw.newLine();
+        boolean force = isForceDue();
+        long start = System.nanoTime();
+        long bytes;
+        RecordOffsets written = incrementalEnabled ? new RecordOffsets(tasks.size()) : null;
+        File tempFile;
+        try {
+            tempFile = File.createTempFile(file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+        } catch (IOException e) {
+            System.out.println("Error saving file: " + e.getMessage());
+            return false;
+        }
+
+        boolean encoded = false;
+        try (FileChannel ch = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == Format.BINARY) {
+                BufferedOutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16);
+                BinaryTaskCodec.write(tasks, out, written);
+            } else {
+                writeText(tasks, Channels.newOutputStream(ch), written);
+            }
+            bytes = ch.size();
+            if (force) {
+                ch.force(true);
             }
+            encoded = true;
         } catch (IOException e) {
             System.out.println("Error saving file: " + e.getMessage());
+            offsets = null;
+            return false;
+        } finally {
+            if (!encoded) {
+                tempFile.delete(); // also when a task fails to encode
+            }
+        }
+
+        try {
+            replaceWith(tempFile);
+            if (force) {
+                forceDirectory();
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving file: " + e.getMessage());
+            tempFile.delete();
+            offsets = null;
+            return false;
+        }
+        offsets = written;
+        offsetsFormat = format;
+        recordWrite(bytes, start, force);
+        return true;
+    }
+
+    /**
+     * Writes {@code tasks} in text format. Records of a lazily loaded list that were never
+     * decoded are copied straight from the mapped file.
+     *
+     * @param offsets if not {@code null}, receives the file offset of every record's done flag
+     */
+    private void writeText(List<Task> tasks, OutputStream raw, RecordOffsets offsets) throws IOException {
+        List<Task> backing = unwrap(tasks);
+        MappedTaskList mapped = backing instanceof MappedTaskList
+                && ((MappedTaskList) backing).format() == Format.TEXT ? (MappedTaskList) backing : null;
+        List<Task> list = tasks instanceof RandomAccess ? tasks : new ArrayList<>(tasks);
+        BufferedOutputStream out = new BufferedOutputStream(raw, 1 << 16);
+        byte[] newline = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        long pos = 0;
+
+        for (int i = 0; i < list.size(); i++) {
+            int len;
+            int flagAt;
+            if (mapped != null && mapped.isUntouched(i)) {
+                flagAt = offsets == null ? -1 : mapped.doneFlagOffset(i);
+                len = mapped.copyRecord(i, out);
+            } else {
+                Task t = list.get(i);
+                String line = t.toSaveFormat(); // delegate to Task serialization
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                flagAt = offsets == null ? -1 : RecordOffsets.doneFlagOffset(line);
+                out.write(bytes);
+                len = bytes.length;
+                t.clearDirty();
+            }
+            out.write(newline);
+            if (offsets != null) {
+                offsets.add(flagAt < 0 ? -1 : pos + flagAt);
+            }
+            pos += len + newline.length;
+        }
+        out.flush();
+    }
+
+    /** @return the list behind a {@link TaskList} wrapper, so lazily loaded lists are still recognised */
+    static List<Task> unwrap(List<Task> tasks) {
+        return tasks instanceof TaskList ? ((TaskList) tasks).backing() : tasks;
+    }
+
+    /** Moves {@code tempFile} over {@link #file}, atomically where the file system allows it. */
+    private void replaceWith(File tempFile) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces the parent directory so the rename itself is durable.
+     * Not every platform can open a directory (e.g. Windows), so failures are ignored.
+     */
+    private void forceDirectory() {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir == null) return;
+        try (FileChannel ch = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // best effort only
         }
     }
 
     /**
      * Decodes a single line from storage into a {@link Task}.
+     * Used for journal records and lazily decoded records; full loads decode
+     * the file's bytes directly with a {@link TaskLineDecoder}.
      *
      * <p>Expected formats:
      * <ul>
@@ -120,48 +873,53 @@ public class Storage {
      *   <li>{@code D | 0 | description | yyyy-MM-dd}</li>
      *   <li>{@code E | 1 | description | yyyy-MM-dd HHmm | yyyy-MM-dd HHmm}</li>
      * </ul>
+     * Each may end with the task's id, e.g. {@code T | 1 | description | #12}.
      *
      * @param line the raw line from the storage file
      * @return the corresponding {@link Task}, or {@code null} if malformed
      */
     private Task decodeLine(String line) {
         assert line != null && !line.isBlank() : "decodeLine requires a non-blank line";
+        return new TaskLineDecoder().decode(line);
+    }
 
-        String[] parts = line.split("\\s*\\|\\s*");
-        if (parts.length < 3) return null;
+    /** Reports the bytes read through it to a {@link LoadProgress}, about every progress step. */
+    private final class ProgressInputStream extends FilterInputStream {
+        private final long total;
+        private final LoadProgress progress;
+        private long read;
+        private long nextReport = progressStep;
 
-        String tag = parts[0];
-        boolean done = "1".equals(parts[1]);
-        String desc = parts[2];
+        ProgressInputStream(InputStream in, long total, LoadProgress progress) {
+            super(in);
+            this.total = total;
+            this.progress = progress;
+        }
 
-        try {
-            switch (tag) {
-                case "T": {
-                    Task t = new Todo(desc);
-                    if (done) t.markAsDone();
-                    return t;
-                }
-                case "D": { // D | done | desc | yyyy-MM-dd
-                    if (parts.length < 4) return null;
-                    LocalDate by = LocalDate.parse(parts[3], DATE);
-                    Task t = new Deadline(desc, by);
-                    if (done) t.markAsDone();
-                    return t;
-                }
-                case "E": { // E | done | desc | yyyy-MM-dd HHmm | yyyy-MM-dd HHmm
-                    if (parts.length < 5) return null;
-                    LocalDateTime from = LocalDateTime.parse(parts[3], DTTM);
-                    LocalDateTime to   = LocalDateTime.parse(parts[4], DTTM);
-                    Task t = new Event(desc, from, to);
-                    if (done) t.markAsDone();
-                    return t;
-                }
-                default:
-                    return null; // unknown tag
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        private void advance(int n) {
+            read += n;
+            if (read >= nextReport && read < total) {
+                progress.loaded(read, total);
+                nextReport = read + progressStep;
             }
-        } catch (Exception ex) {
-            // Malformed line → skip or log
-            return null;
         }
     }
 }
@@ -0,0 +1,271 @@
+package manbo.storage;
+
+import manbo.task.Deadline;
+import manbo.task.Event;
+import manbo.task.Task;
+import manbo.task.Todo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Decodes text-format storage lines in a single pass over their UTF-8 bytes.
+ * <p>
+ * Fields are located by scanning for {@code |} and trimming surrounding whitespace
+ * in place, so no regex, {@code String[]} or trimmed copy is created. Dates in the
+ * usual {@code yyyy-MM-dd} and {@code yyyy-MM-dd HHmm} shapes are parsed arithmetically;
+ * anything else (e.g. the older ISO {@code yyyy-MM-ddTHH:mm} event form) falls back to a
+ * {@link DateTimeFormatter}. A well-formed line therefore allocates only its description
+ * and the task itself.
+ * <p>
+ * Both separators and whitespace are ASCII, and UTF-8 never uses ASCII byte values
+ * inside a multi-byte character, so scanning bytes is safe for any description.
+ * <p>
+ * Instances keep the cursor of the line being decoded and are not thread-safe;
+ * use one per thread.
+ */
+final class TaskLineDecoder {
+    /** Fallback formatter for {@link Deadline} dates (yyyy-MM-dd). */
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    /** Fallback formatter for {@link Event} start/end (yyyy-MM-dd HHmm). */
+    private static final DateTimeFormatter DTTM = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    private byte[] bytes;
+
+    /** Start of the current line, after trimming. */
+    private int start;
+
+    /** Start of the next field; past {@link #end} once the last field has been read. */
+    private int pos;
+
+    /** End of the current line, after trimming. */
+    private int end;
+
+    /** Bounds of the field read by the last {@link #nextField()}, trimmed. */
+    private int fieldStart;
+    private int fieldEnd;
+
+    /** Why the last {@link #decode} call returned {@code null}, or {@code null} for a blank line. */
+    private String error;
+
+    /**
+     * Decodes one line.
+     *
+     * @param line a text-format record; surrounding whitespace is ignored
+     * @return the task, or {@code null} if the line is blank or malformed (see {@link #error()})
+     */
+    Task decode(String line) {
+        byte[] b = line.getBytes(StandardCharsets.UTF_8);
+        return decode(b, 0, b.length);
+    }
+
+    /**
+     * Decodes the line stored in {@code bytes[from, to)}.
+     *
+     * @param bytes UTF-8 bytes containing the line
+     * @param from  start of the line
+     * @param to    end of the line (exclusive), without the line break
+     * @return the task, or {@code null} if the line is blank or malformed (see {@link #error()})
+     */
+    Task decode(byte[] bytes, int from, int to) {
+        this.bytes = bytes;
+        this.error = null;
+        while (from < to && isSpace(bytes[from])) from++;
+        while (to > from && isSpace(bytes[to - 1])) to--;
+        if (from == to) {
+            return null;
+        }
+        this.start = from;
+        this.pos = from;
+        this.end = to;
+
+        nextField();
+        byte tag = bytes[fieldStart];
+        if (fieldEnd - fieldStart != 1 || (tag != 'T' && tag != 'D' && tag != 'E')) {
+            return fail("unknown task type '" + text(fieldStart, fieldEnd) + "'");
+        }
+        if (!nextField()) {
+            return fail("missing done flag");
+        }
+        boolean done = fieldEnd - fieldStart == 1 && bytes[fieldStart] == '1';
+        if (!nextField()) {
+            return fail("missing description");
+        }
+        String desc = text(fieldStart, fieldEnd);
+
+        Task t;
+        switch (tag) {
+            case 'D': { // D | done | desc | yyyy-MM-dd
+                if (!nextField()) {
+                    return fail("missing deadline date");
+                }
+                LocalDate by = parseDate(fieldStart, fieldEnd);
+                if (by == null) {
+                    return fail("bad date '" + text(fieldStart, fieldEnd) + "'");
+                }
+                t = new Deadline(desc, by, done);
+                break;
+            }
+            case 'E': { // E | done | desc | yyyy-MM-dd HHmm | yyyy-MM-dd HHmm
+                if (!nextField()) {
+                    return fail("missing event start");
+                }
+                LocalDateTime since = parseDateTime(fieldStart, fieldEnd);
+                if (since == null) {
+                    return fail("bad start '" + text(fieldStart, fieldEnd) + "'");
+                }
+                if (!nextField()) {
+                    return fail("missing event end");
+                }
+                LocalDateTime until = parseDateTime(fieldStart, fieldEnd);
+                if (until == null) {
+                    return fail("bad end '" + text(fieldStart, fieldEnd) + "'");
+                }
+                t = new Event(desc, since, until, done);
+                break;
+            }
+            default:
+                t = new Todo(desc, done);
+                break;
+        }
+
+        // Optional trailing "#id"; files from before ids existed simply lack it
+        if (nextField() && fieldEnd - fieldStart > 1 && bytes[fieldStart] == '#') {
+            long id = longDigits(fieldStart + 1, fieldEnd - fieldStart - 1);
+            if (id > 0) {
+                t.setId(id);
+            }
+        }
+        return t;
+    }
+
+    /** @return why the last {@link #decode} call returned {@code null}, or {@code null} if the line was blank */
+    String error() {
+        return error;
+    }
+
+    /**
+     * Decodes every line in {@code bytes[from, to)}, skipping blank lines.
+     *
+     * @param out    receives the decoded tasks in order
+     * @param errors receives the reason and 1-based line number (relative to {@code from}) of every malformed line
+     * @return the number of lines in the range
+     */
+    int decodeLines(byte[] bytes, int from, int to, List<Task> out, ObjIntConsumer<String> errors) {
+        int lines = 0;
+        int lineStart = from;
+        while (lineStart < to) {
+            int eol = lineStart;
+            while (eol < to && bytes[eol] != '\n') {
+                eol++;
+            }
+            lines++;
+            Task t = decode(bytes, lineStart, eol);
+            if (t != null) {
+                out.add(t);
+            } else if (error != null) {
+                errors.accept(error, lines);
+            }
+            lineStart = eol + 1;
+        }
+        return lines;
+    }
+
+    /** Advances to the next {@code |}-separated field; returns {@code false} if there is none. */
+    private boolean nextField() {
+        if (pos > end) {
+            return false;
+        }
+        int s = pos;
+        int e = s;
+        while (e < end && bytes[e] != '|') {
+            e++;
+        }
+        pos = e + 1;
+        while (s < e && isSpace(bytes[s])) s++;
+        while (e > s && isSpace(bytes[e - 1])) e--;
+        fieldStart = s;
+        fieldEnd = e;
+        return true;
+    }
+
+    private LocalDate parseDate(int s, int e) {
+        if (e - s == 10 && bytes[s + 4] == '-' && bytes[s + 7] == '-') {
+            int y = digits(s, 4);
+            int m = digits(s + 5, 2);
+            int d = digits(s + 8, 2);
+            if ((y | m | d) >= 0) {
+                try {
+                    return LocalDate.of(y, m, d);
+                } catch (DateTimeException ex) {
+                    // let the formatter decide
+                }
+            }
+        }
+        try {
+            return LocalDate.parse(text(s, e), DATE);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    private LocalDateTime parseDateTime(int s, int e) {
+        if (e - s == 15 && bytes[s + 10] == ' ') {
+            LocalDate date = parseDate(s, s + 10);
+            int h = digits(s + 11, 2);
+            int min = digits(s + 13, 2);
+            if (date != null && (h | min) >= 0 && h < 24 && min < 60) {
+                return date.atTime(h, min);
+            }
+        }
+        String text = text(s, e);
+        try {
+            // Older versions saved events in ISO form (yyyy-MM-ddTHH:mm)
+            return text.indexOf('T') >= 0 ? LocalDateTime.parse(text) : LocalDateTime.parse(text, DTTM);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    /** @return the value of {@code n} decimal digits at {@code at}, or -1 if any is not a digit */
+    private int digits(int at, int n) {
+        int v = 0;
+        for (int i = at; i < at + n; i++) {
+            int c = bytes[i] - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    /** Like {@link #digits(int, int)} for ids of up to 18 digits; -1 if longer. */
+    private long longDigits(int at, int n) {
+        if (n > 18) return -1;
+        long v = 0;
+        for (int i = at; i < at + n; i++) {
+            int c = bytes[i] - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    private String text(int s, int e) {
+        return new String(bytes, s, e - s, StandardCharsets.UTF_8);
+    }
+
+    private Task fail(String reason) {
+        error = reason + " in \"" + text(start, end) + "\"";
+        return null;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+}
@@ -0,0 +1,245 @@
+package manbo.storage;
+
+import manbo.task.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link Storage} that writes on a single background thread instead of the caller's.
+ * <p>
+ * {@link #save(List)} only takes a snapshot of the list and marks it dirty; the writer
+ * thread then persists the most recent snapshot. Saves requested while the writer is
+ * lingering or busy replace the pending snapshot, so a burst of commands costs one
+ * rewrite instead of one per command.
+ * <p>
+ * Per-mutation hooks ({@link #saveAdded}, {@link #saveUpdated}, {@link #saveRemoved})
+ * are coalesced the same way rather than journaled, so write-behind and journal mode
+ * are alternatives. Call {@link #flush()} before relying on the file contents and
+ * {@link #close()} on exit; a JVM shutdown hook closes the storage as a last resort.
+ */
+public class WriteBehindStorage extends Storage {
+    /** Default time the writer waits after the first dirty mark, to collect a burst. */
+    private static final long DEFAULT_LINGER_MILLIS = 10;
+
+    private final Object lock = new Object();
+
+    /** Latest snapshot waiting to be written, or {@code null} if the file is up to date. */
+    private List<Task> pending;
+
+    /** Whether the writer thread is currently writing a snapshot. */
+    private boolean writing;
+
+    /** Once closed, saves bypass the writer and run synchronously. */
+    private boolean closed;
+
+    /** Background writer, started on the first save. */
+    private Thread writer;
+
+    private long lingerMillis = DEFAULT_LINGER_MILLIS;
+
+    /** Number of saves requested by callers, for comparison with the writes actually made. */
+    private long requestedSaves;
+
+    /**
+     * Creates a write-behind storage tied to the given file path.
+     *
+     * @param path the file path to use for persistence (e.g., "data/manbo.txt")
+     */
+    public WriteBehindStorage(String path) {
+        super(path);
+    }
+
+    /**
+     * Sets how long the writer waits after being woken before it writes,
+     * so that back-to-back saves are merged.
+     *
+     * @param millis linger time in milliseconds (0 writes as soon as possible)
+     */
+    public void setLingerMillis(long millis) {
+        assert millis >= 0 : "Linger time must not be negative";
+        this.lingerMillis = millis;
+    }
+
+    /** @return number of saves requested so far, whether or not they were merged */
+    public long getRequestedSaves() {
+        synchronized (lock) {
+            return requestedSaves;
+        }
+    }
+
+    /**
+     * Marks the tasks dirty and hands a snapshot to the writer thread.
+     * Returns without waiting for the disk.
+     * <p>
+     * The snapshot holds each task's {@link Task#snapshot() snapshot}, taken on the caller's
+     * thread, which owns the tasks, so the writer never reads a task while a later command
+     * changes it. Snapshots of unchanged tasks are reused, so only the tasks changed since
+     * the last save are copied.
+     *
+     * @param tasks the tasks to write
+     */
+    @Override
+    public void save(List<Task> tasks) {
+        assert tasks != null : "Tasks list must not be null";
+        // A lazily loaded list is snapshotted without decoding its untouched records
+        List<Task> backing = unwrap(tasks);
+        List<Task> snapshot;
+        if (backing instanceof MappedTaskList) {
+            snapshot = ((MappedTaskList) backing).snapshot();
+        } else {
+            snapshot = new ArrayList<>(tasks.size());
+            for (Task t : tasks) {
+                snapshot.add(t.snapshot());
+            }
+        }
+        synchronized (lock) {
+            requestedSaves++;
+            if (!closed) {
+                pending = snapshot;
+                startWriterIfNeeded();
+                lock.notifyAll();
+                return;
+            }
+        }
+        super.save(snapshot);
+    }
+
+    @Override
+    public void saveAdded(List<Task> tasks, Task added) {
+        save(tasks);
+    }
+
+    @Override
+    public void saveUpdated(List<Task> tasks, int index) {
+        save(tasks);
+    }
+
+    @Override
+    public void saveRemoved(List<Task> tasks, int index, Task removed) {
+        save(tasks);
+    }
+
+    /** Blocks until the writer has persisted every snapshot handed to it so far. */
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (pending != null || writing) {
+                if (pending != null && !closed) {
+                    startWriterIfNeeded(); // in case the last writer died
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        super.flush();
+    }
+
+    /** Flushes and stops the writer thread. Later saves are written synchronously. */
+    @Override
+    public void close() {
+        flush();
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        ShutdownHook.OPEN.remove(this);
+    }
+
+    private void startWriterIfNeeded() {
+        assert Thread.holdsLock(lock) : "Writer must be started under the lock";
+        if (writer != null) return;
+        writer = new Thread(this::runWriter, "manbo-writer");
+        writer.setDaemon(true);
+        writer.start();
+        ShutdownHook.OPEN.add(this);
+    }
+
+    /**
+     * Runs snapshots through {@link Storage#save(List)} until closed.
+     * A save that throws is reported and the writer carries on; if the thread dies anyway
+     * (e.g. an {@link Error}), it clears {@link #writer} so the next save starts a new one
+     * and {@link #flush()} never waits on a dead thread.
+     */
+    private void runWriter() {
+        try {
+            writeUntilClosed();
+        } finally {
+            synchronized (lock) {
+                writer = null;
+                writing = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void writeUntilClosed() {
+        while (true) {
+            synchronized (lock) {
+                while (pending == null && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // keep waiting; only close() stops the writer
+                    }
+                }
+                if (pending == null) {
+                    return; // closed and nothing left to write
+                }
+            }
+
+            linger();
+
+            List<Task> batch;
+            synchronized (lock) {
+                batch = pending;
+                pending = null;
+                writing = true;
+            }
+            try {
+                super.save(batch);
+            } catch (RuntimeException e) {
+                System.out.println("Error saving tasks: " + e);
+            } finally {
+                synchronized (lock) {
+                    writing = false;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void linger() {
+        if (lingerMillis == 0) return;
+        try {
+            Thread.sleep(lingerMillis);
+        } catch (InterruptedException e) {
+            // write now
+        }
+    }
+
+    /**
+     * Closes every write-behind storage still open when the JVM exits, as a last resort.
+     * Holds one hook for the whole process rather than one per storage.
+     */
+    private static final class ShutdownHook {
+        static final Set<WriteBehindStorage> OPEN = ConcurrentHashMap.newKeySet();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                for (WriteBehindStorage storage : new ArrayList<>(OPEN)) {
+                    storage.close();
+                }
+            }, "manbo-writer-shutdown"));
+        }
+    }
+}
@@ -14,9 +14,16 @@ public class Deadline extends Task {
         super(description, isDone);
         this.by = by;
     }
+    public LocalDate getBy() {
+        return by;
+    }
+    @Override
+    public Task copy() {
+        return copyStateTo(new Deadline(getDescription(), by, ifDone()));
+    }
     @Override
     public String toSaveFormat() {
-        return "D | " + (ifDone() ? "1" : "0") + " | " + getDescription() + " | " + by;
+        return "D | " + (ifDone() ? "1" : "0") + " | " + getDescription() + " | " + by + idSuffix();
     }
     @Override
     public String toString() {
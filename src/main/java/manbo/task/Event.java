@@ -6,6 +6,7 @@ public class Event extends Task {
     private LocalDateTime from;
     private LocalDateTime to;
     private static final DateTimeFormatter output = DateTimeFormatter.ofPattern("MMM d yyyy HH:mm");
+    private static final DateTimeFormatter SAVE = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
 
     public Event(String description, LocalDateTime from, LocalDateTime to) {
         super(description);
@@ -18,13 +19,25 @@ public class Event extends Task {
         this.to = to;
     }
 
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
     @Override
     public String toString() {
 
         return "[E]" + super.toString() + " (from: " + from.format(output) + " to: " + to.format(output) + ")";
     }
     @Override
+    public Task copy() {
+        return copyStateTo(new Event(getDescription(), from, to, ifDone()));
+    }
+    @Override
     public String toSaveFormat() {
-        return "E | " + (ifDone() ? "1" : "0") + " | " + getDescription()+ " | " + from + " | " + to;
+        return "E | " + (ifDone() ? "1" : "0") + " | " + getDescription()+ " | " + from.format(SAVE) + " | " + to.format(SAVE) + idSuffix();
     }
 }
@@ -4,6 +4,14 @@ public abstract class Task {
     // this kind of break info hiding
     private boolean isDone;
     private String description;
+    // set when the done flag changes, cleared once storage has written the change
+    private boolean isDirty;
+    // list whose counters follow this task's done flag; null if none
+    TaskList owner;
+    // persistent id, unique within its task list; 0 until the list assigns one
+    private long id;
+    // copy handed out by snapshot(); dropped whenever the done flag or id changes
+    private Task snapshot;
 
     public String getDescription() {
         return description;
@@ -23,12 +31,77 @@ public abstract class Task {
         this.isDone = isDone;
   }
     public abstract String toSaveFormat();// since we wont use task directly
+
+    /**
+     * Returns an independent task with the same description, done flag and id, outside any list.
+     * Write-behind storage saves copies, so its writer never reads a task that is still changing.
+     */
+    public abstract Task copy();
+
+    /** Gives {@code copy} this task's id and dirty flag; for {@link #copy()}. */
+    protected Task copyStateTo(Task copy) {
+        copy.id = id;
+        copy.isDirty = isDirty;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this task that the list never changes afterwards, reusing the previous one
+     * while the done flag and id stay the same. Write-behind storage snapshots a list this way,
+     * so each save copies only the tasks changed since the last one.
+     */
+    public Task snapshot() {
+        if (snapshot == null) {
+            snapshot = copy();
+        }
+        return snapshot;
+    }
+
     public void markAsDone(){
-        this.isDone = true;
+        if (!isDone) {
+            isDirty = true;
+            snapshot = null;
+            this.isDone = true;
+            if (owner != null) owner.doneChanged(this);
+        }
     }
 
     public void unmarkAsDone(){
-        this.isDone = false;
+        if (isDone) {
+            isDirty = true;
+            snapshot = null;
+            this.isDone = false;
+            if (owner != null) owner.doneChanged(this);
+        }
+    }
+
+    /** @return {@code true} if the done flag changed since storage last wrote this task */
+    public boolean isDirty() {
+        return isDirty;
+    }
+
+    /** Called by storage once the current done flag is on disk. */
+    public void clearDirty() {
+        this.isDirty = false;
+    }
+
+    /** @return the task's persistent id, or 0 if it has none yet */
+    public long getId() {
+        return id;
+    }
+
+    /** Called by storage when loading a saved id, and by a task list when assigning a new one. */
+    public void setId(long id) {
+        assert id > 0 : "Task ids must be positive";
+        if (this.id != id) {
+            snapshot = null;
+        }
+        this.id = id;
+    }
+
+    /** @return the id field that ends a saved record, or nothing if the task has no id yet */
+    protected String idSuffix() {
+        return id > 0 ? " | #" + id : "";
     }
 
     public String getStatus() {
@@ -0,0 +1,97 @@
+package manbo.task;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-type task totals and done counts, kept current as the list changes so that
+ * {@code stats} does not have to walk the list.
+ * <p>
+ * {@link TaskList} updates the counters on every add and remove, and tasks report
+ * their own mark/unmark through {@link Task#markAsDone()} and {@link Task#unmarkAsDone()}.
+ * {@link #verify(List)} recounts from scratch, for the self-check mode.
+ */
+public final class TaskCounters {
+    private int todos;
+    private int todosDone;
+    private int deadlines;
+    private int deadlinesDone;
+    private int events;
+    private int eventsDone;
+
+    /**
+     * Counts {@code tasks} in one pass.
+     *
+     * @param tasks the tasks to count
+     * @return counters for {@code tasks}
+     */
+    public static TaskCounters of(List<Task> tasks) {
+        TaskCounters c = new TaskCounters();
+        for (Task t : tasks) {
+            c.added(t);
+        }
+        return c;
+    }
+
+    void added(Task t) {
+        update(t, 1, t.ifDone() ? 1 : 0);
+    }
+
+    void removed(Task t) {
+        update(t, -1, t.ifDone() ? -1 : 0);
+    }
+
+    /** Records that the done flag of {@code t} has just flipped. */
+    void doneChanged(Task t) {
+        update(t, 0, t.ifDone() ? 1 : -1);
+    }
+
+    private void update(Task t, int count, int done) {
+        if (t instanceof Deadline) {
+            deadlines += count;
+            deadlinesDone += done;
+        } else if (t instanceof Event) {
+            events += count;
+            eventsDone += done;
+        } else {
+            assert t instanceof Todo : "Unknown task type: " + t.getClass();
+            todos += count;
+            todosDone += done;
+        }
+    }
+
+    /**
+     * Recounts {@code tasks} from scratch and fails if the incremental counts differ.
+     *
+     * @param tasks the tasks these counters are supposed to describe
+     * @throws AssertionError if the counts do not match
+     */
+    public void verify(List<Task> tasks) {
+        TaskCounters fresh = of(tasks);
+        if (!fresh.toString().equals(toString())) {
+            throw new AssertionError("Task counters out of sync: kept " + this + ", recounted " + fresh);
+        }
+    }
+
+    public int getTotal() { return todos + deadlines + events; }
+
+    public int getDone() { return todosDone + deadlinesDone + eventsDone; }
+
+    public int getTodos() { return todos; }
+
+    public int getTodosDone() { return todosDone; }
+
+    public int getDeadlines() { return deadlines; }
+
+    public int getDeadlinesDone() { return deadlinesDone; }
+
+    public int getEvents() { return events; }
+
+    public int getEventsDone() { return eventsDone; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "todos %d/%d, deadlines %d/%d, events %d/%d",
+                todosDone, todos, deadlinesDone, deadlines, eventsDone, events);
+    }
+}
@@ -1,35 +1,674 @@
 package manbo.task;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
-public class TaskList {
-    private final List<Task> tasks;
+import manbo.search.DeadlineQueue;
+import manbo.search.IntervalIndex;
+import manbo.search.TaskIdMap;
+import manbo.search.TrigramIndex;
+import manbo.search.WordIndex;
+
+/**
+ * The live task list, which keeps search indexes in step with its contents.
+ * <p>
+ * It is an ordinary mutable {@link List}, so commands can keep adding and removing tasks
+ * as before. Indexes are built on first use and then updated by {@link #add(int, Task)}
+ * and {@link #remove(int)}. Changes they cannot follow cheaply (inserting in the middle,
+ * replacing a task) drop the index, and the next query rebuilds it.
+ * <p>
+ * {@link #counters()} and {@link #deadlines()} work the same way. Once either is built, or a
+ * {@link TaskListener} is set, the list is also told about mark/unmark by the tasks themselves,
+ * which is why a task belongs to at most one such list.
+ * <p>
+ * Every task in the list has a persistent id, unique within the list, for {@code #id}
+ * references. Tasks loaded without one, and new tasks, get the next unused id when the
+ * id map is built, which happens on the first add, listing or id lookup.
+ * With {@code -Dmanbo.stats.selfCheck=true} the counters are recounted from scratch
+ * after every change and on every read, and any mismatch fails loudly.
+ * <p>
+ * Several sessions may share one list through {@link #read} and {@link #write}, which every
+ * command uses. Writes are exclusive. A read first runs optimistically, taking no lock, and
+ * its result is kept only if no write started meanwhile; otherwise it runs again under the
+ * write lock. Reads never hold a lock that writes wait for, so a steady stream of reads
+ * cannot starve writes. A read that would have to build an index, or that touches a lazily
+ * decoded list, runs under the write lock too, so indexes are only ever built by one
+ * thread. Both nest: reads and writes made while holding the write lock run directly, and
+ * a read of another list inside a read locks that list on its own. {@link #replaceWith}
+ * reloads a shared list in place.
+ * The other methods take no lock and are for code already inside {@link #read} or
+ * {@link #write}, or for a list only one thread uses.
+ */
+public class TaskList extends AbstractList<Task> implements RandomAccess {
+    /** Whether counters are cross-checked against a full recount after every change. */
+    private static final boolean SELF_CHECK = Boolean.getBoolean("manbo.stats.selfCheck");
+
+    private List<Task> tasks;
+
+    /** Interval tree over events for {@code agenda} and {@code conflicts}; {@code null} until needed. */
+    private IntervalIndex events;
+
+    /** Open deadlines by due date for {@code upcoming} and {@code overdue}; {@code null} until needed. */
+    private DeadlineQueue deadlines;
+
+    /** Outside observer of adds, removes and marks, e.g. the reminder scheduler; may be {@code null}. */
+    private TaskListener listener;
+
+    /** Id to task for {@code #id} references; {@code null} until needed. */
+    private TaskIdMap ids;
+
+    /** Smallest id not used by any task of the list so far. */
+    private long nextId = 1;
+
+    /** Per-type counts for {@code stats}; {@code null} until needed. */
+    private TaskCounters counters;
+
+    /** Word index for multi-word and short {@link #find(String)} keywords; {@code null} until needed. */
+    private WordIndex words;
+
+    /** Trigram index for single-word {@link #find(String)} keywords; {@code null} until needed. */
+    private TrigramIndex trigrams;
+
+    /** Guards the list, its indexes and its tasks' done flags for {@link #read} and {@link #write}. */
+    private final StampedLock lock = new StampedLock();
+
+    /** Thread holding the write lock, whose nested reads and writes run without locking again. */
+    private Thread writer;
+
+    /** Whether the thread is inside an unlocked {@link #read} of this list, where nothing may be built. */
+    private final ThreadLocal<Boolean> reading = ThreadLocal.withInitial(() -> false);
+
+    /** A change to the list made under {@link #write}. */
+    @FunctionalInterface
+    public interface Mutation<E extends Exception> {
+        void run() throws E;
+    }
+
+    /** Unwinds a {@link #read} that needs an index built, so it can be retried as a write. */
+    private static final class NeedsWrite extends RuntimeException {
+        static final NeedsWrite INSTANCE = new NeedsWrite();
+
+        private NeedsWrite() {
+            super(null, null, false, false);
+        }
+    }
 
     public TaskList() {
         this.tasks = new ArrayList<>();
     }
 
     public TaskList(List<Task> existing) {
-        this.tasks = new ArrayList<>(existing);
+        this(existing, true);
+    }
+
+    private TaskList(List<Task> existing, boolean copy) {
+        this.tasks = copy ? new ArrayList<>(existing) : existing;
+    }
+
+    /**
+     * Wraps {@code backing} without copying it, e.g. a freshly loaded list.
+     * The backing list must not be modified other than through the returned list.
+     *
+     * @param backing the list holding the tasks
+     * @return a task list over {@code backing}
+     */
+    public static TaskList backedBy(List<Task> backing) {
+        assert backing != null : "Backing list must not be null";
+        return backing instanceof TaskList ? (TaskList) backing : new TaskList(backing, false);
     }
 
+    /**
+     * Runs a query that only reads the list, alongside other readers.
+     * <p>
+     * The query first runs without a lock and may then see a write half done, so it may
+     * fail or return nonsense; both are thrown away if a write overlapped it, and it runs
+     * again under the write lock. It must therefore have no side effects: compute the
+     * answer here and show it afterwards.
+     *
+     * @param query reads the list and returns what the caller needs from it
+     * @return the query's result, as of a moment when no write was in progress
+     */
+    public <T> T read(Supplier<? extends T> query) {
+        if (writer == Thread.currentThread() || reading.get()) {
+            return query.get(); // already inside a write or a read of this list
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        // A lazily loaded list decodes as it is read, so it is only read under the write lock
+        if (stamp != 0 && tasks instanceof ArrayList) {
+            reading.set(true);
+            try {
+                T result = query.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (NeedsWrite e) {
+                // retried below
+            } catch (RuntimeException | AssertionError e) {
+                if (lock.validate(stamp)) {
+                    throw e; // a genuine failure, not a torn read
+                }
+            } finally {
+                reading.set(false);
+            }
+        }
+        return writeAndGet(query);
+    }
+
+    /**
+     * Runs a change to the list, or to its tasks, with no other reader or writer active.
+     *
+     * @param mutation the change, including any save and reply that must match it
+     * @throws E whatever {@code mutation} throws
+     */
+    public <E extends Exception> void write(Mutation<E> mutation) throws E {
+        if (writer == Thread.currentThread()) {
+            mutation.run();
+            return;
+        }
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        try {
+            mutation.run();
+        } finally {
+            writer = null;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private <T> T writeAndGet(Supplier<? extends T> query) {
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        try {
+            return query.get();
+        } finally {
+            writer = null;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Called before building an index; a reader must leave that to a writer. */
+    private void building() {
+        if (reading.get()) {
+            throw NeedsWrite.INSTANCE;
+        }
+    }
+
+    /** @return a copy of the tasks in order, e.g. for a query to hand out */
+    public List<Task> snapshot() {
+        return new ArrayList<>(tasks);
+    }
+
+    /** @return the list this one wraps, e.g. for storage to recognise its own list types */
+    public List<Task> backing() {
+        return tasks;
+    }
+
+    @Override
     public int size() { return tasks.size(); }
 
-    public Task get(int index0) { return tasks.get(index0); }
+    /**
+     * Returns the task at {@code index0}. While something tracks mark/unmark, the task is
+     * claimed here on its way out, so tasks are claimed as they are read rather than all at
+     * once, which would decode every task of a lazily loaded list.
+     */
+    @Override
+    public Task get(int index0) {
+        Task t = tasks.get(index0);
+        claim(t);
+        return t;
+    }
+
+    @Override
+    public void add(int index0, Task t) {
+        assert t != null : "Task must not be null";
+        tasks.add(index0, t);
+        modCount++;
+        if (ids == null) {
+            assignIds(); // also covers t
+        } else {
+            register(t);
+        }
+        adopt(t);
+        selfCheck();
+        if (events != null) {
+            events.add(t); // ordered by time, so the position does not matter
+        }
+        if (index0 != tasks.size() - 1) {
+            dropIndexes();
+            return;
+        }
+        if (words != null) {
+            words.append(t);
+        }
+        if (trigrams != null) {
+            trigrams.append(t);
+        }
+    }
 
-    public void add(Task t) { tasks.add(t); }
+    @Override
+    public Task set(int index0, Task t) {
+        Task old = tasks.set(index0, t);
+        if (ids != null) {
+            unregister(old);
+            register(t);
+        }
+        release(old);
+        adopt(t);
+        selfCheck();
+        if (events != null) {
+            events.remove(old);
+            events.add(t);
+        }
+        dropIndexes();
+        return old;
+    }
 
+    @Override
     public Task remove(int index0) {
-        return tasks.remove(index0);
+        Task removed = tasks.remove(index0);
+        modCount++;
+        if (ids != null) {
+            unregister(removed);
+        }
+        release(removed);
+        selfCheck();
+        if (events != null) {
+            events.remove(removed);
+        }
+        if (words != null) {
+            words.remove(index0);
+            if (words.needsRebuild()) {
+                words = null;
+            }
+        }
+        if (trigrams != null) {
+            trigrams.remove(index0);
+            if (trigrams.needsRebuild()) {
+                trigrams = null;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the tasks at several positions in one pass, closing the gaps as it goes,
+     * instead of shifting the tail of the list once per task.
+     *
+     * @param positions the positions to remove, ascending and distinct
+     * @return the removed tasks, in list order
+     */
+    public List<Task> removeAt(int[] positions) {
+        List<Task> removed = new ArrayList<>(positions.length);
+        if (positions.length == 0) {
+            return removed;
+        }
+        int size = tasks.size();
+        assert positions[0] >= 0 && positions[positions.length - 1] < size : "Removed position out of range";
+        if (tasks instanceof ArrayList) {
+            int w = positions[0];
+            int p = 0;
+            for (int r = positions[0]; r < size; r++) {
+                Task t = tasks.get(r);
+                if (p < positions.length && positions[p] == r) {
+                    removed.add(t);
+                    p++;
+                } else {
+                    tasks.set(w++, t);
+                }
+            }
+            tasks.subList(w, size).clear();
+        } else {
+            // e.g. a lazily loaded list, which must not decode the tasks it shifts
+            for (int i = positions.length - 1; i >= 0; i--) {
+                removed.add(tasks.remove(positions[i]));
+            }
+            Collections.reverse(removed);
+        }
+        modCount++;
+
+        for (Task t : removed) {
+            if (ids != null) {
+                unregister(t);
+            }
+            release(t);
+            if (events != null) {
+                events.remove(t);
+            }
+        }
+        selfCheck();
+        if (words != null) {
+            words.removeAll(positions);
+            if (words.needsRebuild()) {
+                words = null;
+            }
+        }
+        if (trigrams != null) {
+            trigrams.removeAll(positions);
+            if (trigrams.needsRebuild()) {
+                trigrams = null;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        if (tracksDone()) {
+            for (Task t : tasks) {
+                release(t);
+            }
+        }
+        tasks.clear();
+        modCount++;
+        if (ids != null) {
+            ids = new TaskIdMap(0); // nextId stays, so ids are not handed out twice
+        }
+        events = null;
+        dropIndexes();
+    }
+
+    /**
+     * Replaces every task with those of {@code loaded}, which the list then wraps without
+     * copying, as {@link #backedBy} does. Ids are taken from the new tasks, indexes are
+     * rebuilt on first use, and a listener is told about each task leaving and joining.
+     * Sessions sharing the list see the new tasks; call it inside {@link #write}.
+     *
+     * @param loaded the tasks to hold from now on, e.g. a freshly loaded list
+     */
+    public void replaceWith(List<Task> loaded) {
+        assert loaded != null : "Loaded list must not be null";
+        clear();
+        tasks = loaded instanceof TaskList ? ((TaskList) loaded).tasks : loaded;
+        modCount++;
+        ids = null;
+        nextId = 1;
+        counters = null;
+        deadlines = null;
+        if (listener != null) {
+            for (Task t : tasks) {
+                t.owner = this;
+                listener.added(t);
+            }
+        }
+    }
+
+    /**
+     * Returns the per-type task counts, counting the list once on first use and
+     * keeping the counts current from then on.
+     *
+     * @return the live counters of this list
+     */
+    public TaskCounters counters() {
+        if (counters == null) {
+            building();
+            claimAll();
+            counters = TaskCounters.of(tasks);
+        }
+        selfCheck();
+        return counters;
+    }
+
+    /**
+     * Returns the open deadlines ordered by due date, collecting them on first use and
+     * keeping them current from then on.
+     *
+     * @return the live deadline queue of this list
+     */
+    public DeadlineQueue deadlines() {
+        if (deadlines == null) {
+            building();
+            claimAll();
+            deadlines = new DeadlineQueue(tasks);
+        }
+        return deadlines;
+    }
+
+    /**
+     * Sets the listener told about every later add, remove, mark and unmark.
+     * Tasks already in the list are not reported; the caller walks the list for those.
+     * A task already in the list reports its mark/unmark once it has been read through
+     * {@link #get}, which is how commands and such a walk reach it, so setting a listener
+     * does not touch every task.
+     *
+     * @param listener the listener, or {@code null} to stop reporting
+     */
+    public void setListener(TaskListener listener) {
+        this.listener = listener;
+    }
+
+    /** Called by a task of this list whose done flag has just flipped. */
+    void doneChanged(Task t) {
+        assert t.owner == this : "Task reported a change to a list it is not in";
+        if (counters != null) {
+            counters.doneChanged(t);
+            selfCheck();
+        }
+        if (deadlines != null) {
+            deadlines.doneChanged(t);
+        }
+        if (listener != null) {
+            listener.doneChanged(t);
+        }
     }
 
-    public void addAll(List<Task> more) {
-        tasks.addAll(more);
+    /** @return whether some structure needs to hear about mark/unmark */
+    private boolean tracksDone() {
+        return counters != null || deadlines != null || listener != null;
+    }
+
+    /**
+     * Makes {@code t}, which is in the list, report mark/unmark here if anything listens.
+     * Not in an unlocked read, where {@code t} may be leaving the list; only writes mark tasks.
+     */
+    private void claim(Task t) {
+        if (t.owner == null && tracksDone() && !reading.get()) {
+            t.owner = this;
+        }
+    }
+
+    /** Makes every task report mark/unmark to this list; for indexes that visit every task anyway. */
+    private void claimAll() {
+        if (!tracksDone()) {
+            for (Task t : tasks) {
+                t.owner = this;
+            }
+        }
+    }
+
+    /** Counts, queues and reports {@code t}, which has just joined the list. */
+    private void adopt(Task t) {
+        if (!tracksDone()) return;
+        t.owner = this;
+        if (counters != null) {
+            counters.added(t);
+        }
+        if (deadlines != null) {
+            deadlines.add(t);
+        }
+        if (listener != null) {
+            listener.added(t);
+        }
+    }
+
+    /** Uncounts, dequeues and reports {@code t}, which is leaving the list. */
+    private void release(Task t) {
+        if (!tracksDone()) return;
+        if (counters != null) {
+            counters.removed(t);
+        }
+        if (deadlines != null) {
+            deadlines.remove(t);
+        }
+        if (listener != null) {
+            listener.removed(t);
+        }
+        if (t.owner == this) {
+            t.owner = null;
+        }
+    }
+
+    private void selfCheck() {
+        if (SELF_CHECK && counters != null) {
+            counters.verify(tasks);
+        }
+    }
+
+    /**
+     * Gives every task without an id the next unused one, building the id map on first use.
+     * A listing calls this so that the ids it shows are the ones {@code #id} accepts.
+     */
+    public void assignIds() {
+        if (ids != null) return;
+        building();
+        ids = new TaskIdMap(tasks.size());
+        for (Task t : tasks) {
+            nextId = Math.max(nextId, t.getId() + 1);
+        }
+        for (Task t : tasks) {
+            register(t);
+        }
+    }
+
+    /**
+     * Finds a task by id in O(1).
+     *
+     * @param id the task's id
+     * @return the task, or {@code null} if no task of the list has {@code id}
+     */
+    public Task byId(long id) {
+        assignIds();
+        Task t = ids.get(id);
+        if (t != null) {
+            claim(t); // e.g. for "mark #3", as get() does for "mark 3"
+        }
+        return t;
+    }
+
+    /**
+     * Finds the position of the task with {@code id}. The task itself is found in O(1);
+     * its position is then found by reference, as positions shift on every delete.
+     *
+     * @param id the task's id
+     * @return the 0-based position, or -1 if no task of the list has {@code id}
+     */
+    public int indexOfId(long id) {
+        Task t = byId(id);
+        if (t == null) return -1;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i) == t) return i;
+        }
+        throw new IllegalStateException("Task #" + id + " is mapped but not in the list");
+    }
+
+    /** Maps {@code t} by its id, giving it a fresh one if it has none or its id is taken. */
+    private void register(Task t) {
+        long id = t.getId();
+        if (id <= 0 || ids.get(id) != null && ids.get(id) != t) {
+            id = nextId;
+            t.setId(id);
+        }
+        ids.put(id, t);
+        nextId = Math.max(nextId, id + 1);
+    }
+
+    private void unregister(Task t) {
+        if (ids.get(t.getId()) == t) {
+            ids.remove(t.getId());
+        }
+    }
+
+    /**
+     * Returns the interval tree over this list's events, building it on first use.
+     *
+     * @return the live event index of this list
+     */
+    public IntervalIndex events() {
+        if (events == null) {
+            building();
+            events = new IntervalIndex(tasks);
+        }
+        return events;
+    }
+
+    /** Forgets the position-based search indexes; each is rebuilt by the next query that needs it. */
+    private void dropIndexes() {
+        words = null;
+        trigrams = null;
     }
 
     public List<Task> all() {
         return Collections.unmodifiableList(tasks);
     }
+
+    /**
+     * Finds tasks whose description contains {@code keyword}, ignoring case.
+     * Same results as scanning every description, but answered from an index:
+     * a single word of at least three characters, which may sit anywhere inside a
+     * longer word, goes to the trigram index; anything else to the word index.
+     *
+     * @param keyword the search text
+     * @return matching tasks in list order
+     */
+    public List<Task> find(String keyword) {
+        String k = keyword.trim().toLowerCase(Locale.ROOT);
+        if (k.length() >= TrigramIndex.GRAM && isSingleWord(k)) {
+            if (trigrams == null) {
+                building();
+                trigrams = new TrigramIndex(tasks);
+            }
+            return trigrams.find(k);
+        }
+        if (words == null) {
+            building();
+            words = new WordIndex(tasks);
+        }
+        List<Task> matches = words.find(k);
+        return matches != null ? matches : scan(tasks, k);
+    }
+
+    /**
+     * Describes the memory used by the trigram index, for {@code stats}.
+     *
+     * @return a one-line summary, or {@code "not built"} if no query has needed it yet
+     */
+    public String describeSearchIndex() {
+        return trigrams == null ? "not built" : trigrams.toString();
+    }
+
+    private static boolean isSingleWord(String k) {
+        for (int i = 0; i < k.length(); ) {
+            int cp = k.codePointAt(i);
+            if (!Character.isLetterOrDigit(cp)) return false;
+            i += Character.charCount(cp);
+        }
+        return true;
+    }
+
+    /**
+     * Finds tasks by checking every description; used for lists without an index
+     * and for keywords made only of punctuation.
+     *
+     * @param tasks   the tasks to search
+     * @param keyword the lower-cased, trimmed search text
+     * @return matching tasks in list order
+     */
+    public static List<Task> scan(List<Task> tasks, String keyword) {
+        List<Task> matches = new ArrayList<>();
+        for (Task t : tasks) {
+            assert t != null : "Task list contains null";
+            String desc = t.getDescription();
+            assert desc != null : "Task description must not be null";
+            if (desc.toLowerCase(Locale.ROOT).contains(keyword)) {
+                matches.add(t);
+            }
+        }
+        return matches;
+    }
 }
@@ -0,0 +1,16 @@
+package manbo.task;
+
+/**
+ * Hears about changes to a {@link TaskList}, on the thread that makes them.
+ * Implementations should return quickly, e.g. by handing the change to a worker thread.
+ */
+public interface TaskListener {
+    /** {@code t} has joined the list. */
+    void added(Task t);
+
+    /** {@code t} has left the list. */
+    void removed(Task t);
+
+    /** The done flag of {@code t}, which is in the list, has just flipped. */
+    void doneChanged(Task t);
+}
@@ -9,8 +9,12 @@ public class Todo extends Task {
         super(description, isDone);
     }
     @Override
+    public Task copy() {
+        return copyStateTo(new Todo(getDescription(), ifDone()));
+    }
+    @Override
     public String toSaveFormat() {
-        return "T | "+(ifDone() ? "1" : "0") + " | " + getDescription();
+        return "T | "+(ifDone() ? "1" : "0") + " | " + getDescription() + idSuffix();
     }
 
     @Override
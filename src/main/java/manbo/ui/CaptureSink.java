@@ -0,0 +1,37 @@
+package manbo.ui;
+
+/**
+ * A {@link UiSink} that keeps the current reply in memory for {@link Ui#out()}, as the GUI
+ * shows replies in its own widgets. The caller clears it before each command; a buffer
+ * grown large by one big reply is then dropped instead of being held for the session.
+ */
+public class CaptureSink implements UiSink {
+    /** Capacity above which a cleared buffer is replaced rather than reused. */
+    private static final int KEEP_CHARS = 64 * 1024;
+
+    private StringBuilder buf = new StringBuilder();
+
+    @Override
+    public void write(String s) {
+        buf.append(s);
+    }
+
+    @Override
+    public void newLine() {
+        buf.append('\n');
+    }
+
+    @Override
+    public String captured() {
+        return buf.toString();
+    }
+
+    @Override
+    public void clear() {
+        if (buf.capacity() > KEEP_CHARS) {
+            buf = new StringBuilder();
+        } else {
+            buf.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package manbo.ui;
+
+import java.io.PrintStream;
+
+/**
+ * A {@link UiSink} that prints to a console stream in large writes.
+ * <p>
+ * {@code System.out} is an autoflushing, synchronized stream, so printing a reply line by
+ * line costs a lock and a write per line. Here lines collect in a buffer that is printed in
+ * one call when the reply is {@link #flush()}ed, or early once it holds
+ * {@link #CHUNK_CHARS}, so a huge {@code list} neither writes per line nor sits in memory
+ * whole. Nothing is kept once printed. A flush holds the stream's lock, so reminders
+ * printed from another thread do not land inside a chunk.
+ */
+public class ConsoleSink implements UiSink {
+    /** Buffered characters at which a reply is printed before it is complete. */
+    static final int CHUNK_CHARS = 8192;
+
+    private final PrintStream stream;
+    private final StringBuilder buf = new StringBuilder(CHUNK_CHARS + 256);
+
+    /** Creates a sink printing to {@code System.out}. */
+    public ConsoleSink() {
+        this(System.out);
+    }
+
+    /**
+     * Creates a sink printing to {@code stream}.
+     *
+     * @param stream where replies go
+     */
+    public ConsoleSink(PrintStream stream) {
+        assert stream != null : "Stream must not be null";
+        this.stream = stream;
+    }
+
+    @Override
+    public void write(String s) {
+        buf.append(s);
+    }
+
+    @Override
+    public void newLine() {
+        buf.append(System.lineSeparator());
+        if (buf.length() >= CHUNK_CHARS) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (buf.length() == 0) return;
+        synchronized (stream) {
+            stream.append(buf);
+            stream.flush();
+        }
+        buf.setLength(0);
+    }
+}
@@ -0,0 +1,15 @@
+package manbo.ui;
+
+/** A {@link UiSink} that drops everything, for quiet batch runs and benchmarks. */
+public final class NullSink implements UiSink {
+    /** The shared instance; the sink has no state. */
+    public static final NullSink INSTANCE = new NullSink();
+
+    private NullSink() { }
+
+    @Override
+    public void write(String s) { }
+
+    @Override
+    public void newLine() { }
+}
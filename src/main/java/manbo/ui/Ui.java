@@ -6,7 +6,7 @@ import manbo.task.Task;
 
 public class Ui {
     private final Scanner in = new Scanner(System.in);
-    private final StringBuilder buf = new StringBuilder();   // <-- NEW
+    private UiSink sink;
 
     private static final String LINE = "____________________________________________________________";
     private final String logo =
@@ -16,10 +16,29 @@ public class Ui {
                     "| |  | |/ ___ \\| |\\  | |_) | |_| | \n" +
                     "|_|  |_/_/   \\_\\_| \\_|____/ \\___/  \n";
 
-    // --- Buffer helpers (NEW) ---
-    public void reset() { buf.setLength(0); }
-    public String out() { return buf.toString(); }
-    private void p(String s) { System.out.println(s); buf.append(s).append('\n'); }
+    /** Creates a UI that keeps each reply for {@link #out()}, as the GUI and tests use it. */
+    public Ui() { this(new CaptureSink()); }
+
+    /** @param sink where replies are written */
+    public Ui(UiSink sink) { setSink(sink); }
+
+    /** Sends later replies to {@code sink}, e.g. a {@link ConsoleSink} for the CLI. */
+    public void setSink(UiSink sink) {
+        assert sink != null : "Sink must not be null";
+        this.sink = sink;
+    }
+
+    // --- Reply helpers ---
+    /** Forgets the captured reply; call before each command when reading {@link #out()}. */
+    public void reset() { sink.clear(); }
+    /** @return the reply captured since the last reset, or "" if the sink does not capture */
+    public String out() { return sink.captured(); }
+    /** Delivers the reply written so far, e.g. prints it to the console in one write. */
+    public void render() { sink.flush(); }
+    private void p(String s) {
+        sink.write(s);
+        sink.newLine();
+    }
     // -----------------------------
 
     public void showWelcome() {
@@ -49,7 +68,17 @@ public class Ui {
         showLine();
         p(" Here are the tasks in your list:");
         for (int i = 0; i < tasks.size(); i++) {
-            p(" " + (i + 1) + "." + tasks.get(i));
+            Task t = tasks.get(i);
+            // written in pieces, so no line string is built per task
+            sink.write(" ");
+            sink.write(Integer.toString(i + 1));
+            sink.write(".");
+            sink.write(t.toString());
+            if (t.getId() > 0) {
+                sink.write("  #");
+                sink.write(Long.toString(t.getId()));
+            }
+            sink.newLine();
         }
         showLine();
     }
@@ -68,5 +97,34 @@ public class Ui {
         showLine();
     }
 
+    public void showTasks(List<? extends Task> tasks, String heading, String whenEmpty) {
+        showLine();
+        if (tasks.isEmpty()) {
+            p(whenEmpty);
+            showLine();
+            return;
+        }
+        p(heading);
+        for (int i = 0; i < tasks.size(); i++) {
+            p(" " + (i + 1) + "." + tasks.get(i));
+        }
+        showLine();
+    }
+
+    /**
+     * Prints a reminder pushed by the reminder thread. It is not added to the reply buffer,
+     * which belongs to the command being handled, and lines are printed together so they
+     * do not interleave with other output.
+     *
+     * @param msg the reminder text
+     */
+    public void showReminder(String msg) {
+        synchronized (System.out) {
+            System.out.println(LINE);
+            System.out.println(" " + msg);
+            System.out.println(LINE);
+        }
+    }
+
     public void sayBye() { p(" Bye. Hope to see you again soon!"); }
 }
@@ -0,0 +1,26 @@
+package manbo.ui;
+
+/**
+ * Where {@link Ui} writes its replies.
+ * <p>
+ * A reply is written as pieces and line ends, then {@link #flush()}ed once when the command
+ * is done, so a sink can batch a whole reply into one write. {@link ConsoleSink} prints to
+ * the console, {@link CaptureSink} keeps the current reply for {@link Ui#out()} (the GUI and
+ * tests), and {@link NullSink} drops everything, for quiet runs and benchmarks.
+ */
+public interface UiSink {
+    /** Appends {@code s} to the current line. */
+    void write(String s);
+
+    /** Ends the current line. */
+    void newLine();
+
+    /** Delivers everything written since the last flush. */
+    default void flush() { }
+
+    /** @return the text written since the last {@link #clear()}, if this sink keeps it; else "" */
+    default String captured() { return ""; }
+
+    /** Forgets the captured text, if any. */
+    default void clear() { }
+}
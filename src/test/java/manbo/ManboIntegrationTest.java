@@ -1,10 +1,18 @@
 package manbo;
 
+import manbo.exceptions.ManboException;
+import manbo.storage.Storage;
+import manbo.task.TaskList;
 import org.junit.jupiter.api.*;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,6 +24,9 @@ public class ManboIntegrationTest {
 
     private static final Path DATA_FILE = Path.of("data", "manbo.txt");
 
+    /** Apps opened by the current test; closed afterwards so their writers finish first. */
+    private final List<Manbo> apps = new ArrayList<>();
+
     @BeforeEach
     void cleanBefore() throws Exception {
         // Ensure tests start from a clean slate; ignore if file/dir don't exist.
@@ -28,6 +39,10 @@ public class ManboIntegrationTest {
 
     @AfterEach
     void cleanAfter() throws Exception {
+        for (Manbo app : apps) {
+            app.close();
+        }
+        apps.clear();
         // Optional cleanup to keep the workspace tidy for other tests.
         if (Files.exists(DATA_FILE)) {
             Files.delete(DATA_FILE);
@@ -35,9 +50,15 @@ public class ManboIntegrationTest {
         // Don't delete the directory so repeated runs are fine.
     }
 
+    private Manbo open() {
+        Manbo app = new Manbo();
+        apps.add(app);
+        return app;
+    }
+
     @Test
     void addTodo_thenList_showsOneTask() {
-        Manbo app = new Manbo();
+        Manbo app = open();
 
         Manbo.Reply r1 = app.handle("todo read book");
         assertFalse(r1.isExit);
@@ -56,7 +77,7 @@ public class ManboIntegrationTest {
 
     @Test
     void mark_thenUnmark_toggles_done_state_in_output() {
-        Manbo app = new Manbo();
+        Manbo app = open();
 
         app.handle("todo task A");
         Manbo.Reply mark = app.handle("mark 1");
@@ -82,7 +103,7 @@ public class ManboIntegrationTest {
 
     @Test
     void delete_removes_task() {
-        Manbo app = new Manbo();
+        Manbo app = open();
 
         app.handle("todo one");
         app.handle("todo two");
@@ -99,7 +120,7 @@ public class ManboIntegrationTest {
 
     @Test
     void bye_sets_isExit_true() {
-        Manbo app = new Manbo();
+        Manbo app = open();
         Manbo.Reply bye = app.handle("bye");
         assertTrue(bye.isExit, "bye should signal exit");
         assertNotNull(bye.text);
@@ -107,7 +128,7 @@ public class ManboIntegrationTest {
 
     @Test
     void invalid_command_returns_error_text_but_not_exit() {
-        Manbo app = new Manbo();
+        Manbo app = open();
         Manbo.Reply r = app.handle("nonsenseCommand");
 
         assertFalse(r.isExit, "Invalid commands should not exit the app");
@@ -121,9 +142,29 @@ public class ManboIntegrationTest {
                 "Reply should not just echo the command without explanation");
     }
 
+    @Test
+    void reply_classifiesErrorsAndRunsEachInputOnce() {
+        Manbo app = open();
+
+        Manbo.Reply added = app.handle("todo once");
+        assertEquals(Manbo.Reply.ErrorKind.NONE, added.errorKind);
+        assertFalse(added.isError());
+        assertTrue(added.elapsedNanos >= 0);
+        assertEquals(Manbo.Reply.ErrorKind.UNRECOGNISED, app.handle("frobnicate").errorKind);
+        assertEquals(Manbo.Reply.ErrorKind.INVALID, app.handle("mark 9").errorKind);
+        assertEquals(Manbo.Reply.ErrorKind.INVALID, app.handle("mark 99999999999").errorKind,
+                "An index too long for an int is invalid input, not a crash");
+        assertEquals(Manbo.Reply.ErrorKind.INVALID, app.handle("todo").errorKind);
+
+        Manbo.Reply group = app.handle("list; bye");
+        assertTrue(group.isExit, "An exit at the end of a group should be reported");
+        String list = app.handle("list").text;
+        assertEquals(list.indexOf("once"), list.lastIndexOf("once"), "The todo should be added once: " + list);
+    }
+
     @Test
     void add_multiple_then_list_order_is_fifo_by_default() {
-        Manbo app = new Manbo();
+        Manbo app = open();
 
         app.handle("todo alpha");
         app.handle("todo beta");
@@ -142,10 +183,131 @@ public class ManboIntegrationTest {
      */
     @Test
     void storage_file_is_created_when_tasks_are_saved() {
-        Manbo app = new Manbo();
+        Manbo app = open();
         app.handle("todo persist me");
+        app.close();
 
         File f = DATA_FILE.toFile();
         assertTrue(f.exists() && f.length() >= 0L, "Expected data/manbo.txt to exist after a write");
     }
+
+    @Test
+    void batch_reportsFailuresAndSavesTheRestOnce() throws Exception {
+        String commands = "# imported\n"
+                + "todo one\n"
+                + "\n"
+                + "mark 9\n"
+                + "deadline two /by 2030-01-02\n"
+                + "mark 1\n";
+        boolean ok = new Manbo().runBatch(
+                new BufferedReader(new StringReader(commands)), false, true, false);
+
+        assertFalse(ok, "A failed command should fail the batch");
+        List<String> saved = Files.readAllLines(DATA_FILE);
+        assertTrue(saved.stream().anyMatch(l -> l.startsWith("D | 0 | two")),
+                "Later commands should still run: " + saved);
+        assertTrue(saved.stream().anyMatch(l -> l.startsWith("T | 1 | one")),
+                "Marks should be saved too: " + saved);
+    }
+
+    @Test
+    void batch_countsOversizedIndexAsAFailureAndStillSaves() throws Exception {
+        String commands = "todo one\nmark 99999999999\ntodo two\n";
+        boolean ok = new Manbo().runBatch(
+                new BufferedReader(new StringReader(commands)), false, true, false);
+
+        assertFalse(ok, "An invalid index should fail the batch");
+        List<String> saved = Files.readAllLines(DATA_FILE);
+        assertEquals(2, saved.size(), "The other lines should still be saved: " + saved);
+    }
+
+    @Test
+    void transactionalBatch_savesNothingAfterAFailure() throws Exception {
+        String before = "T | 0 | existing | #1\n";
+        Files.writeString(DATA_FILE, before);
+
+        String commands = "todo new\nfrobnicate\ntodo never\n";
+        boolean ok = new Manbo().runBatch(
+                new BufferedReader(new StringReader(commands)), true, true, false);
+
+        assertFalse(ok);
+        assertEquals(before, Files.readString(DATA_FILE), "The file should be left as it was");
+    }
+
+    @Test
+    void load_keepsSavedTasksForHandle() throws Exception {
+        Files.writeString(DATA_FILE, "T | 0 | existing | #1\nD | 1 | report | 2030-01-02 | #2\n");
+        Manbo app = open();
+
+        long[] last = { -1, -1 };
+        int count = app.load((loaded, total) -> {
+            assertTrue(loaded >= last[0], "Progress should not go back");
+            last[0] = loaded;
+            last[1] = total;
+        });
+        app.handle("todo new");
+        app.close();
+
+        assertEquals(2, count);
+        assertEquals(last[1], last[0], "Progress should end at the file size");
+        List<String> saved = Files.readAllLines(DATA_FILE);
+        assertEquals(3, saved.size(), "Loaded tasks should survive the first save: " + saved);
+        assertTrue(saved.get(0).startsWith("T | 0 | existing"));
+    }
+
+    @Test
+    void journal_keepsIdsOfTasksSavedWithoutThemAcrossRestarts() throws Exception {
+        Files.writeString(DATA_FILE, "T | 0 | one\nT | 0 | two\n");
+        System.setProperty("manbo.journal", "true");
+        try {
+            Manbo first = open();
+            first.load(Storage.LoadProgress.NONE);
+            String before = first.handle("list").text;
+            assertTrue(before.contains("one  #1") && before.contains("two  #2"), before);
+            first.handle("todo newer");
+            first.handle("mark #2");
+            first.close();
+
+            Manbo second = open();
+            second.load(Storage.LoadProgress.NONE);
+            String after = second.handle("list").text;
+            assertTrue(after.contains("one  #1") && after.contains("[X] two  #2") && after.contains("newer  #3"),
+                    "Ids should survive the restart: " + after);
+        } finally {
+            System.clearProperty("manbo.journal");
+        }
+    }
+
+    @Test
+    void load_failureRefusesInputAndKeepsTheFile() throws Exception {
+        // A binary task file of a version this build cannot read
+        byte[] unreadable = ByteBuffer.allocate(10).putInt(0x894D4E42).putShort((short) 99).putInt(1).array();
+        Files.write(DATA_FILE, unreadable);
+        Manbo app = open();
+
+        assertThrows(ManboException.class, () -> app.load(Storage.LoadProgress.NONE));
+        Manbo.Reply r = app.handle("todo overwrite");
+        assertTrue(r.isError(), "Input should be refused after a failed load");
+        app.close();
+
+        assertArrayEquals(unreadable, Files.readAllBytes(DATA_FILE), "The file should be left as it was");
+    }
+
+    @Test
+    void sharedList_reloadsInPlaceForEverySession() throws Exception {
+        Files.writeString(DATA_FILE, "T | 0 | existing | #1\n");
+        TaskList shared = new TaskList();
+        Manbo first = new Manbo(shared);
+        Manbo second = new Manbo(shared);
+        apps.add(first);
+        apps.add(second);
+
+        second.load(Storage.LoadProgress.NONE);
+        first.handle("todo from first");
+
+        String list = second.handle("list").text;
+        assertTrue(list.contains("existing") && list.contains("from first"),
+                "Both sessions should see the loaded and the added task: " + list);
+        assertEquals(2, shared.size());
+    }
 }
@@ -9,6 +9,7 @@ import manbo.storage.Storage;
 import manbo.task.Deadline;
 import manbo.task.Event;
 import manbo.task.Task;
+import manbo.task.TaskList;
 import manbo.task.Todo;
 import manbo.ui.Ui;
 import org.junit.jupiter.api.Test;
@@ -38,6 +39,13 @@ public class ManboTest {
             }
         }
         @Override
+        public void showTasks(List<? extends Task> tasks, String heading, String whenEmpty) {
+            buf.append("[TASKS size=").append(tasks.size()).append("]\n");
+            for (Task t : tasks) {
+                buf.append(t).append("\n");
+            }
+        }
+        @Override
         public String out() {
             return buf.toString();
         }
@@ -64,7 +72,7 @@ public class ManboTest {
 
     @Test
     void parseTodo_andExecute_addsTask() throws ManboException {
-        List<Task> tasks = new ArrayList<>();
+        TaskList tasks = new TaskList();
         TestUi ui = new TestUi();
         Storage storage = new NoopStorage();
 
@@ -82,7 +90,7 @@ public class ManboTest {
 
     @Test
     void mark_then_unmark_flow() throws ManboException {
-        List<Task> tasks = new ArrayList<>();
+        TaskList tasks = new TaskList();
         TestUi ui = new TestUi();
         Storage storage = new NoopStorage();
 
@@ -99,7 +107,7 @@ public class ManboTest {
 
     @Test
     void delete_removes_task_by_index() throws ManboException {
-        List<Task> tasks = new ArrayList<>();
+        TaskList tasks = new TaskList();
         TestUi ui = new TestUi();
         Storage storage = new NoopStorage();
 
@@ -121,7 +129,7 @@ public class ManboTest {
 
     @Test
     void list_outputs_current_tasks() throws ManboException {
-        List<Task> tasks = new ArrayList<>();
+        TaskList tasks = new TaskList();
         TestUi ui = new TestUi();
         Storage storage = new NoopStorage();
 
@@ -137,4 +145,179 @@ public class ManboTest {
     void invalid_command_throws_ManboException() {
         assertThrows(ManboException.class, () -> Parser.parse("nonsenseCommand"));
     }
+
+    @Test
+    void agenda_and_conflicts_followAddsAndDeletes() throws ManboException {
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+        Storage storage = new NoopStorage();
+
+        Parser.parse("event standup /from 2025-09-01 0900 /to 0930").execute(tasks, ui, storage);
+        Parser.parse("event review /from 2025-09-01 0915 /to 1000").execute(tasks, ui, storage);
+        Parser.parse("event lunch /from 2025-09-01 1200 /to 1300").execute(tasks, ui, storage);
+        Parser.parse("todo unrelated").execute(tasks, ui, storage);
+
+        ui.buf.setLength(0);
+        Parser.parse("agenda /from 2025-09-01 0800 /to 1000").execute(tasks, ui, storage);
+        assertTrue(ui.out().startsWith("[TASKS size=2]"));
+        Parser.parse("conflicts").execute(tasks, ui, storage);
+        assertTrue(ui.out().contains("standup") && ui.out().contains("and [E][ ] review"));
+
+        Parser.parse("delete 2").execute(tasks, ui, storage);
+        ui.buf.setLength(0);
+        Parser.parse("agenda /from 2025-09-01 /to 2025-09-01").execute(tasks, ui, storage);
+        assertTrue(ui.out().startsWith("[TASKS size=2]"));
+        Parser.parse("conflicts /from 2025-09-01 /to 2025-09-02").execute(tasks, ui, storage);
+        assertTrue(ui.out().contains("No conflicting events."));
+
+        assertThrows(ManboException.class, () -> Parser.parse("agenda /from 2025-09-01"));
+    }
+
+    @Test
+    void upcoming_and_overdue_followMarksAndDeletes() throws ManboException {
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+        Storage storage = new NoopStorage();
+
+        Parser.parse("deadline old report /by 2000-01-01").execute(tasks, ui, storage);
+        Parser.parse("deadline far future /by 2999-01-02").execute(tasks, ui, storage);
+        Parser.parse("deadline near future /by 2999-01-01").execute(tasks, ui, storage);
+
+        ui.buf.setLength(0);
+        Parser.parse("overdue").execute(tasks, ui, storage);
+        assertTrue(ui.out().startsWith("[TASKS size=1]"));
+        ui.buf.setLength(0);
+        Parser.parse("upcoming 1").execute(tasks, ui, storage);
+        assertTrue(ui.out().startsWith("[TASKS size=1]") && ui.out().contains("near future"));
+
+        Parser.parse("mark 1").execute(tasks, ui, storage);
+        Parser.parse("delete 3").execute(tasks, ui, storage);
+        ui.buf.setLength(0);
+        Parser.parse("overdue").execute(tasks, ui, storage);
+        assertTrue(ui.out().startsWith("[TASKS size=0]"));
+        ui.buf.setLength(0);
+        Parser.parse("upcoming").execute(tasks, ui, storage);
+        assertTrue(ui.out().startsWith("[TASKS size=1]") && ui.out().contains("far future"));
+
+        assertThrows(ManboException.class, () -> Parser.parse("upcoming 0"));
+        assertThrows(ManboException.class, () -> Parser.parse("upcoming soon"));
+    }
+
+    @Test
+    void idReferences_surviveDeletesBeforeThem() throws ManboException {
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+        Storage storage = new NoopStorage();
+
+        Parser.parse("todo first").execute(tasks, ui, storage);
+        Parser.parse("todo second").execute(tasks, ui, storage);
+        Parser.parse("todo third").execute(tasks, ui, storage);
+        long thirdId = tasks.get(2).getId();
+
+        Parser.parse("delete 1").execute(tasks, ui, storage);
+        Parser.parse("mark #" + thirdId).execute(tasks, ui, storage);
+        assertTrue(tasks.get(1).ifDone());
+        Parser.parse("delete #" + thirdId).execute(tasks, ui, storage);
+        assertEquals(1, tasks.size());
+        assertEquals("second", tasks.get(0).getDescription());
+
+        assertThrows(ManboException.class,
+                () -> Parser.parse("unmark #" + thirdId).execute(tasks, ui, storage));
+        assertThrows(ManboException.class, () -> Parser.parse("mark #"));
+        assertThrows(ManboException.class, () -> Parser.parse("mark #x"));
+    }
+
+    @Test
+    void bulkCommands_selectRangesListsAndFilters() throws ManboException {
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+        Storage storage = new NoopStorage();
+        for (int i = 1; i <= 30; i++) {
+            Parser.parse("todo task " + i).execute(tasks, ui, storage);
+        }
+
+        Parser.parse("mark 1-10, 15,#20").execute(tasks, ui, storage);
+        assertEquals(12, tasks.stream().filter(Task::ifDone).count());
+        Parser.parse("unmark all done").execute(tasks, ui, storage);
+        assertEquals(0, tasks.stream().filter(Task::ifDone).count());
+
+        Parser.parse("mark 2,4 - 5").execute(tasks, ui, storage);
+        Parser.parse("delete all done").execute(tasks, ui, storage);
+        assertEquals(27, tasks.size());
+        assertEquals("task 3", tasks.get(1).getDescription());
+        Parser.parse("delete 1,3,20-27").execute(tasks, ui, storage);
+        assertEquals(17, tasks.size());
+        assertEquals("task 3", tasks.get(0).getDescription());
+
+        // a bad item leaves everything untouched
+        assertThrows(ManboException.class, () -> Parser.parse("delete 1-5,99").execute(tasks, ui, storage));
+        assertEquals(17, tasks.size());
+        assertThrows(ManboException.class, () -> Parser.parse("mark 5-2"));
+        assertThrows(ManboException.class, () -> Parser.parse("mark 1,x"));
+        assertThrows(ManboException.class, () -> Parser.parse("delete all things"));
+    }
+
+    @Test
+    void commandGroups_runInOrderAndSaveOnce() throws ManboException {
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+        int[] saves = new int[1];
+        Storage storage = new NoopStorage() {
+            @Override public void save(List<Task> t) { saves[0]++; }
+        };
+
+        Command group = Parser.parseLine("todo a ; todo b;mark 1\ndeadline c /by 2030-01-01\r\n");
+        group.execute(tasks, ui, storage);
+        assertEquals(3, tasks.size());
+        assertTrue(tasks.get(0).ifDone());
+        assertEquals(1, saves[0], "A group should be saved once");
+        assertTrue(ui.out().contains("b") && ui.out().contains("c"));
+
+        // one malformed command rejects the whole line before anything runs
+        assertThrows(ManboException.class, () -> Parser.parseLine("todo d; mark x; todo e"));
+        assertEquals(3, tasks.size());
+
+        // a failing command stops the rest, but what ran before it is kept and saved
+        assertThrows(ManboException.class,
+                () -> Parser.parseLine("todo d; mark 99; todo e").execute(tasks, ui, storage));
+        assertEquals(4, tasks.size());
+        assertEquals(2, saves[0]);
+
+        // commands after bye never run
+        Command bye = Parser.parseLine("todo f; bye; todo g");
+        assertTrue(bye.isExit());
+        assertEquals(2, ((manbo.command.CommandGroup) bye).getCommands().size());
+
+        assertFalse(Parser.parseLine("list") instanceof manbo.command.CommandGroup);
+        assertFalse(Parser.parseLine(" ; list ;") instanceof manbo.command.CommandGroup);
+        assertThrows(ManboException.class, () -> Parser.parseLine(" ; ;"));
+    }
+
+    @Test
+    void parseLine_splitsOnlyBeforeACommandKeyword() throws ManboException {
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+        Storage storage = new NoopStorage();
+
+        // a semicolon inside a description is not a separator
+        Command one = Parser.parseLine("todo buy milk; eggs");
+        assertFalse(one instanceof manbo.command.CommandGroup);
+        one.execute(tasks, ui, storage);
+        assertEquals(1, tasks.size());
+        assertEquals("buy milk; eggs", tasks.get(0).getDescription());
+
+        // one before a keyword, in any case, is
+        Command two = Parser.parseLine("todo a;  LIST");
+        assertEquals(2, ((manbo.command.CommandGroup) two).getCommands().size());
+        Parser.parseLine("todo d; frobnicate; todo e").execute(tasks, ui, storage);
+        assertEquals("d; frobnicate", tasks.get(1).getDescription());
+        assertEquals("e", tasks.get(2).getDescription());
+
+        // an escaped one never is
+        Parser.parseLine("todo read\\; list books").execute(tasks, ui, storage);
+        assertEquals(4, tasks.size());
+        assertEquals("read; list books", tasks.get(3).getDescription());
+        Parser.parseLine("todo x\\;y").execute(tasks, ui, storage);
+        assertEquals("x;y", tasks.get(4).getDescription());
+    }
 }
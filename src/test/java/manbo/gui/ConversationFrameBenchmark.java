@@ -0,0 +1,113 @@
+package manbo.gui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Measures frame times while scrolling a long conversation, in the {@link ListView} the
+ * window uses now or in the {@link VBox} of {@link DialogBox}es it used before.
+ * Not part of the test suite; it needs a display. Run it by hand, e.g.
+ * {@code java -cp <classpath with JavaFX> manbo.gui.ConversationFrameBenchmark list 50000}
+ * and again with {@code vbox}.
+ * The first {@value #WARMUP_FRAMES} frames are ignored; then the view is scrolled a step
+ * every frame for {@value #MEASURED_FRAMES} frames, and the frame-time percentiles and the
+ * heap in use are printed.
+ */
+public class ConversationFrameBenchmark extends Application {
+    private static final int WARMUP_FRAMES = 60;
+    private static final int MEASURED_FRAMES = 600;
+
+    @Override
+    public void start(Stage stage) {
+        String mode = getParameters().getRaw().isEmpty() ? "list" : getParameters().getRaw().get(0);
+        int count = getParameters().getRaw().size() > 1 ? Integer.parseInt(getParameters().getRaw().get(1)) : 50_000;
+        Image user = new Image(getClass().getResourceAsStream("/images/ManboUser1.png"));
+        Image manbo = new Image(getClass().getResourceAsStream("/images/ManboBot.png"));
+
+        long built = System.nanoTime();
+        Parent root;
+        Runnable scrollStep;
+        if ("vbox".equals(mode)) {
+            VBox box = new VBox();
+            for (int i = 0; i < count; i++) {
+                // one box per message, as the window used to keep them
+                DialogBox row = new DialogBox();
+                row.show(i % 2 == 0 ? Message.user(text(i)) : Message.manbo(text(i), false, false),
+                        i % 2 == 0 ? user : manbo);
+                box.getChildren().add(row);
+            }
+            ScrollPane pane = new ScrollPane(box);
+            pane.setFitToWidth(true);
+            root = pane;
+            scrollStep = () -> pane.setVvalue((pane.getVvalue() + 0.001) % 1.0);
+        } else {
+            HistoryList messages = new HistoryList(new ConversationHistory(ConversationHistory.DEFAULT_CAP));
+            for (int i = 0; i < count; i++) {
+                messages.append(i % 2 == 0 ? Message.user(text(i)) : Message.manbo(text(i), false, false));
+            }
+            ListView<Message> view = new ListView<>(messages);
+            view.setCellFactory(v -> new MessageCell(user, manbo, manbo));
+            int[] at = { 0 };
+            root = view;
+            scrollStep = () -> view.scrollTo(at[0] = (at[0] + count / 1000 + 1) % count);
+        }
+        double buildMillis = (System.nanoTime() - built) / 1e6;
+
+        stage.setScene(new Scene(root, 400, 600));
+        stage.show();
+
+        long[] frames = new long[MEASURED_FRAMES];
+        new AnimationTimer() {
+            private long last;
+            private int frame;
+
+            @Override
+            public void handle(long now) {
+                if (frame >= WARMUP_FRAMES && last != 0) {
+                    frames[frame - WARMUP_FRAMES] = now - last;
+                }
+                last = now;
+                if (++frame == WARMUP_FRAMES + MEASURED_FRAMES) {
+                    stop();
+                    report(mode, count, buildMillis, frames);
+                    Platform.exit();
+                    return;
+                }
+                scrollStep.run();
+            }
+        }.start();
+    }
+
+    private static String text(int i) {
+        return i % 2 == 0 ? "todo task number " + i
+                : "Got it. I've added this task:\n  [T][ ] task number " + i + "\n Now you have " + i + " tasks.";
+    }
+
+    private static void report(String mode, int count, double buildMillis, long[] frames) {
+        long[] sorted = frames.clone();
+        Arrays.sort(sorted);
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        System.out.printf(Locale.ROOT,
+                "%s, %d messages: built in %.0f ms; frame p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms;"
+                        + " heap %d MB%n",
+                mode, count, buildMillis, sorted[sorted.length / 2] / 1e6, sorted[sorted.length * 95 / 100] / 1e6,
+                sorted[sorted.length * 99 / 100] / 1e6, sorted[sorted.length - 1] / 1e6,
+                (rt.totalMemory() - rt.freeMemory()) >> 20);
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,72 @@
+package manbo.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConversationHistoryTest {
+    @Test
+    public void oldMessages_spillToDiskAndReadBack() throws IOException {
+        File file = File.createTempFile("manbo-history-test-", ".bin");
+        ConversationHistory history = new ConversationHistory(8, file);
+        for (int i = 0; i < 100; i++) {
+            history.add(i % 2 == 0
+                    ? Message.user("question " + i)
+                    : Message.manbo("answer " + i + "\n曼波 line two", i % 3 == 0, i % 5 == 0));
+        }
+
+        assertEquals(100, history.size());
+        assertTrue(history.inMemory() <= 8, "Only the newest messages should stay in memory");
+        assertTrue(file.length() > 0, "Older messages should be on disk");
+        for (int i = 99; i >= 0; i--) { // backwards, as when scrolling up
+            Message m = history.get(i);
+            assertEquals(i % 2 == 0, m.isFromUser(), "message " + i);
+            if (i % 2 == 0) {
+                assertEquals("question " + i, m.getText());
+            } else {
+                assertEquals("answer " + i + "\n曼波 line two", m.getText());
+                assertEquals(i % 3 == 0, m.isError());
+                assertEquals(i % 5 == 0, m.isThinking());
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> history.get(100));
+
+        history.close();
+        assertFalse(file.exists(), "Closing should delete the spill file");
+    }
+
+    @Test
+    public void placeholders_canBeReplacedUntilSpilled() throws IOException {
+        File file = File.createTempFile("manbo-history-test-", ".bin");
+        ConversationHistory history = new ConversationHistory(4, file);
+        history.add(Message.user("list"));
+        history.add(Message.manbo("...", false, true));
+
+        Message old = history.replace(1, Message.manbo("Here are the tasks", false, false));
+        assertTrue(old.isThinking());
+        assertEquals("Here are the tasks", history.get(1).getText());
+
+        for (int i = 0; i < 10; i++) {
+            history.add(Message.user("more " + i));
+        }
+        assertNull(history.replace(0, Message.user("too late")), "Spilled messages cannot be replaced");
+        assertEquals("list", history.get(0).getText());
+        history.close();
+    }
+
+    @Test
+    public void latencyStats_boundPercentiles() {
+        LatencyStats stats = new LatencyStats();
+        for (int i = 1; i <= 100; i++) {
+            stats.record(i * 1_000_000L); // 1..100 ms
+        }
+        assertEquals(100, stats.getCount());
+        assertEquals(100_000_000L, stats.getMaxNanos());
+        long p50 = stats.percentileNanos(0.5);
+        assertTrue(p50 >= 50_000_000L && p50 < 100_000_000L, "p50 " + p50);
+        assertEquals(100_000_000L, stats.percentileNanos(0.99));
+    }
+}
@@ -0,0 +1,305 @@
+package manbo.parser;
+
+import manbo.command.*;
+import manbo.exceptions.*;
+
+/**
+ * The regex-based {@link Parser} as it was before its hand-written tokenizer, kept as the
+ * reference for {@link ParserEquivalenceTest} and {@link ParserBenchmark}.
+ */
+final class LegacyParser {
+
+    // ===== Constants for splitting input =====
+    private static final String SPLIT_ON_SPACES_ONCE = "\\s+"; // split keyword + args
+    private static final String DEADLINE_SPLIT = "\\s+/by\\s+";
+    private static final String EVENT_SPLIT = "\\s+/from\\s+|\\s+/to\\s+";
+    private static final String WINDOW_SPLIT = "^/from\\s+|\\s+/to\\s+"; // args start with /from
+    private static final String HHMM_ONLY = "\\d{4}"; // e.g., "1830" = 6:30 PM
+    private static final String SINGLE_TARGET = "#?\\d+"; // e.g., "3" or "#42"
+    private static final String ITEM_SPLIT = "\\s*,\\s*"; // e.g., "3, 7,9-20"
+    private static final String RANGE = "\\d{1,9}\\s*-\\s*\\d{1,9}"; // e.g., "9-20"
+
+    private LegacyParser() { }
+
+    /**
+     * Parses raw user input into a {@link Command}.
+     *
+     * <p>Supported keywords include {@code todo}, {@code deadline}, {@code event},
+     * {@code mark}, {@code unmark}, {@code delete}, {@code list}, {@code bye}, {@code find}, {@code stats},
+     * {@code agenda}, {@code conflicts}, {@code upcoming} and {@code overdue}.
+     * {@code mark}, {@code unmark} and {@code delete} also take several tasks,
+     * e.g. {@code delete 3,7,9-20} or {@code delete all done}.
+     *
+     * @param input raw user input (must not be null or blank)
+     * @return a concrete {@link Command} ready for execution
+     * @throws ManboException if input is null, empty, or invalid
+     */
+    public static Command parse(String input) throws ManboException {
+        if (input == null) throw new UnrecognisedInputException("null");
+        final String trimmed = input.trim();
+        if (trimmed.isEmpty()) throw new UnrecognisedInputException("(empty)");
+
+        final String[] parts = trimmed.split(SPLIT_ON_SPACES_ONCE, 2);
+        assert parts.length >= 1 : "Tokenizer must produce at least one token (keyword)";
+
+        final String keyword = parts[0].toLowerCase();
+        final String args = parts.length > 1 ? parts[1] : "";
+        assert !keyword.isBlank() : "Keyword should be non-blank after pre-checks";
+
+        // Dispatch based on command keyword
+        switch (keyword) {
+            case "bye":     return new ExitCommand();
+            case "list":    return new ListCommand();
+            case "stats":   return new StatsCommand();
+
+            case "mark":    return isSingleTarget(args) ? new MarkCommand(parseTarget(args, "mark"))
+                                    : new BulkMarkCommand(parseSelection(args, "mark"), true);
+            case "unmark":  return isSingleTarget(args) ? new UnmarkCommand(parseTarget(args, "unmark"))
+                                    : new BulkMarkCommand(parseSelection(args, "unmark"), false);
+            case "delete":  return isSingleTarget(args) ? new DeleteCommand(parseTarget(args, "delete"))
+                                    : new BulkDeleteCommand(parseSelection(args, "delete"));
+
+            case "todo":    return handleTodo(args);
+            case "find":    return handleFind(args);
+            case "deadline":return handleDeadline(args);
+            case "event":   return handleEvent(args);
+            case "agenda":  return handleAgenda(args);
+            case "conflicts": return handleConflicts(args);
+            case "upcoming": return handleUpcoming(args);
+            case "overdue": return new OverdueCommand();
+
+            default:        throw new UnrecognisedInputException(keyword);
+        }
+    }
+
+    // ===== Command handlers =====
+
+    /**
+     * Parses a {@code todo} command.
+     * @param args the description after "todo"
+     * @return a {@link AddTodoCommand}
+     * @throws ManboException if description is missing
+     */
+    private static Command handleTodo(String args) throws ManboException {
+        if (args.isBlank()) throw new EmptyDescriptionException("todo");
+        return new AddTodoCommand(args);
+    }
+
+    /**
+     * Parses a {@code find} command.
+     * @param args the search keyword
+     * @return a {@link FindCommand}
+     * @throws ManboException if keyword is missing
+     */
+    private static Command handleFind(String args) throws ManboException {
+        if (args.isBlank()) throw new EmptyDescriptionException("find");
+        return new FindCommand(args);
+    }
+
+    /**
+     * Parses a {@code deadline} command.
+     * Example: {@code deadline return book /by 2025-09-01}
+     *
+     * @param args description and deadline string
+     * @return an {@link AddDeadlineCommand}
+     * @throws ManboException if syntax is invalid
+     */
+    private static Command handleDeadline(String args) throws ManboException {
+        if (args.isBlank()) throw new EmptyDescriptionException("deadline");
+        final String[] seg = args.split(DEADLINE_SPLIT);
+        if (seg.length < 2) throw new ManboException("Please specify /by as yyyy-MM-dd.");
+        final String desc = seg[0].trim();
+        final String by   = seg[1].trim();
+        if (desc.isEmpty()) throw new EmptyDescriptionException("deadline");
+        return new AddDeadlineCommand(desc, by);
+    }
+
+    /**
+     * Parses an {@code event} command.
+     * Example: {@code event workshop /from 2025-09-01 1800 /to 2100}
+     *
+     * @param args description and time ranges
+     * @return an {@link AddEventCommand}
+     * @throws ManboException if syntax is invalid
+     */
+    private static Command handleEvent(String args) throws ManboException {
+        if (args.isBlank()) throw new EmptyDescriptionException("event");
+        final String[] seg = args.split(EVENT_SPLIT);
+        if (seg.length < 3) throw new ManboException("Please specify both /from and /to.");
+        final String desc = seg[0].trim();
+        final String from = seg[1].trim();
+        final String to   = normalizeTo(seg[2].trim(), from);
+        if (desc.isEmpty()) throw new EmptyDescriptionException("event");
+        return new AddEventCommand(desc, from, to);
+    }
+
+    /**
+     * Parses an {@code agenda} command.
+     * Example: {@code agenda /from 2025-09-01 /to 2025-09-07}
+     *
+     * @param args the time window
+     * @return an {@link AgendaCommand}
+     * @throws ManboException if the window is missing
+     */
+    private static Command handleAgenda(String args) throws ManboException {
+        final String[] window = parseWindow(args);
+        if (window == null) throw new ManboException("Please specify both /from and /to.");
+        return new AgendaCommand(window[0], window[1]);
+    }
+
+    /**
+     * Parses a {@code conflicts} command, whose window is optional.
+     * Example: {@code conflicts /from 2025-09-01 /to 2025-09-30}
+     *
+     * @param args the time window, or nothing to check every event
+     * @return a {@link ConflictsCommand}
+     * @throws ManboException if a window is given but incomplete
+     */
+    private static Command handleConflicts(String args) throws ManboException {
+        if (args.isBlank()) return new ConflictsCommand();
+        final String[] window = parseWindow(args);
+        if (window == null) throw new ManboException("Please specify both /from and /to.");
+        return new ConflictsCommand(window[0], window[1]);
+    }
+
+    /**
+     * Parses an {@code upcoming} command, whose count is optional.
+     * Example: {@code upcoming 10}
+     *
+     * @param args the number of deadlines to show, or nothing for the default
+     * @return an {@link UpcomingCommand}
+     * @throws ManboException if the count is not a positive number
+     */
+    private static Command handleUpcoming(String args) throws ManboException {
+        if (args.isBlank()) return new UpcomingCommand(UpcomingCommand.DEFAULT_COUNT);
+        final String s = args.trim();
+        if (!s.matches("\\d{1,9}") || Integer.parseInt(s) == 0) {
+            throw new ManboException("Please give the number of deadlines to show, e.g. upcoming 5.");
+        }
+        return new UpcomingCommand(Integer.parseInt(s));
+    }
+
+    // ===== Utilities =====
+
+    /**
+     * Splits {@code /from X /to Y} into its two bounds. A {@code /to} given as HHmm only
+     * takes the date of {@code /from}.
+     *
+     * @param args the window text
+     * @return the {@code from} and {@code to} strings, or {@code null} if either is missing
+     * @throws ManboException if {@code /from} is malformed
+     */
+    private static String[] parseWindow(String args) throws ManboException {
+        final String[] seg = args.trim().split(WINDOW_SPLIT);
+        if (seg.length < 3 || !seg[0].isEmpty()) return null;
+        final String from = seg[1].trim();
+        final String to   = normalizeTo(seg[2].trim(), from);
+        if (from.isEmpty() || to.isEmpty()) return null;
+        return new String[] { from, to };
+    }
+
+
+    /**
+     * Tells whether {@code args} names one task (or nothing), as opposed to a bulk selection.
+     */
+    private static boolean isSingleTarget(String args) {
+        final String s = args.trim();
+        return s.isEmpty() || s.matches(SINGLE_TARGET);
+    }
+
+    /**
+     * Parses a bulk selection: comma-separated positions, ranges and ids
+     * (e.g. {@code 3,7,9-20,#42}), or {@code all}, {@code all done} or {@code all open}.
+     *
+     * @param args the selection text
+     * @param cmd command name for contextual error reporting
+     * @return the selected tasks
+     * @throws ManboException if any item is malformed, zero, or a descending range
+     */
+    private static TaskSelection parseSelection(String args, String cmd) throws ManboException {
+        final String s = args.trim().toLowerCase();
+        if (s.startsWith("all")) {
+            switch (s.substring(3).trim().replaceAll("\\s+", " ")) {
+                case "":         return TaskSelection.all(TaskSelection.Filter.ALL);
+                case "done":     return TaskSelection.all(TaskSelection.Filter.DONE);
+                case "open":
+                case "undone":
+                case "not done": return TaskSelection.all(TaskSelection.Filter.OPEN);
+                default:         throw new InvalidIndexException(cmd);
+            }
+        }
+
+        final TaskSelection selection = TaskSelection.items();
+        for (String item : s.split(ITEM_SPLIT)) {
+            if (item.startsWith("#")) {
+                selection.addId(parseTarget(item, cmd).getId());
+            } else if (item.matches(RANGE)) {
+                final String[] ends = item.split("-");
+                final int from = Integer.parseInt(ends[0].trim());
+                final int to = Integer.parseInt(ends[1].trim());
+                if (from < 1 || to < from) throw new InvalidIndexException(cmd);
+                selection.addRange(from - 1, to - 1);
+            } else if (item.matches("\\d{1,9}")) {
+                final int position = Integer.parseInt(item);
+                if (position < 1) throw new InvalidIndexException(cmd);
+                selection.addRange(position - 1, position - 1);
+            } else {
+                throw new InvalidIndexException(cmd);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Parses a task reference: a 1-based position, or {@code #id} for a task's persistent id.
+     *
+     * @param args string containing a positive integer, optionally preceded by {@code #}
+     * @param cmd command name for contextual error reporting
+     * @return the referenced task
+     * @throws ManboException if missing or not a valid position or id
+     */
+    private static TaskRef parseTarget(String args, String cmd) throws ManboException {
+        final String s = args == null ? "" : args.trim();
+        if (s.startsWith("#")) {
+            final String id = s.substring(1);
+            if (!id.matches("\\d{1,18}") || Long.parseLong(id) == 0) throw new InvalidIndexException(cmd);
+            return TaskRef.ofId(Long.parseLong(id));
+        }
+        return TaskRef.ofIndex(parseIndex(args, cmd));
+    }
+
+    /**
+     * Parses an integer task index (1-based in user input).
+     * Converts to zero-based index for internal use.
+     *
+     * @param args string containing a positive integer
+     * @param cmd command name for contextual error reporting
+     * @return zero-based task index
+     * @throws ManboException if missing or not a valid integer
+     */
+    private static int parseIndex(String args, String cmd) throws ManboException {
+        if (args == null || args.isBlank()) throw new EmptyDescriptionException(cmd);
+        final String s = args.trim();
+        // at most 9 digits, as for ranges, so Integer.parseInt cannot overflow
+        if (!s.matches("\\d{1,9}")) throw new InvalidIndexException(cmd);
+        return Integer.parseInt(s) - 1; // convert 1-based → 0-based
+    }
+
+    /**
+     * Normalizes the {@code /to} field in {@code event} commands.
+     * If the user only provides a time (HHmm), the date from {@code /from} is prepended.
+     *
+     * @param to raw {@code /to} argument (either full datetime or HHmm only)
+     * @param from full {@code /from} datetime (yyyy-MM-dd HHmm)
+     * @return normalized datetime string for {@code /to}
+     * @throws ManboException if {@code /from} is malformed
+     */
+    private static String normalizeTo(String to, String from) throws ManboException {
+        if (to.matches(HHMM_ONLY)) {
+            if (from.length() < 10) throw new ManboException("Invalid /from date.");
+            final String datePart = from.substring(0, 10); // yyyy-MM-dd
+            return datePart + " " + to;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,64 @@
+package manbo.parser;
+
+import manbo.command.Command;
+import manbo.exceptions.ManboException;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Measures time and heap allocation per parsed command for {@link Parser},
+ * next to the regex-based {@link LegacyParser} it replaced.
+ * Not part of the test suite; run it by hand, e.g.
+ * {@code java -cp build/classes/java/main:build/classes/java/test manbo.parser.ParserBenchmark 1000000}.
+ * Allocation is read from the HotSpot per-thread counter, so other JVMs print 0 bytes.
+ */
+public class ParserBenchmark {
+    private static final int ROUNDS = 5;
+
+    /** A mix resembling an import: mostly adds, some marks and deletes. */
+    private static final String[] INPUTS = {
+        "todo read book",
+        "todo buy milk and bread",
+        "deadline return book /by 2025-09-01",
+        "deadline submit report /by 2025-10-15",
+        "event project meeting /from 2025-09-01 1800 /to 2100",
+        "event workshop /from 2025-09-02 0900 /to 2025-09-02 1700",
+        "mark 12",
+        "unmark #42",
+        "delete 3,7,9-20",
+        "list",
+    };
+
+    public static void main(String[] args) throws ManboException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] parser = measure(count, Parser::parse);
+            long[] legacy = measure(count, LegacyParser::parse);
+            System.out.printf(Locale.ROOT, "parser: %6.1f ns %4d B/command   legacy: %6.1f ns %4d B/command%n",
+                    (double) parser[0] / count, parser[1] / count,
+                    (double) legacy[0] / count, legacy[1] / count);
+        }
+    }
+
+    private interface ParseCall {
+        Command parse(String input) throws ManboException;
+    }
+
+    /** @return elapsed nanoseconds and bytes allocated by the current thread */
+    private static long[] measure(int count, ParseCall call) throws ManboException {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long bytesBefore = mx.getThreadAllocatedBytes(id);
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < count; i++) {
+            sink += call.parse(INPUTS[i % INPUTS.length]).hashCode() & 1;
+        }
+        long nanos = System.nanoTime() - start;
+        if (sink < 0) {
+            throw new IllegalStateException("Unreachable");
+        }
+        return new long[] { nanos, Math.max(0, mx.getThreadAllocatedBytes(id) - bytesBefore) };
+    }
+}
@@ -0,0 +1,131 @@
+package manbo.parser;
+
+import manbo.command.Command;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link Parser} builds the same commands, and throws the same errors, as the
+ * regex-based {@link LegacyParser} it replaced.
+ */
+public class ParserEquivalenceTest {
+    /** Fragments that random inputs are assembled from, biased towards separators and edge cases. */
+    private static final String[] PIECES = {
+        "todo", "deadline", "event", "mark", "unmark", "delete", "list", "bye", "find", "stats",
+        "agenda", "conflicts", "upcoming", "overdue", "TODO", "Mark", "dEleTe", "frobnicate",
+        "/by", "/from", "/to", "/tomorrow", "a/by", " ", "  ", "\t", "\u000B", "\u001C", " ",
+        "1", "12", "0", "007", "1234567890", "99999999999", "#", "#7", "#0", "-", " - ", ",", ", ",
+        "all", "ALL", "done", "open", "undone", "not", "2025-09-01", "2025-09-01 1800", "1800",
+        "2100", "18:00", "book", "x", "İ", "ı",
+    };
+
+    private static final String[] CASES = {
+        "", "   ", "bye", "BYE", "list", "list extra", "stats",
+        "todo", "todo  ", "todo read book", "todo\tread\u000Bbook", "Todo Read",
+        "find", "find book", "find  two  words",
+        "deadline", "deadline x", "deadline x /by", "deadline x /by 2025-09-01",
+        "deadline /by 2025-09-01", "deadline x  /by\t 2025-09-01 /by 2026-01-01",
+        "deadline x/by 2025-09-01", "deadline x /by2025-09-01", "deadline x /by /by 2025-09-01",
+        "event e /from 2025-09-01 1800 /to 2100", "event e /to 2100 /from 2025-09-01 1800",
+        "event e /from 2025-09-01 1800", "event e /from x /to y /to z", "event /from a /to b",
+        "event e /from 2025 /to 1800", "event e /from /to 1800", "event e /from a /from b",
+        "agenda", "agenda /from 2025-09-01 /to 2025-09-07", "agenda /from 2025-09-01 1000 /to 1200",
+        "agenda x /from a /to b", "agenda /from  /to b", "agenda /from a /to b /to c",
+        "agenda /from a", "agenda /from2025 /to b", "agenda /from 2025 /to 0900",
+        "conflicts", "conflicts /from a /to b", "conflicts /to b",
+        "upcoming", "upcoming 5", "upcoming 0", "upcoming 000000001", "upcoming 1234567890",
+        "upcoming -1", "upcoming five", "overdue", "overdue now",
+        "mark", "mark 1", "mark 0", "mark 01", "mark #3", "mark #", "mark #0", "mark #a",
+        "mark 12345678901", "mark 99999999999", "unmark 1234567890", "delete 000000001",
+        "mark #1234567890123456789", "mark x",
+        "mark 1,2", "mark 1 , 2", "mark 1-3", "mark 1 - 3", "mark 3-1", "mark 0-2", "mark 1-",
+        "mark -1", "mark 1,,2", "mark ,1", "mark 1,", "mark 1, ,", "mark ,", "mark 1 2",
+        "mark 1-2-3", "mark 1234567890-2", "mark #4,5-6", "mark 1,#2,#0",
+        "unmark all", "unmark all done", "unmark ALL  Open", "unmark all not  done",
+        "unmark all\tundone", "unmark allx", "unmark all maybe",
+        "delete all", "delete 2", "delete 3,7,9-20,#42", "DELETE 1", "dElEtE all done",
+    };
+
+    @Test
+    public void knownInputs_parseAlike() {
+        for (String input : CASES) {
+            assertParsesAlike(input);
+        }
+        assertParsesAlike(null);
+    }
+
+    @Test
+    public void randomInputs_parseAlike() {
+        Random random = new Random(18);
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < 20_000; n++) {
+            sb.setLength(0);
+            int pieces = 1 + random.nextInt(7);
+            for (int i = 0; i < pieces; i++) {
+                if (i > 0 && random.nextInt(3) > 0) sb.append(' ');
+                sb.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            assertParsesAlike(sb.toString());
+        }
+    }
+
+    private static void assertParsesAlike(String input) {
+        Object expected = outcome(() -> LegacyParser.parse(input));
+        Object actual = outcome(() -> Parser.parse(input));
+        assertSame(expected, actual, "input \"" + input + "\"");
+    }
+
+    private interface ParseCall {
+        Command parse() throws Exception;
+    }
+
+    /** @return the command parsed, or the exception thrown */
+    private static Object outcome(ParseCall call) {
+        try {
+            return call.parse();
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    /** Compares two parse outcomes field by field, since commands have no {@code equals}. */
+    private static void assertSame(Object expected, Object actual, String where) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual, where);
+            return;
+        }
+        assertEquals(expected.getClass(), actual.getClass(), where);
+        if (expected instanceof Throwable) {
+            assertEquals(((Throwable) expected).getMessage(), ((Throwable) actual).getMessage(), where);
+        } else if (expected instanceof int[]) {
+            assertArrayEquals((int[]) expected, (int[]) actual, where);
+        } else if (expected instanceof List) {
+            List<?> a = (List<?>) expected;
+            List<?> b = (List<?>) actual;
+            assertEquals(a.size(), b.size(), where);
+            for (int i = 0; i < a.size(); i++) {
+                assertSame(a.get(i), b.get(i), where + "[" + i + "]");
+            }
+        } else if (expected instanceof Enum || !expected.getClass().getName().startsWith("manbo.")) {
+            assertEquals(expected, actual, where);
+        } else {
+            for (Class<?> c = expected.getClass(); c != Object.class; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(f.getModifiers())) continue;
+                    f.setAccessible(true);
+                    try {
+                        assertSame(f.get(expected), f.get(actual), where + "." + f.getName());
+                    } catch (IllegalAccessException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }
+        }
+    }
+}
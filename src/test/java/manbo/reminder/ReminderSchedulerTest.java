@@ -0,0 +1,119 @@
+package manbo.reminder;
+
+import manbo.task.Deadline;
+import manbo.task.Event;
+import manbo.task.TaskList;
+import manbo.task.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests when ReminderScheduler reminds about each task type, on a clock the test controls,
+ * and that marking or deleting a task cancels its reminder.
+ */
+public class ReminderSchedulerTest {
+    private static final long TICK = 10;
+
+    @Test
+    void remindAt_coversDueDayLeadCatchUpAndOverdue() {
+        LocalDateTime now = LocalDateTime.of(2025, 9, 1, 12, 0);
+        Clock clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        ReminderScheduler s = new ReminderScheduler(msg -> { }, clock, Duration.ofMinutes(15), TICK);
+        long nowMillis = clock.millis();
+
+        // due today, reminder time passed: remind at once
+        assertEquals(nowMillis, s.remindAt(new Deadline("today", LocalDate.of(2025, 9, 1)), nowMillis));
+        // due tomorrow: at the reminder time of day
+        assertEquals(millis(LocalDate.of(2025, 9, 2).atTime(ReminderScheduler.DEADLINE_REMINDER_TIME)),
+                s.remindAt(new Deadline("tomorrow", LocalDate.of(2025, 9, 2)), nowMillis));
+        // overdue and already-started tasks need no reminder
+        assertEquals(-1, s.remindAt(new Deadline("late", LocalDate.of(2025, 8, 31)), nowMillis));
+        assertEquals(-1, s.remindAt(new Event("started", now.minusMinutes(1), now.plusHours(1)), nowMillis));
+        // events: the lead time before they start, or now if that has passed
+        assertEquals(millis(now.plusMinutes(45)),
+                s.remindAt(new Event("later", now.plusHours(1), now.plusHours(2)), nowMillis));
+        assertEquals(nowMillis, s.remindAt(new Event("soon", now.plusMinutes(5), now.plusHours(1)), nowMillis));
+        assertEquals(-1, s.remindAt(new Todo("todo"), nowMillis));
+    }
+
+    @Test
+    void markAndDelete_cancelReminders() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.of(2025, 9, 1, 12, 0);
+        MutableClock clock = new MutableClock(millis(now));
+        List<String> sent = new CopyOnWriteArrayList<>();
+        ReminderScheduler s = new ReminderScheduler(sent::add, clock, Duration.ofMinutes(15), TICK);
+
+        TaskList tasks = new TaskList();
+        Deadline marked = new Deadline("marked", LocalDate.of(2025, 9, 2));
+        Deadline deleted = new Deadline("deleted", LocalDate.of(2025, 9, 2));
+        Deadline kept = new Deadline("kept", LocalDate.of(2025, 9, 2));
+        tasks.add(marked);
+        tasks.add(deleted);
+        s.track(tasks);
+        tasks.write(() -> {
+            tasks.add(kept);
+            marked.markAsDone();
+            tasks.remove(1);
+        });
+
+        // Past every reminder; they would all fire in the same step
+        clock.set(millis(LocalDate.of(2025, 9, 2).atTime(10, 0)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sent.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(TICK);
+        }
+        s.close();
+
+        assertEquals(1, sent.size(), "Only the untouched deadline should be announced: " + sent);
+        assertTrue(sent.get(0).contains("kept"));
+    }
+
+    private static long millis(LocalDateTime t) {
+        return t.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** A UTC clock that stands still until the test moves it. */
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis;
+
+        MutableClock(long millis) {
+            this.millis = new AtomicLong(millis);
+        }
+
+        void set(long millis) {
+            this.millis.set(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package manbo.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that TimerWheel fires every live timer exactly once, never early and at most one tick
+ * late, across all wheel levels.
+ */
+public class TimerWheelTest {
+    private static final long TICK = 1000;
+
+    @Test
+    void timers_fireOnTimeAcrossLevels() {
+        Random rnd = new Random(17);
+        long start = 1_700_000_000_000L;
+        TimerWheel<long[]> wheel = new TimerWheel<>(TICK, start);
+        List<TimerWheel.Timer<long[]>> live = new ArrayList<>();
+        List<long[]> fired = new ArrayList<>();
+        int cancelled = 0;
+
+        long now = start;
+        for (int round = 0; round < 3000; round++) {
+            // distances from a few ms to several years, to exercise every level
+            long distance = (long) Math.pow(10, 1 + rnd.nextInt(9)) + rnd.nextInt(1000);
+            long at = now + (rnd.nextInt(10) == 0 ? -distance : distance);
+            long[] payload = { at, 0 };
+            live.add(wheel.schedule(at, payload));
+            int v = rnd.nextInt(live.size());
+            if (rnd.nextInt(5) == 0 && live.get(v).isPending()) {
+                TimerWheel.Timer<long[]> victim = live.remove(v);
+                wheel.cancel(victim);
+                wheel.cancel(victim); // cancelling twice is harmless
+                victim.payload[1] = -1;
+                cancelled++;
+            }
+            now += rnd.nextInt(5) * TICK / 2;
+            long firedAt = now;
+            wheel.advanceTo(now, p -> {
+                p[1]++;
+                assertTrue(p[0] <= firedAt, "fired early");
+                fired.add(p);
+            });
+        }
+        long end = now + 20L * 365 * 24 * 3600 * 1000;
+        // jump in large steps so the upper wheels turn
+        for (long t = now; t < end; t += 3600_000L) {
+            long firedAt = t;
+            wheel.advanceTo(t, p -> {
+                p[1]++;
+                assertTrue(p[0] <= firedAt, "fired early");
+                fired.add(p);
+            });
+        }
+
+        int due = 0;
+        for (TimerWheel.Timer<long[]> t : live) {
+            if (t.payload[0] <= end) due++;
+        }
+        for (long[] p : fired) {
+            assertEquals(1, p[1], "timer fired more than once, or after being cancelled");
+        }
+        assertEquals(due, fired.size());
+        assertEquals(live.size() - due, wheel.size());
+        assertTrue(cancelled > 0);
+    }
+
+    @Test
+    void timers_inOneStepFireInExpiryOrder() {
+        long start = 0;
+        TimerWheel<Long> wheel = new TimerWheel<>(TICK, start);
+        Random rnd = new Random(2);
+        for (int i = 0; i < 500; i++) {
+            long at = (long) rnd.nextInt(10_000_000) * TICK;
+            wheel.schedule(at, at);
+        }
+        List<Long> order = new ArrayList<>();
+        wheel.advanceTo(10_000_000L * TICK, order::add);
+        assertEquals(500, order.size());
+        for (int i = 1; i < order.size(); i++) {
+            assertTrue(order.get(i - 1) <= order.get(i));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package manbo.search;
+
+import manbo.task.Event;
+import manbo.task.Task;
+import manbo.task.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests IntervalIndex window and conflict queries against brute force while events come and go.
+ */
+public class IntervalIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static Event randomEvent(Random rnd, int id) {
+        LocalDateTime from = BASE.plusMinutes(rnd.nextInt(60 * 24 * 30));
+        return new Event("event " + id, from, from.plusMinutes(rnd.nextInt(8 * 60)));
+    }
+
+    private static List<Event> bruteOverlapping(List<Task> tasks, LocalDateTime from, LocalDateTime to) {
+        List<Event> out = new ArrayList<>();
+        for (Task t : tasks) {
+            if (t instanceof Event) {
+                Event e = (Event) t;
+                if (!e.getFrom().isAfter(to) && !e.getTo().isBefore(from)) out.add(e);
+            }
+        }
+        out.sort((a, b) -> a.getFrom().compareTo(b.getFrom()));
+        return out;
+    }
+
+    private static int bruteConflicts(List<Task> tasks) {
+        int pairs = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            for (int j = i + 1; j < tasks.size(); j++) {
+                if (tasks.get(i) instanceof Event && tasks.get(j) instanceof Event) {
+                    Event a = (Event) tasks.get(i);
+                    Event b = (Event) tasks.get(j);
+                    if (a.getFrom().isBefore(b.getTo()) && b.getFrom().isBefore(a.getTo())) pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    @Test
+    void queries_agreeWithBruteForce() {
+        Random rnd = new Random(11);
+        List<Task> tasks = new ArrayList<>();
+        IntervalIndex index = new IntervalIndex(tasks);
+
+        for (int round = 0; round < 1500; round++) {
+            if (tasks.isEmpty() || rnd.nextInt(4) > 0) {
+                Task t = rnd.nextInt(5) == 0 ? new Todo("todo " + round) : randomEvent(rnd, round);
+                tasks.add(t);
+                index.add(t);
+            } else {
+                index.remove(tasks.remove(rnd.nextInt(tasks.size())));
+            }
+            if (round % 50 == 0) {
+                LocalDateTime from = BASE.plusMinutes(rnd.nextInt(60 * 24 * 30));
+                LocalDateTime to = from.plusMinutes(rnd.nextInt(60 * 24));
+                List<Event> expected = bruteOverlapping(tasks, from, to);
+                List<Event> actual = index.overlapping(from, to);
+                assertEquals(expected.size(), actual.size());
+                assertTrue(actual.containsAll(expected));
+                for (int i = 1; i < actual.size(); i++) {
+                    assertFalse(actual.get(i).getFrom().isBefore(actual.get(i - 1).getFrom()));
+                }
+                assertEquals(bruteConflicts(tasks), index.conflicts(null, null).size());
+            }
+        }
+    }
+
+    @Test
+    void backToBackEvents_doNotConflict() {
+        Event a = new Event("a", BASE, BASE.plusHours(1));
+        Event b = new Event("b", BASE.plusHours(1), BASE.plusHours(2));
+        IntervalIndex index = new IntervalIndex(List.of(a, b));
+
+        assertTrue(index.conflicts(null, null).isEmpty());
+        assertEquals(List.of(a, b), index.overlapping(BASE.plusHours(1), BASE.plusHours(1)));
+    }
+}
@@ -0,0 +1,43 @@
+package manbo.search;
+
+import manbo.task.Task;
+import manbo.task.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests TaskIdMap against a HashMap under random puts and removes, including clustered ids.
+ */
+public class TaskIdMapTest {
+    @Test
+    void map_agreesWithHashMap() {
+        Random rnd = new Random(9);
+        TaskIdMap map = new TaskIdMap(0);
+        Map<Long, Task> expected = new HashMap<>();
+
+        for (int round = 0; round < 50_000; round++) {
+            // mostly small, dense ids as a task list hands out, plus some far apart
+            long id = rnd.nextInt(8) == 0 ? 1 + (rnd.nextLong() >>> 2) : 1 + rnd.nextInt(2000);
+            if (rnd.nextInt(3) == 0) {
+                assertSame(expected.remove(id), map.remove(id));
+            } else {
+                Task t = new Todo("task " + round);
+                expected.put(id, t);
+                map.put(id, t);
+            }
+            long probe = 1 + rnd.nextInt(2000);
+            assertSame(expected.get(probe), map.get(probe));
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Task> e : expected.entrySet()) {
+            assertSame(e.getValue(), map.get(e.getKey()));
+        }
+        assertNull(map.get(0));
+        assertNull(map.remove(0));
+    }
+}
@@ -0,0 +1,61 @@
+package manbo.search;
+
+import manbo.task.Task;
+import manbo.task.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that TrigramIndex returns exactly what a contains scan returns, including
+ * for tasks that did not fit its memory bounds.
+ */
+public class TrigramIndexTest {
+
+    private static List<Task> scan(List<Task> tasks, String keyword) {
+        List<Task> matches = new ArrayList<>();
+        for (Task t : tasks) {
+            if (t.getDescription().toLowerCase(Locale.ROOT).contains(keyword)) {
+                matches.add(t);
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    void find_matchesInfixesAndSkipsRemovedTasks() {
+        List<Task> tasks = new ArrayList<>(List.of(
+                new Todo("Read book"), new Todo("bookshelf repair"), new Todo("e-book reader"), new Todo("Cook")));
+        TrigramIndex index = new TrigramIndex(tasks);
+
+        assertEquals(scan(tasks, "ook"), index.find("ook"));
+        assertEquals(scan(tasks, "kshel"), index.find("kshel"));
+        assertEquals(List.of(), index.find("xyz"));
+
+        tasks.remove(1);
+        index.remove(1);
+        Todo added = new Todo("Booking");
+        tasks.add(added);
+        index.append(added);
+        assertEquals(scan(tasks, "ook"), index.find("ook"));
+    }
+
+    @Test
+    void find_staysExactBeyondMemoryBounds() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tasks.add(new Todo("task number " + i));
+        }
+        tasks.add(new Todo("x".repeat(TrigramIndex.MAX_GRAMS_PER_TASK + 10) + " number 7"));
+        TrigramIndex index = new TrigramIndex(tasks, 1000); // room for only part of the list
+
+        assertTrue(index.overflowCount() > 1);
+        for (String q : new String[] { "number 7", "r 1", "task", "xxx", "nope" }) {
+            assertEquals(scan(tasks, q), index.find(q), q);
+        }
+    }
+}
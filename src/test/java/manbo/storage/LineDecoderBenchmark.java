@@ -0,0 +1,90 @@
+package manbo.storage;
+
+import manbo.task.Deadline;
+import manbo.task.Event;
+import manbo.task.Task;
+import manbo.task.Todo;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures time and heap allocation per decoded line for {@link TaskLineDecoder},
+ * next to the regex-split decoder it replaced.
+ * Not part of the test suite; run it by hand, e.g.
+ * {@code java -cp build/classes/java/main:build/classes/java/test manbo.storage.LineDecoderBenchmark 300000}.
+ * Allocation is read from the HotSpot per-thread counter, so other JVMs print 0 bytes.
+ */
+public class LineDecoderBenchmark {
+    private static final int ROUNDS = 5;
+    private static final DateTimeFormatter DTTM = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        StringBuilder sb = new StringBuilder();
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < count; i++) {
+            Task t;
+            switch (i % 3) {
+                case 0: t = new Todo("todo number " + i, i % 2 == 0); break;
+                case 1: t = new Deadline("deadline number " + i, day.plusDays(i % 365)); break;
+                default:
+                    LocalDateTime from = day.plusDays(i % 365).atTime(9, 0);
+                    t = new Event("event number " + i, from, from.plusHours(2));
+            }
+            sb.append(t.toSaveFormat()).append('\n');
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        String[] lines = sb.toString().split("\n");
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] decoder = measure(() -> {
+                List<Task> out = new ArrayList<>(count);
+                new TaskLineDecoder().decodeLines(bytes, 0, bytes.length, out, (reason, line) -> { });
+                return out.size();
+            });
+            long[] regex = measure(() -> {
+                int n = 0;
+                for (String line : lines) {
+                    if (legacyDecode(line.trim()) != null) n++;
+                }
+                return n;
+            });
+            System.out.printf(Locale.ROOT, "decoder: %6.1f ms %5d B/task   regex: %6.1f ms %5d B/task%n",
+                    decoder[0] / 1e6, decoder[1] / count, regex[0] / 1e6, regex[1] / count);
+        }
+    }
+
+    /** @return elapsed nanoseconds and bytes allocated by the current thread */
+    private static long[] measure(java.util.function.IntSupplier work) {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long bytesBefore = mx.getThreadAllocatedBytes(id);
+        long start = System.nanoTime();
+        if (work.getAsInt() == 0) {
+            throw new IllegalStateException("Nothing decoded");
+        }
+        long nanos = System.nanoTime() - start;
+        return new long[] { nanos, Math.max(0, mx.getThreadAllocatedBytes(id) - bytesBefore) };
+    }
+
+    /** The decoder {@link Storage} used before {@link TaskLineDecoder}, kept for comparison. */
+    private static Task legacyDecode(String line) {
+        String[] parts = line.split("\\s*\\|\\s*");
+        if (parts.length < 3) return null;
+        boolean done = "1".equals(parts[1]);
+        switch (parts[0]) {
+            case "T": return new Todo(parts[2], done);
+            case "D": return new Deadline(parts[2], LocalDate.parse(parts[3]), done);
+            case "E": return new Event(parts[2], LocalDateTime.parse(parts[3], DTTM),
+                    LocalDateTime.parse(parts[4], DTTM), done);
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package manbo.storage;
+
+import manbo.task.Deadline;
+import manbo.task.Event;
+import manbo.task.Task;
+import manbo.task.Todo;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures {@link Storage#load()} on a large text file with 1..N loader threads.
+ * Not part of the test suite; run it by hand, e.g.
+ * {@code java -cp build/classes/java/main:build/classes/java/test manbo.storage.ParallelLoadBenchmark 500000 8}
+ * (task count, then the largest thread count to try; defaults to the number of processors).
+ */
+public class ParallelLoadBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        File file = File.createTempFile("manbo-bench-", ".txt");
+        file.deleteOnExit();
+
+        Storage storage = new Storage(file.getPath());
+        storage.setFsyncPolicy(FsyncPolicy.never());
+        storage.save(generate(count));
+        System.out.printf(Locale.ROOT, "%d tasks, %.1f MiB%n", count, file.length() / 1048576.0);
+
+        storage.setParallelLoadThreshold(0);
+        double baseline = 0;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            storage.setLoadParallelism(threads);
+            double ms = measure(storage, count);
+            if (threads == 1) baseline = ms;
+            System.out.printf(Locale.ROOT, "%2d thread(s): %8.1f ms  (x%.2f)%n", threads, ms, baseline / ms);
+        }
+    }
+
+    private static double measure(Storage storage, int expected) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            storage.load();
+        }
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            List<Task> tasks = storage.load();
+            total += System.nanoTime() - start;
+            if (tasks.size() != expected) {
+                throw new IllegalStateException("Loaded " + tasks.size() + " of " + expected + " tasks");
+            }
+        }
+        return total / 1e6 / MEASURED_ROUNDS;
+    }
+
+    private static List<Task> generate(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < count; i++) {
+            switch (i % 3) {
+                case 0:
+                    tasks.add(new Todo("todo number " + i, i % 2 == 0));
+                    break;
+                case 1:
+                    tasks.add(new Deadline("deadline number " + i, day.plusDays(i % 365)));
+                    break;
+                default:
+                    LocalDateTime from = day.plusDays(i % 365).atTime(9, 0);
+                    tasks.add(new Event("event number " + i, from, from.plusHours(2)));
+            }
+        }
+        return tasks;
+    }
+}
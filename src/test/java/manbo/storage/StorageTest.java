@@ -1,9 +1,19 @@
 package manbo.storage;
 
+import manbo.task.Deadline;
+import manbo.task.Event;
 import manbo.task.Todo;
 import manbo.task.Task;
+import manbo.task.TaskList;
 import org.junit.jupiter.api.*;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -13,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 public class StorageTest {
     private static final String TEST_FILE = "data/test-storage.txt";
+    private static final String JOURNAL_FILE = TEST_FILE + ".journal";
     private Storage storage;
 
     @BeforeEach
@@ -25,6 +36,7 @@ public class StorageTest {
         if (f.exists()) {
             f.delete();
         }
+        new File(JOURNAL_FILE).delete();
     }
 
     @AfterEach
@@ -34,6 +46,7 @@ public class StorageTest {
         if (f.exists()) {
             f.delete();
         }
+        new File(JOURNAL_FILE).delete();
     }
 
     @Test
@@ -46,7 +59,488 @@ public class StorageTest {
         List<Task> loaded = storage.load();
 
         assertEquals(2, loaded.size(), "Should load back 2 tasks");
-        assertEquals(t1.toSaveFormat(), loaded.get(0).toSaveFormat());
-        assertEquals(t2.toSaveFormat(), loaded.get(1).toSaveFormat());
+        // tasks saved without ids are numbered on load
+        assertEquals(t1.toSaveFormat() + " | #1", loaded.get(0).toSaveFormat());
+        assertEquals(t2.toSaveFormat() + " | #2", loaded.get(1).toSaveFormat());
+    }
+
+    @Test
+    void journal_replaysMutationsOnLoad() throws IOException {
+        storage.setJournalEnabled(true);
+        TaskList tasks = new TaskList();
+
+        Todo a = new Todo("a");
+        tasks.add(a);
+        storage.saveAdded(tasks, a);
+        Todo b = new Todo("b");
+        tasks.add(b);
+        storage.saveAdded(tasks, b);
+        b.markAsDone();
+        storage.saveUpdated(tasks, 1);
+        Task removed = tasks.remove(0);
+        storage.saveRemoved(tasks, 0, removed);
+
+        assertTrue(new File(JOURNAL_FILE).length() > 0, "Mutations should go to the journal");
+        assertEquals(0, new File(TEST_FILE).length(), "Base file should not be rewritten");
+        assertEquals(List.of("+ | T | 0 | a | #1", "+ | T | 0 | b | #2", "= | #2 | 1", "- | #1"),
+                java.nio.file.Files.readAllLines(new File(JOURNAL_FILE).toPath()), "Records should name tasks by id");
+
+        List<Task> loaded = new Storage(TEST_FILE).load();
+        assertEquals(1, loaded.size());
+        assertEquals(b.toSaveFormat(), loaded.get(0).toSaveFormat());
+        assertFalse(new File(JOURNAL_FILE).exists(), "Load should compact the journal");
+    }
+
+    @Test
+    void journal_survivesAFailedCheckpoint() throws Exception {
+        storage.setJournalEnabled(true);
+        List<Task> tasks = new ArrayList<>();
+        for (String d : List.of("a", "b")) {
+            Todo t = new Todo(d);
+            tasks.add(t);
+            storage.saveAdded(tasks, t);
+        }
+
+        // A non-empty directory where the base file should be makes the rename fail
+        File base = new File(TEST_FILE);
+        base.delete();
+        File blocker = new File(base, "blocker");
+        assertTrue(blocker.mkdirs());
+        try {
+            storage.checkpoint(tasks);
+            assertTrue(new File(JOURNAL_FILE).length() > 0, "A failed checkpoint must keep the journal");
+        } finally {
+            blocker.delete();
+            base.delete();
+        }
+
+        List<Task> loaded = new Storage(TEST_FILE).load();
+        assertEquals(2, loaded.size(), "The journal should still replay both adds");
+        assertEquals("T | 0 | b", loaded.get(1).toSaveFormat().replaceAll(" \\| #\\d+$", ""));
+    }
+
+    @Test
+    void journal_checkpointsWhenIntervalReached() {
+        storage.setJournalEnabled(true);
+        storage.setCheckpointInterval(2);
+        List<Task> tasks = new ArrayList<>();
+
+        for (String d : List.of("a", "b")) {
+            Todo t = new Todo(d);
+            tasks.add(t);
+            storage.saveAdded(tasks, t);
+        }
+
+        assertFalse(new File(JOURNAL_FILE).exists(), "Journal should be folded into the base file");
+        assertEquals(2, storage.load().size());
+    }
+
+    @Test
+    void save_replacesFileAtomicallyAndRecordsStats() {
+        storage.setFsyncPolicy(FsyncPolicy.never());
+        storage.save(List.of(new Todo("first")));
+        storage.save(List.of(new Todo("second")));
+
+        File[] leftovers = new File(TEST_FILE).getAbsoluteFile().getParentFile()
+                .listFiles((dir, name) -> name.startsWith("test-storage.txt.") && name.endsWith(".tmp"));
+        assertEquals(0, leftovers.length, "Temp file should be renamed away");
+        assertEquals(2, storage.getSaveStats().getWrites());
+        assertEquals(0, storage.getSaveStats().getForcedWrites());
+        assertEquals(new File(TEST_FILE).length(), storage.getSaveStats().getLastBytes());
+        assertEquals(1, storage.load().size());
+    }
+
+    @Test
+    void fsyncInterval_forcesSkippedWriteOnFlush() {
+        storage.setFsyncPolicy(FsyncPolicy.everyMillis(3_600_000));
+        storage.save(List.of(new Todo("first")));
+        storage.save(List.of(new Todo("second")));
+        assertEquals(1, storage.getSaveStats().getForcedWrites(), "Second write falls inside the interval");
+        assertEquals(0, storage.getSaveStats().getDeferredForces());
+
+        storage.flush();
+        assertEquals(1, storage.getSaveStats().getDeferredForces());
+        storage.close();
+        assertEquals(1, storage.getSaveStats().getDeferredForces(), "Nothing left to force");
+    }
+
+    @Test
+    void fsyncInterval_forcesSkippedWriteOnceIntervalPasses() throws InterruptedException {
+        storage.setFsyncPolicy(FsyncPolicy.everyMillis(200));
+        storage.save(List.of(new Todo("first")));
+        storage.save(List.of(new Todo("second")));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (storage.getSaveStats().getDeferredForces() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, storage.getSaveStats().getDeferredForces());
+    }
+
+    @Test
+    void fsyncPolicy_parse() {
+        assertEquals("never", FsyncPolicy.parse("never").toString());
+        assertEquals("every 50 ms", FsyncPolicy.parse("50").toString());
+        assertEquals("always", FsyncPolicy.parse("bogus").toString());
+    }
+
+    @Test
+    void writeBehind_coalescesBurstIntoFewWrites() {
+        WriteBehindStorage wb = new WriteBehindStorage(TEST_FILE);
+        wb.setFsyncPolicy(FsyncPolicy.never());
+        wb.setLingerMillis(50);
+        List<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            Todo t = new Todo("task " + i);
+            tasks.add(t);
+            wb.saveAdded(tasks, t);
+        }
+        wb.close();
+
+        assertEquals(1000, wb.getRequestedSaves());
+        assertTrue(wb.getSaveStats().getWrites() < 10, "Burst should be merged into a handful of writes");
+        assertEquals(1000, storage.load().size());
+    }
+
+    @Test
+    void writeBehind_writesTasksAsTheyWereWhenSaved() {
+        WriteBehindStorage wb = new WriteBehindStorage(TEST_FILE);
+        wb.setFsyncPolicy(FsyncPolicy.never());
+        wb.setLingerMillis(200);
+        Todo t = new Todo("snapshot me");
+
+        wb.save(List.of(t));
+        t.markAsDone(); // changed after the save, while the writer is still lingering
+        wb.close();
+
+        assertFalse(storage.load().get(0).ifDone(), "The writer should not see later changes");
+    }
+
+    @Test
+    void writeBehind_copiesOnlyTasksChangedSinceTheLastSave() {
+        WriteBehindStorage wb = new WriteBehindStorage(TEST_FILE);
+        wb.setFsyncPolicy(FsyncPolicy.never());
+        int[] copies = new int[1];
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("task " + i) {
+                @Override
+                public Task copy() {
+                    copies[0]++;
+                    return super.copy();
+                }
+            });
+        }
+
+        wb.save(tasks);
+        assertEquals(100, copies[0]);
+        tasks.get(7).markAsDone();
+        wb.save(tasks);
+        wb.save(tasks);
+        wb.close();
+
+        assertEquals(101, copies[0], "Only the marked task should be copied again");
+        assertTrue(storage.load().get(7).ifDone());
+    }
+
+    @Test
+    void writeBehind_flushSurvivesAWriterThatDied() {
+        WriteBehindStorage wb = new WriteBehindStorage(TEST_FILE);
+        wb.setFsyncPolicy(FsyncPolicy.never());
+        wb.setLingerMillis(0);
+        Todo fatal = new Todo("fatal") {
+            @Override
+            public Task copy() {
+                return new Todo("fatal") {
+                    @Override
+                    public String toSaveFormat() {
+                        throw new AssertionError("writer dies here");
+                    }
+                };
+            }
+        };
+
+        wb.save(List.of(fatal));
+        wb.flush();
+        wb.save(List.of(new Todo("after")));
+        wb.close();
+
+        assertEquals("after", storage.load().get(0).getDescription());
+    }
+
+    @Test
+    void binaryFormat_rejectsCorruptCountsLengthsAndDates() throws IOException {
+        // A count far beyond the file keeps the complete records, without a huge allocation
+        writeBinary(Integer.MAX_VALUE, data -> writeTodoRecord(data, "only", 4));
+        assertEquals(1, storage.load().size());
+
+        writeBinary(1, data -> writeTodoRecord(data, "bad", -5));
+        assertTrue(storage.load().isEmpty(), "A negative length should fail the load");
+
+        writeBinary(1, data -> {
+            data.writeByte('D');
+            data.writeByte(0);
+            data.writeInt(3);
+            data.write("far".getBytes(StandardCharsets.UTF_8));
+            data.writeLong(Long.MAX_VALUE); // epoch day out of range
+            data.writeLong(1);
+        });
+        assertTrue(storage.load().isEmpty(), "A date out of range should fail the load");
+        List<Task> lazy = storage.loadLazy();
+        assertEquals(1, lazy.size());
+        assertTrue(lazy.get(0) instanceof Todo, "The lazy list should mark the record unreadable");
+    }
+
+    /** Writes a binary task file whose header claims {@code count} tasks. */
+    private static void writeBinary(int count, Records records) throws IOException {
+        try (DataOutputStream data = new DataOutputStream(new FileOutputStream(TEST_FILE))) {
+            data.writeInt(BinaryTaskCodec.MAGIC);
+            data.writeShort(BinaryTaskCodec.VERSION);
+            data.writeInt(count);
+            records.write(data);
+        }
+    }
+
+    private static void writeTodoRecord(DataOutputStream data, String description, int len) throws IOException {
+        data.writeByte('T');
+        data.writeByte(0);
+        data.writeInt(len);
+        data.write(description.getBytes(StandardCharsets.UTF_8));
+        data.writeLong(1);
+    }
+
+    private interface Records {
+        void write(DataOutputStream data) throws IOException;
+    }
+
+    @Test
+    void binaryFormat_roundTripAndConvertBack() {
+        Deadline d = new Deadline("submit", LocalDate.of(2025, 9, 1), true);
+        Event e = new Event("meeting 会议", LocalDateTime.of(2025, 9, 1, 9, 30), LocalDateTime.of(2025, 9, 1, 11, 0));
+        TaskList tasks = new TaskList();
+        tasks.addAll(List.of(new Todo("read"), d, e));
+
+        storage.setFormat(Storage.Format.BINARY);
+        storage.save(tasks);
+        List<Task> loaded = storage.load();
+        assertEquals(3, loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toSaveFormat(), loaded.get(i).toSaveFormat());
+        }
+
+        storage.convertTo(Storage.Format.TEXT);
+        List<Task> text = new Storage(TEST_FILE).load();
+        assertEquals(e.toSaveFormat(), text.get(2).toSaveFormat());
+    }
+
+    @Test
+    void loadLazy_decodesOnlyTouchedTasks() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        tasks.add(new Deadline("due", LocalDate.of(2025, 9, 1)));
+        storage.save(tasks);
+
+        List<Task> lazy = storage.loadLazy();
+        assertEquals(101, lazy.size());
+        assertEquals(0, ((MappedTaskList) lazy).materializedCount());
+
+        lazy.get(3).markAsDone();
+        lazy.remove(0);
+        lazy.add(new Todo("new"));
+        assertEquals(2, ((MappedTaskList) lazy).materializedCount());
+
+        storage.save(lazy);
+        List<Task> reloaded = storage.load();
+        assertEquals(101, reloaded.size());
+        assertEquals("T | 1 | task 3 | #4", reloaded.get(2).toSaveFormat());
+        assertEquals("D | 0 | due | 2025-09-01 | #101", reloaded.get(99).toSaveFormat());
+        assertEquals("T | 0 | new | #102", reloaded.get(100).toSaveFormat(), "Added without an id, numbered on load");
+    }
+
+    @Test
+    void parallelLoad_keepsFileOrder() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 5000; i++) {
+            tasks.add(i % 2 == 0 ? new Todo("task " + i) : new Deadline("due " + i, LocalDate.of(2025, 1, 1)));
+        }
+        storage.save(tasks);
+
+        storage.setParallelLoadThreshold(0);
+        storage.setLoadParallelism(4);
+        List<Task> loaded = storage.load();
+
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toSaveFormat(), loaded.get(i).toSaveFormat());
+        }
+    }
+
+    @Test
+    void load_reportsProgressInSteps() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 2000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        for (Storage.Format format : Storage.Format.values()) {
+            storage.setFormat(format);
+            storage.save(tasks);
+            storage.setParallelLoadThreshold(Long.MAX_VALUE);
+            storage.setProgressStep(4096);
+            List<long[]> reports = new ArrayList<>();
+            List<Task> loaded = storage.load((done, total) -> reports.add(new long[] { done, total }));
+
+            assertEquals(tasks.size(), loaded.size(), format + " load");
+            assertTrue(reports.size() > 3, format + " should report several times: " + reports.size());
+            long total = new File(TEST_FILE).length();
+            for (int i = 1; i < reports.size(); i++) {
+                assertTrue(reports.get(i)[0] >= reports.get(i - 1)[0], format + " progress should not go back");
+                assertEquals(total, reports.get(i)[1]);
+            }
+            assertEquals(total, reports.get(reports.size() - 1)[0], format + " should end at the file size");
+        }
+    }
+
+    @Test
+    void parallelSplit_endsRangesOnLineBreaks() {
+        byte[] bytes = "a\nbb\nccc\ndddd\n".getBytes();
+        int[] bounds = ParallelTextLoader.split(bytes, 3);
+
+        assertEquals(0, bounds[0]);
+        assertEquals(bytes.length, bounds[bounds.length - 1]);
+        for (int i = 1; i < bounds.length - 1; i++) {
+            assertEquals('\n', bytes[bounds[i] - 1]);
+        }
+    }
+
+    @Test
+    void incremental_marksInPlaceAndAppendsAdds() {
+        storage.setIncrementalEnabled(true);
+        TaskList tasks = new TaskList();
+        tasks.addAll(List.of(new Todo("read"), new Deadline("submit", LocalDate.of(2025, 9, 1))));
+        storage.save(tasks);
+        long length = new File(TEST_FILE).length();
+        long writtenBytes = storage.getSaveStats().getTotalBytes();
+
+        tasks.get(1).markAsDone();
+        storage.saveUpdated(tasks, 1);
+        assertEquals(length, new File(TEST_FILE).length());
+        assertEquals(writtenBytes + 1, storage.getSaveStats().getTotalBytes());
+        assertFalse(tasks.get(1).isDirty());
+
+        Todo added = new Todo("new");
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+        added.markAsDone();
+        storage.saveUpdated(tasks, 2);
+
+        List<Task> reloaded = new Storage(TEST_FILE).load();
+        assertEquals(3, reloaded.size());
+        assertEquals("D | 1 | submit | 2025-09-01 | #2", reloaded.get(1).toSaveFormat());
+        assertEquals("T | 1 | new | #3", reloaded.get(2).toSaveFormat());
+    }
+
+    @Test
+    void incremental_binaryFormat() {
+        storage.setIncrementalEnabled(true);
+        storage.setFormat(Storage.Format.BINARY);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read"));
+        storage.save(tasks);
+
+        Todo added = new Todo("write");
+        tasks.add(added);
+        storage.saveAdded(tasks, added);
+        tasks.get(0).markAsDone();
+        storage.saveUpdated(tasks, 0);
+        assertEquals(3, storage.getSaveStats().getWrites()); // one full save, then two in-place writes
+
+        List<Task> reloaded = new Storage(TEST_FILE).load();
+        assertEquals(2, reloaded.size());
+        assertEquals("T | 1 | read | #1", reloaded.get(0).toSaveFormat());
+        assertEquals("T | 0 | write | #2", reloaded.get(1).toSaveFormat());
+    }
+
+    @Test
+    void lineDecoder_parsesAllShapes() {
+        TaskLineDecoder decoder = new TaskLineDecoder();
+        assertEquals("T | 1 | read 书", decoder.decode("  T|1|  read 书 \t").toSaveFormat());
+        assertEquals("D | 0 | submit | 2025-09-01", decoder.decode("D | 0 | submit | 2025-09-01").toSaveFormat());
+        assertEquals("E | 0 | talk | 2025-09-01 0930 | 2025-09-01 1100",
+                decoder.decode("E | 0 | talk | 2025-09-01 0930 | 2025-09-01 1100").toSaveFormat());
+        // older ISO event form goes through the formatter fallback
+        assertEquals("E | 1 | talk | 2025-09-01 0930 | 2025-09-01 1100",
+                decoder.decode("E | 1 | talk | 2025-09-01T09:30 | 2025-09-01T11:00").toSaveFormat());
+
+        assertNull(decoder.decode("D | 0 | submit | someday"));
+        assertTrue(decoder.error().startsWith("bad date 'someday'"));
+        assertNull(decoder.decode("X | 0 | what"));
+        assertTrue(decoder.error().startsWith("unknown task type 'X'"));
+        assertNull(decoder.decode("   "));
+        assertNull(decoder.error());
+    }
+
+    @Test
+    void load_reportsMalformedLinesWithLineNumbers() throws Exception {
+        java.nio.file.Files.writeString(new File(TEST_FILE).toPath(),
+                "T | 0 | ok\n\nE | 0 | party | 2025-09-01 1800\nD | 1 | due | 2025-09-01\n");
+        java.io.ByteArrayOutputStream captured = new java.io.ByteArrayOutputStream();
+        java.io.PrintStream original = System.out;
+        System.setOut(new java.io.PrintStream(captured, true, "UTF-8"));
+        List<Task> loaded;
+        try {
+            loaded = storage.load();
+        } finally {
+            System.setOut(original);
+        }
+
+        assertEquals(2, loaded.size());
+        assertEquals("D | 1 | due | 2025-09-01 | #2", loaded.get(1).toSaveFormat());
+        assertTrue(captured.toString("UTF-8").contains("line 3: missing event end"));
+    }
+
+    @Test
+    void taskIds_surviveTextBinaryAndLazyLoads() throws Exception {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("old"));
+        tasks.add(new Deadline("due", LocalDate.of(2025, 9, 1)));
+        tasks.add(new Event("talk", LocalDateTime.of(2025, 9, 1, 9, 30), LocalDateTime.of(2025, 9, 1, 11, 0)));
+        tasks.remove(0);
+        tasks.add(new Todo("new"));
+        assertEquals("T | 0 | new | #4", tasks.get(2).toSaveFormat());
+
+        storage.save(tasks);
+        assertIds(storage.load(), 2, 3, 4);
+        assertIds(storage.loadLazy(), 2, 3, 4);
+
+        storage.setFormat(Storage.Format.BINARY);
+        storage.save(tasks);
+        assertIds(storage.load(), 2, 3, 4);
+        assertIds(storage.loadLazy(), 2, 3, 4);
+
+        // tasks from before ids existed are numbered after the largest id on load, and the
+        // file is rewritten so the next load, eager or lazy, finds the same ids
+        storage.setFormat(Storage.Format.TEXT);
+        for (boolean lazy : new boolean[] { false, true }) {
+            java.nio.file.Files.writeString(new File(TEST_FILE).toPath(),
+                    "T | 0 | a\nT | 1 | b | #7\nD | 0 | c | 2025-09-01\n");
+            TaskList reloaded = TaskList.backedBy(lazy ? storage.loadLazy() : storage.load());
+            assertIds(reloaded, 8, 7, 9);
+            assertSame(reloaded.get(1), reloaded.byId(7));
+            assertEquals(2, reloaded.indexOfId(9));
+            assertEquals("T | 0 | a | #8", java.nio.file.Files.readAllLines(new File(TEST_FILE).toPath()).get(0));
+            List<Task> again = storage.loadLazy();
+            assertEquals(0, ((MappedTaskList) again).materializedCount(), "A file with ids loads lazily");
+            assertIds(again, 8, 7, 9);
+        }
+    }
+
+    private static void assertIds(List<Task> tasks, long... ids) {
+        assertEquals(ids.length, tasks.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], tasks.get(i).getId());
+        }
     }
 }
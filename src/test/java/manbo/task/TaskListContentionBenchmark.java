@@ -0,0 +1,132 @@
+package manbo.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Measures many sessions reading one shared {@link TaskList} while one session keeps
+ * changing it: {@link TaskList#read} and {@link TaskList#write} against the same queries
+ * run under a single monitor, which is what sharing the list would take without them.
+ * Readers cycle through {@code stats}, {@code find} and {@code list}; the writer adds a task,
+ * marks it and deletes it again, which the indexes follow without a rebuild.
+ * Not part of the test suite; run it by hand, e.g.
+ * {@code java -cp build/classes/java/main:build/classes/java/test manbo.task.TaskListContentionBenchmark 8 10000}
+ * for 8 readers over 10,000 tasks.
+ */
+public class TaskListContentionBenchmark {
+    private static final long MILLIS = 2000;
+    private static final int ROUNDS = 3;
+
+    /** Runs a query or a change under some locking scheme. */
+    private interface Access {
+        <T> T read(TaskList tasks, Supplier<T> query);
+
+        void write(TaskList tasks, Runnable change);
+    }
+
+    private static final Access READ_WRITE = new Access() {
+        @Override
+        public <T> T read(TaskList tasks, Supplier<T> query) {
+            return tasks.read(query);
+        }
+
+        @Override
+        public void write(TaskList tasks, Runnable change) {
+            tasks.write(change::run);
+        }
+    };
+
+    private static final Access MONITOR = new Access() {
+        @Override
+        public <T> T read(TaskList tasks, Supplier<T> query) {
+            synchronized (tasks) {
+                return query.get();
+            }
+        }
+
+        @Override
+        public void write(TaskList tasks, Runnable change) {
+            synchronized (tasks) {
+                change.run();
+            }
+        }
+    };
+
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        for (int round = 0; round < ROUNDS; round++) {
+            report("monitor", run(MONITOR, readers, count));
+            report("stamped", run(READ_WRITE, readers, count));
+        }
+    }
+
+    private static void report(String name, long[] ops) {
+        System.out.printf(Locale.ROOT, "%s: reads %,10.0f/s   writes %,9.0f/s%n",
+                name, ops[0] * 1000.0 / MILLIS, ops[1] * 1000.0 / MILLIS);
+    }
+
+    /** @return reads and writes completed in {@link #MILLIS} */
+    private static long[] run(Access access, int readers, int count) throws InterruptedException {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Todo("task number " + i + (i % 10 == 0 ? " report" : "")));
+        }
+        // Build every index up front, so both schemes answer from them
+        tasks.find("report");
+        tasks.counters();
+        tasks.assignIds();
+
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder reads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            int first = r;
+            threads.add(new Thread(() -> {
+                long sink = 0;
+                for (int i = first; !stop.get(); i++) {
+                    switch (i % 3) {
+                    case 0:
+                        sink += access.read(tasks, () -> tasks.counters().getDone());
+                        break;
+                    case 1:
+                        sink += access.read(tasks, () -> tasks.find("report")).size();
+                        break;
+                    default:
+                        sink += access.read(tasks, tasks::snapshot).size();
+                        break;
+                    }
+                    reads.increment();
+                }
+                if (sink == 42) {
+                    System.out.print(""); // keep the results alive
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            for (int i = 0; !stop.get(); i++) {
+                int n = i;
+                access.write(tasks, () -> {
+                    Task t = new Todo("added " + n + (n % 10 == 0 ? " report" : ""));
+                    tasks.add(t);
+                    t.markAsDone();
+                    tasks.remove(tasks.size() - 1);
+                });
+                writes.increment();
+            }
+        }));
+
+        threads.forEach(Thread::start);
+        Thread.sleep(MILLIS);
+        stop.set(true);
+        for (Thread t : threads) {
+            t.join();
+        }
+        return new long[] { reads.sum(), writes.sum() };
+    }
+}
@@ -0,0 +1,339 @@
+package manbo.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the indexed searches of TaskList agree with plain scans while the list changes.
+ */
+public class TaskListTest {
+    private static final String[] WORDS = {
+        "read", "book", "reading", "bookshelf", "Return", "CS2103", "tp", "ip", "week-3", "e-mail", "café"
+    };
+
+    private static TaskList randomList(Random rnd, int count) {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < count; i++) {
+            tasks.add(randomTask(rnd));
+        }
+        return tasks;
+    }
+
+    private static Task randomTask(Random rnd) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + rnd.nextInt(4);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(rnd.nextBoolean() ? " " : ", ");
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        return rnd.nextBoolean() ? new Todo(sb.toString())
+                : new Deadline(sb.toString(), LocalDate.of(2025, 1, 1).plusDays(rnd.nextInt(60)));
+    }
+
+    private static void assertFindMatchesScan(TaskList tasks, String keyword) {
+        List<Task> expected = TaskList.scan(tasks, keyword.trim().toLowerCase(java.util.Locale.ROOT));
+        assertEquals(expected, tasks.find(keyword), "find(\"" + keyword + "\")");
+    }
+
+    @Test
+    void find_agreesWithScanForWholePartialAndMultiWordQueries() {
+        TaskList tasks = randomList(new Random(7), 500);
+        String[] queries = {
+            "read", "READ", "ead", "book read", "ding, book", "k, re", "s2103 t", "week-3", "-", "e-mail",
+            "café", "af", " bookshelf ", "nothing", "reading book reading", "3 tp", "ead", "ookshe", "2103", "Turn"
+        };
+        for (String q : queries) {
+            assertFindMatchesScan(tasks, q);
+        }
+    }
+
+    @Test
+    void find_followsAddsAndRemoves() {
+        Random rnd = new Random(42);
+        TaskList tasks = randomList(rnd, 200);
+        assertFindMatchesScan(tasks, "book");   // builds the index
+
+        for (int round = 0; round < 3000; round++) {
+            if (tasks.isEmpty() || rnd.nextInt(3) > 0) {
+                tasks.add(randomTask(rnd));
+            } else {
+                tasks.remove(rnd.nextInt(tasks.size()));
+            }
+            if (round % 100 == 0) {
+                assertFindMatchesScan(tasks, WORDS[rnd.nextInt(WORDS.length)]);
+                assertFindMatchesScan(tasks, "ok");
+                assertFindMatchesScan(tasks, "ading");
+            }
+        }
+        tasks.add(0, new Todo("book at the front"));
+        assertFindMatchesScan(tasks, "book");
+    }
+
+    @Test
+    void counters_followAddsRemovesAndMarks() {
+        Random rnd = new Random(3);
+        TaskList tasks = randomList(rnd, 50);
+        tasks.get(0).markAsDone();
+        TaskCounters counters = tasks.counters();
+
+        for (int round = 0; round < 2000; round++) {
+            int op = rnd.nextInt(4);
+            if (tasks.isEmpty() || op == 0) {
+                Task t = randomTask(rnd);
+                if (rnd.nextBoolean()) t.markAsDone();
+                tasks.add(t);
+            } else if (op == 1) {
+                tasks.remove(rnd.nextInt(tasks.size()));
+            } else if (op == 2) {
+                tasks.get(rnd.nextInt(tasks.size())).markAsDone();
+            } else {
+                tasks.get(rnd.nextInt(tasks.size())).unmarkAsDone();
+            }
+            counters.verify(tasks);
+        }
+        assertEquals(tasks.size(), counters.getTotal());
+
+        // a removed task no longer affects the counts
+        Task gone = tasks.remove(0);
+        int done = counters.getDone();
+        if (gone.ifDone()) gone.unmarkAsDone(); else gone.markAsDone();
+        assertEquals(done, counters.getDone());
+    }
+
+    @Test
+    void deadlines_followAddsRemovesAndMarks() {
+        Random rnd = new Random(5);
+        TaskList tasks = randomList(rnd, 50);
+        tasks.get(0).markAsDone();
+        manbo.search.DeadlineQueue queue = tasks.deadlines();
+        LocalDate today = LocalDate.of(2025, 1, 20);
+
+        for (int round = 0; round < 2000; round++) {
+            int op = rnd.nextInt(4);
+            if (tasks.isEmpty() || op == 0) {
+                Task t = randomTask(rnd);
+                if (rnd.nextBoolean()) t.markAsDone();
+                tasks.add(rnd.nextInt(tasks.size() + 1), t);
+            } else if (op == 1) {
+                tasks.remove(rnd.nextInt(tasks.size()));
+            } else if (op == 2) {
+                tasks.get(rnd.nextInt(tasks.size())).markAsDone();
+            } else {
+                tasks.get(rnd.nextInt(tasks.size())).unmarkAsDone();
+            }
+
+            List<Deadline> open = new ArrayList<>();
+            for (Task t : tasks) {
+                if (t instanceof Deadline && !t.ifDone()) open.add((Deadline) t);
+            }
+            assertEquals(open.size(), queue.openCount());
+            List<LocalDate> late = new ArrayList<>();
+            List<LocalDate> soon = new ArrayList<>();
+            for (Deadline d : open) {
+                (d.getBy().isBefore(today) ? late : soon).add(d.getBy());
+            }
+            late.sort(null);
+            soon.sort(null);
+            assertEquals(late, dates(queue.overdue(today)));
+            assertEquals(soon.subList(0, Math.min(3, soon.size())), dates(queue.upcoming(today, 3)));
+        }
+    }
+
+    private static List<LocalDate> dates(List<Deadline> deadlines) {
+        List<LocalDate> out = new ArrayList<>();
+        for (Deadline d : deadlines) {
+            out.add(d.getBy());
+        }
+        return out;
+    }
+
+    @Test
+    void removeAt_keepsIndexesCountersAndIdsInStep() {
+        Random rnd = new Random(8);
+        TaskList tasks = randomList(rnd, 3000);
+        assertFindMatchesScan(tasks, "book");   // builds the trigram index
+        assertFindMatchesScan(tasks, "ok");     // and the word index
+        TaskCounters counters = tasks.counters();
+        tasks.assignIds();
+
+        while (tasks.size() > 10) {
+            List<Task> expected = new ArrayList<>(tasks);
+            List<Integer> picked = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                if (rnd.nextInt(4) == 0) picked.add(i);
+            }
+            int[] positions = picked.stream().mapToInt(Integer::intValue).toArray();
+            for (int k = positions.length - 1; k >= 0; k--) {
+                expected.remove(positions[k]);
+            }
+
+            List<Task> removed = tasks.removeAt(positions);
+            assertEquals(positions.length, removed.size());
+            assertEquals(expected, tasks);
+            counters.verify(tasks);
+            for (Task t : removed) {
+                assertNull(tasks.byId(t.getId()));
+            }
+            for (Task t : tasks) {
+                assertSame(t, tasks.byId(t.getId()));
+            }
+            assertFindMatchesScan(tasks, "book");
+            assertFindMatchesScan(tasks, "ok");
+        }
+    }
+
+    @Test
+    void sharedReads_seeOnlyWholeWrites() throws Exception {
+        TaskList tasks = new TaskList();
+        int writes = 3000;
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean();
+
+        // Each write adds two tasks and marks one; every consistent view has an even size,
+        // as many "pair" matches as tasks, and exactly half of them done
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < writes; i++) {
+                tasks.write(() -> {
+                    tasks.add(new Todo("pair left"));
+                    Task right = new Todo("pair right");
+                    tasks.add(right);
+                    right.markAsDone();
+                    if (tasks.size() > 200) {
+                        tasks.removeAt(new int[] { 0, 1 });
+                    }
+                });
+            }
+            done.set(true);
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                while (!done.get() && failure.get() == null) {
+                    int[] view = tasks.read(() -> new int[] {
+                        tasks.snapshot().size(), tasks.find("pair").size(), tasks.counters().getDone()
+                    });
+                    if (view[0] % 2 != 0 || view[1] != view[0] || view[2] * 2 != view[0]) {
+                        failure.set(Arrays.toString(view));
+                    }
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        writer.start();
+        writer.join();
+        for (Thread t : readers) {
+            t.join();
+        }
+
+        assertNull(failure.get(), "A reader saw a half-done write");
+        assertEquals(200, tasks.size());
+    }
+
+    @Test
+    void read_buildsMissingIndexesAndNestsInsideWrite() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+
+        // Nothing is built yet, so this read has to fall back to the write lock
+        assertEquals(1, tasks.read(() -> tasks.find("book")).size());
+        int total = tasks.read(() -> tasks.counters().getTotal());
+        assertEquals(1, total);
+
+        tasks.write(() -> {
+            tasks.add(new Todo("another book"));
+            assertEquals(2, tasks.read(() -> tasks.find("book")).size(), "A nested read sees the write so far");
+        });
+        assertEquals(2, tasks.read(tasks::snapshot).size());
+    }
+
+    @Test
+    void nestedRead_ofAnotherListWaitsForItsWrite() throws Exception {
+        TaskList outer = new TaskList();
+        TaskList inner = new TaskList();
+        CountDownLatch halfDone = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        // Adds two tasks to the inner list, pausing in between
+        Thread writer = new Thread(() -> inner.write(() -> {
+            inner.add(new Todo("first"));
+            halfDone.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            inner.add(new Todo("second"));
+        }));
+        writer.start();
+        halfDone.await();
+
+        int[] seen = { -1 };
+        Thread reader = new Thread(() -> seen[0] = outer.read(() -> inner.read(inner::size)));
+        reader.start();
+        reader.join(200);
+        assertTrue(reader.isAlive(), "Reading the inner list should wait for its write, saw " + seen[0]);
+        finish.countDown();
+        reader.join();
+        writer.join();
+        assertEquals(2, seen[0]);
+    }
+
+    @Test
+    void setListener_claimsTasksAsTheyAreRead() {
+        int[] reads = new int[1];
+        List<Task> backing = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            backing.add(new Todo("task " + i));
+        }
+        TaskList tasks = TaskList.backedBy(new java.util.AbstractList<Task>() {
+            @Override
+            public Task get(int index) {
+                reads[0]++;
+                return backing.get(index);
+            }
+
+            @Override
+            public int size() {
+                return backing.size();
+            }
+        });
+        List<Task> changed = new ArrayList<>();
+
+        tasks.setListener(new TaskListener() {
+            @Override
+            public void added(Task t) {
+            }
+
+            @Override
+            public void removed(Task t) {
+            }
+
+            @Override
+            public void doneChanged(Task t) {
+                changed.add(t);
+            }
+        });
+        assertEquals(0, reads[0], "Setting a listener should not visit the tasks");
+
+        Task third = tasks.get(3);
+        third.markAsDone();
+        assertEquals(List.of(third), changed);
+        assertEquals(1, reads[0]);
+
+        // a task found by id is claimed too
+        backing.get(5).setId(42);
+        Task byId = tasks.byId(42);
+        byId.markAsDone();
+        assertEquals(List.of(third, byId), changed);
+    }
+}
@@ -0,0 +1,76 @@
+package manbo.ui;
+
+import manbo.task.Task;
+import manbo.task.Todo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures rendering {@code list} for a large task list through each {@link UiSink}, next to
+ * the line-by-line {@code println} the UI used before, writing to a temp file.
+ * Not part of the test suite; run it by hand, e.g.
+ * {@code java -cp build/classes/java/main:build/classes/java/test manbo.ui.UiBenchmark 100000}.
+ * Allocation is read from the HotSpot per-thread counter, so other JVMs print 0 bytes.
+ */
+public class UiBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task t = new Todo("task number " + i, i % 3 == 0);
+            t.setId(i + 1);
+            tasks.add(t);
+        }
+        File file = File.createTempFile("manbo-ui-", ".txt");
+        file.deleteOnExit();
+
+        try (PrintStream out = new PrintStream(new FileOutputStream(file), true)) {
+            Ui console = new Ui(new ConsoleSink(out));
+            Ui discard = new Ui(NullSink.INSTANCE);
+            for (int round = 0; round < ROUNDS; round++) {
+                long[] legacy = measure(() -> legacyList(tasks, out));
+                long[] sink = measure(() -> {
+                    console.showList(tasks);
+                    console.render();
+                });
+                long[] none = measure(() -> discard.showList(tasks));
+                System.out.printf(Locale.ROOT,
+                        "println: %6.1f ms %4d B/task   console: %6.1f ms %4d B/task   null: %6.1f ms %4d B/task%n",
+                        legacy[0] / 1e6, legacy[1] / count, sink[0] / 1e6, sink[1] / count,
+                        none[0] / 1e6, none[1] / count);
+            }
+        }
+    }
+
+    /** @return elapsed nanoseconds and bytes allocated by the current thread */
+    private static long[] measure(Runnable work) {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long bytesBefore = mx.getThreadAllocatedBytes(id);
+        long start = System.nanoTime();
+        work.run();
+        long nanos = System.nanoTime() - start;
+        return new long[] { nanos, Math.max(0, mx.getThreadAllocatedBytes(id) - bytesBefore) };
+    }
+
+    /** What {@code list} did before sinks: println per line, plus a copy of every line kept. */
+    private static void legacyList(List<Task> tasks, PrintStream out) {
+        StringBuilder kept = new StringBuilder();
+        out.println(" Here are the tasks in your list:");
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            String line = " " + (i + 1) + "." + t + (t.getId() > 0 ? "  #" + t.getId() : "");
+            out.println(line);
+            kept.append(line).append('\n');
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package manbo.ui;
+
+import manbo.task.Task;
+import manbo.task.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UiSinkTest {
+    @Test
+    public void consoleSink_printsEachReplyOnRenderAndKeepsNothing() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Ui ui = new Ui(new ConsoleSink(new PrintStream(bytes, true)));
+
+        ui.info("hello");
+        assertEquals(0, bytes.size(), "Nothing should be printed before the reply is rendered");
+        ui.render();
+        String nl = System.lineSeparator();
+        String line = "____________________________________________________________";
+        assertEquals(line + nl + " hello" + nl + line + nl, bytes.toString());
+        assertEquals("", ui.out(), "A console UI should not keep printed replies");
+
+        // a long reply goes out in chunks before it is complete
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            tasks.add(new Todo("task number " + i));
+        }
+        bytes.reset();
+        ui.showList(tasks);
+        assertTrue(bytes.size() > 0, "A long reply should be printed in chunks");
+        ui.render();
+        assertTrue(bytes.toString().contains(" 2000.[T][ ] task number 1999" + nl));
+    }
+
+    @Test
+    public void captureSink_keepsOneReplyUntilReset() {
+        Ui ui = new Ui();
+        ui.info("first");
+        ui.render();
+        assertTrue(ui.out().contains(" first\n"));
+        ui.reset();
+        ui.info("second");
+        assertFalse(ui.out().contains("first"));
+        assertTrue(ui.out().contains(" second\n"));
+
+        ui.setSink(NullSink.INSTANCE);
+        ui.info("dropped");
+        ui.render();
+        assertEquals("", ui.out());
+    }
+}